@@ -2,6 +2,8 @@ package com.elducche.mdd;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Application principale MDD - Architecture monolithique
@@ -14,6 +16,8 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - Le système de notifications
  */
 @SpringBootApplication
+@EnableScheduling
+@ConfigurationPropertiesScan
 public class MddApplication {
 
     public static void main(String[] args) {
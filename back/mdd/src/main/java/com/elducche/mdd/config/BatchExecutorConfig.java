@@ -0,0 +1,30 @@
+package com.elducche.mdd.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool dédié aux sous-requêtes de /api/batch
+ * 
+ * Borné en threads et en file d'attente pour qu'un afflux de requêtes groupées
+ * ne puisse pas épuiser le pool de connexions ni la mémoire.
+ */
+@Configuration
+public class BatchExecutorConfig {
+
+    @Bean(name = "batchExecutor")
+    public ThreadPoolTaskExecutor batchExecutor(@Value("${mdd.batch.pool-size:8}") int poolSize,
+                                                @Value("${mdd.batch.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mdd-batch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
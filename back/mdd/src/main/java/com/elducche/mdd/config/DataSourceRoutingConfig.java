@@ -0,0 +1,88 @@
+package com.elducche.mdd.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Configuration du routage des lectures vers une réplique PostgreSQL
+ * 
+ * Active uniquement si mdd.datasource.replica.enabled=true (profil "replica").
+ * Le primaire reprend la configuration standard spring.datasource.*.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "mdd.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+    
+    /**
+     * Pool de connexions vers le primaire (spring.datasource.*)
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("mdd-primary");
+        return dataSource;
+    }
+    
+    /**
+     * Pool de connexions en lecture seule vers la réplique
+     * (délais et cache de requêtes préparées repris du pool primaire)
+     */
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, 
+                                              ReplicaProperties replicaProperties,
+                                              HikariDataSource primaryDataSource) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("mdd-replica");
+        dataSource.setDriverClassName(properties.getDriverClassName());
+        dataSource.setJdbcUrl(replicaProperties.getUrl());
+        dataSource.setUsername(replicaProperties.getUsername());
+        dataSource.setPassword(replicaProperties.getPassword());
+        dataSource.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+        dataSource.setValidationTimeout(primaryDataSource.getValidationTimeout());
+        dataSource.setIdleTimeout(primaryDataSource.getIdleTimeout());
+        dataSource.setMaxLifetime(primaryDataSource.getMaxLifetime());
+        dataSource.setKeepaliveTime(primaryDataSource.getKeepaliveTime());
+        dataSource.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+    
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource,
+                                               HikariDataSource replicaDataSource,
+                                               ReplicaProperties replicaProperties) {
+        return new ReplicaLagMonitor(primaryDataSource, replicaDataSource, replicaProperties);
+    }
+    
+    /**
+     * DataSource exposée à JPA, Flyway et JdbcTemplate
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 HikariDataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaLagMonitor, readYourWritesTracker);
+        routing.setTargetDataSources(Map.of(
+            ReplicaRoutingDataSource.Route.PRIMARY, primaryDataSource,
+            ReplicaRoutingDataSource.Route.REPLICA, replicaDataSource
+        ));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
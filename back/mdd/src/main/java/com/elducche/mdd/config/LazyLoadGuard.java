@@ -0,0 +1,117 @@
+package com.elducche.mdd.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.LazyInitializationException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Garde-fou contre les chargements paresseux hors plan de chargement
+ *
+ * Les réponses sont construites à partir de plans explicites (JOIN FETCH / @EntityGraph) :
+ * toute initialisation d'un proxy (@ManyToOne LAZY) ou d'une collection LAZY signale
+ * une requête supplémentaire non prévue (N+1, toString, log, débogueur...).
+ *
+ * Modes (mdd.lazy-load-guard.mode) :
+ * - off : aucun contrôle ;
+ * - log : avertissement (une fois par association et par appelant) et compteur mdd.jpa.lazy.loads ;
+ * - fail : LazyInitializationException levée avant le chargement.
+ */
+@Slf4j
+@Component
+public class LazyLoadGuard implements LoadEventListener, InitializeCollectionEventListener {
+
+    private static final String APP_PACKAGE = "com.elducche.mdd.";
+
+    private enum Mode { OFF, LOG, FAIL }
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${mdd.lazy-load-guard.mode:log}")
+    private String configuredMode;
+
+    private Mode mode;
+
+    /**
+     * Couples (association, appelant) déjà signalés, pour ne pas inonder les logs
+     */
+    private final Set<String> reported = ConcurrentHashMap.newKeySet();
+
+    public LazyLoadGuard(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void register() {
+        mode = Mode.valueOf(configuredMode.trim().toUpperCase(Locale.ROOT));
+        if (mode == Mode.OFF) {
+            return;
+        }
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.LOAD, (LoadEventListener) this);
+        registry.prependListeners(EventType.INIT_COLLECTION, (InitializeCollectionEventListener) this);
+        log.info("Garde-fou des chargements paresseux actif (mode {})", mode.name().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Initialisation d'un proxy : Hibernate charge l'entité en IMMEDIATE_LOAD
+     */
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) {
+        if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+            report(event.getEntityClassName());
+        }
+    }
+
+    /**
+     * Initialisation d'une collection LAZY (rôle : Entité.attribut)
+     */
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        report(event.getCollection().getRole());
+    }
+
+    private void report(String association) {
+        meterRegistry.counter("mdd.jpa.lazy.loads", "association", association).increment();
+
+        String caller = findCaller();
+        if (mode == Mode.FAIL) {
+            throw new LazyInitializationException(
+                "Chargement paresseux hors plan de chargement: " + association + " (depuis " + caller + ")");
+        }
+        if (reported.add(association + "@" + caller)) {
+            log.warn("Chargement paresseux hors plan de chargement: {} (depuis {})", association, caller);
+        }
+    }
+
+    /**
+     * Première frame applicative de la pile d'appel (hors ce garde-fou)
+     */
+    private String findCaller() {
+        return StackWalker.getInstance().walk(frames -> frames
+            .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE))
+            .filter(frame -> !frame.getClassName().equals(LazyLoadGuard.class.getName()))
+            .findFirst()
+            .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+            .orElse("inconnu"));
+    }
+}
@@ -0,0 +1,117 @@
+package com.elducche.mdd.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ajustement automatique de la taille des pools Hikari (optionnel)
+ * 
+ * À chaque intervalle, pour chaque pool, compare l'attente moyenne d'une connexion
+ * (hikaricp.connections.acquire) à la durée moyenne d'utilisation
+ * (hikaricp.connections.usage), indicateur de saturation de la base :
+ * - attente élevée et base non saturée : le pool grandit d'une connexion ;
+ * - base saturée : le pool rétrécit d'une connexion (plus de connexions n'ajouterait que de la contention) ;
+ * - aucune attente et moins de la moitié des connexions actives : le pool rétrécit lentement.
+ * 
+ * Activé par mdd.pool.auto-size.enabled=true, bornes min-size / max-size.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "mdd.pool.auto-size", name = "enabled", havingValue = "true")
+public class PoolAutoSizer {
+    
+    private final List<HikariDataSource> pools;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${mdd.pool.auto-size.min-size:5}")
+    private int minSize;
+    
+    @Value("${mdd.pool.auto-size.max-size:30}")
+    private int maxSize;
+    
+    @Value("${mdd.pool.auto-size.target-acquire-time:10ms}")
+    private Duration targetAcquireTime;
+    
+    @Value("${mdd.pool.auto-size.saturation-usage-time:50ms}")
+    private Duration saturationUsageTime;
+    
+    /**
+     * Dernières valeurs cumulées des timers, par pool et par métrique
+     */
+    private final Map<String, double[]> lastSamples = new HashMap<>();
+    
+    public PoolAutoSizer(List<HikariDataSource> pools, MeterRegistry meterRegistry) {
+        this.pools = pools;
+        this.meterRegistry = meterRegistry;
+    }
+    
+    @Scheduled(fixedDelayString = "${mdd.pool.auto-size.interval-ms:5000}")
+    public void adjust() {
+        for (HikariDataSource pool : pools) {
+            try {
+                adjust(pool);
+            } catch (Exception e) {
+                log.error("Erreur lors de l'ajustement du pool {}: {}", pool.getPoolName(), e.getMessage());
+            }
+        }
+    }
+    
+    private void adjust(HikariDataSource pool) {
+        HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+        if (poolBean == null) {
+            return;
+        }
+        
+        double acquireNanos = meanSinceLastSample(pool.getPoolName(), "hikaricp.connections.acquire");
+        double usageNanos = meanSinceLastSample(pool.getPoolName(), "hikaricp.connections.usage");
+        int current = pool.getMaximumPoolSize();
+        int next = current;
+        
+        if (usageNanos > saturationUsageTime.toNanos()) {
+            next = Math.max(minSize, current - 1);
+        } else if (acquireNanos > targetAcquireTime.toNanos() || poolBean.getThreadsAwaitingConnection() > 0) {
+            next = Math.min(maxSize, current + 1);
+        } else if (poolBean.getActiveConnections() * 2 < current) {
+            next = Math.max(minSize, current - 1);
+        }
+        
+        if (next != current) {
+            // Hikari applique la nouvelle taille maximale à chaud
+            pool.getHikariConfigMXBean().setMaximumPoolSize(next);
+            log.info("Pool {} : taille maximale {} -> {} (attente {} ms, utilisation {} ms, actives {}, en attente {})",
+                    pool.getPoolName(), current, next,
+                    String.format("%.1f", acquireNanos / 1_000_000), String.format("%.1f", usageNanos / 1_000_000),
+                    poolBean.getActiveConnections(), poolBean.getThreadsAwaitingConnection());
+        }
+    }
+    
+    /**
+     * Moyenne (ns) d'un timer du pool depuis l'échantillon précédent
+     */
+    private double meanSinceLastSample(String poolName, String metric) {
+        Timer timer = meterRegistry.find(metric).tag("pool", poolName).timer();
+        if (timer == null) {
+            return 0;
+        }
+        double count = timer.count();
+        double total = timer.totalTime(TimeUnit.NANOSECONDS);
+        double[] last = lastSamples.put(poolName + "|" + metric, new double[] {count, total});
+        if (last == null || count <= last[0]) {
+            return 0;
+        }
+        return (total - last[1]) / (count - last[0]);
+    }
+}
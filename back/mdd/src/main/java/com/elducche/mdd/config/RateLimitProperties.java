@@ -0,0 +1,101 @@
+package com.elducche.mdd.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration de la limitation de débit et du délestage
+ * 
+ * Propriétés préfixées par mdd.rate-limit (voir application.yml)
+ */
+@Data
+@ConfigurationProperties(prefix = "mdd.rate-limit")
+public class RateLimitProperties {
+    
+    /**
+     * Active la limitation de débit par client (token bucket)
+     */
+    private boolean enabled = true;
+    
+    /**
+     * Seau appliqué aux routes sans règle spécifique
+     */
+    private Limit defaults = new Limit(120, 20.0);
+    
+    /**
+     * Règles par route, évaluées dans l'ordre (la première qui correspond s'applique)
+     */
+    private List<Route> routes = new ArrayList<>();
+    
+    /**
+     * Un seau inutilisé depuis cette durée est supprimé
+     */
+    private Duration idleEviction = Duration.ofMinutes(10);
+    
+    /**
+     * Nombre maximal de seaux en mémoire (au-delà, les plus inactifs sont supprimés)
+     */
+    private int maxBuckets = 100_000;
+    
+    private Concurrency concurrency = new Concurrency();
+    
+    @Data
+    public static class Limit {
+        /**
+         * Rafale maximale (jetons)
+         */
+        private int capacity;
+        
+        /**
+         * Jetons rechargés par seconde (débit soutenu)
+         */
+        private double refillPerSecond;
+        
+        public Limit() {
+        }
+        
+        public Limit(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+    
+    @Data
+    public static class Route {
+        /**
+         * Motif Ant du chemin (ex : /api/auth/login, /api/posts/**)
+         */
+        private String pattern;
+        
+        /**
+         * Méthode HTTP (toutes si absente)
+         */
+        private String method;
+        
+        private int capacity;
+        private double refillPerSecond;
+    }
+    
+    /**
+     * Limite de concurrence adaptative : diminue quand l'attente d'une connexion
+     * au pool dépasse la cible, remonte progressivement sinon
+     */
+    @Data
+    public static class Concurrency {
+        private boolean enabled = true;
+        private int initialLimit = 64;
+        private int minLimit = 8;
+        private int maxLimit = 256;
+        
+        /**
+         * Temps moyen d'acquisition d'une connexion au-delà duquel la limite diminue
+         */
+        private Duration targetAcquireTime = Duration.ofMillis(20);
+        
+        private Duration sampleInterval = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,70 @@
+package com.elducche.mdd.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mémorise les utilisateurs ayant récemment écrit (post, commentaire)
+ * 
+ * Pendant la fenêtre de stickiness, leurs lectures sont servies par le primaire,
+ * sans partager un chargement concurrent démarré avant leur écriture, afin qu'ils
+ * voient immédiatement leurs propres modifications, même si la réplique n'a pas
+ * encore rejoué les changements.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReadYourWritesTracker {
+    
+    private final ReplicaProperties replicaProperties;
+    
+    /**
+     * Principal (email) -> instant (nanoTime) de fin de la fenêtre de stickiness
+     */
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    
+    /**
+     * Enregistre une écriture de l'utilisateur connecté
+     */
+    public void markCurrentUserWrite() {
+        String principal = currentPrincipal();
+        if (principal != null) {
+            stickyUntil.put(principal, System.nanoTime() + replicaProperties.getStickiness().toNanos());
+        }
+    }
+    
+    /**
+     * Indique si les lectures de l'utilisateur connecté doivent rester sur le primaire
+     */
+    public boolean isCurrentUserSticky() {
+        String principal = currentPrincipal();
+        if (principal == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(principal);
+        return until != null && until - System.nanoTime() > 0;
+    }
+    
+    /**
+     * Purge des fenêtres expirées
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        stickyUntil.values().removeIf(until -> until - now <= 0);
+    }
+    
+    private String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() 
+            || "anonymousUser".equals(authentication.getPrincipal())) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
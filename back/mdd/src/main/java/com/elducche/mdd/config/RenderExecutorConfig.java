@@ -0,0 +1,30 @@
+package com.elducche.mdd.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool dédié au rendu Markdown -> HTML des posts et commentaires
+ * 
+ * Borné en threads et en file d'attente : un rendu refusé (file pleine) n'est pas perdu,
+ * la ligne reste en render_version 0 et le job de re-rendu la traite plus tard.
+ */
+@Configuration
+public class RenderExecutorConfig {
+
+    @Bean(name = "renderExecutor")
+    public ThreadPoolTaskExecutor renderExecutor(@Value("${mdd.render.pool-size:2}") int poolSize,
+                                                 @Value("${mdd.render.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mdd-render-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,102 @@
+package com.elducche.mdd.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure périodique du retard de réplication
+ * 
+ * Compare la position WAL courante du primaire à la position rejouée par la réplique.
+ * Au-delà du seuil configuré (ou si la mesure échoue), la réplique est considérée
+ * inutilisable et toutes les lectures reviennent sur le primaire.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+    
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaProperties properties;
+    private final ScheduledExecutorService scheduler;
+    
+    private volatile boolean replicaUsable = false;
+    private volatile long lastLagBytes = -1;
+    
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, ReplicaProperties properties) {
+        this.primary = primary;
+        this.replica = replica;
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = properties.getLagCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkLag, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Indique si la réplique peut servir les lectures
+     */
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+    
+    /**
+     * Dernier retard mesuré en octets (-1 si inconnu)
+     */
+    public long getLastLagBytes() {
+        return lastLagBytes;
+    }
+    
+    void checkLag() {
+        try {
+            String primaryLsn;
+            try (Connection connection = primary.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+                rs.next();
+                primaryLsn = rs.getString(1);
+            }
+            
+            Long lag = null;
+            try (Connection connection = replica.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                     "SELECT pg_wal_lsn_diff(?::pg_lsn, pg_last_wal_replay_lsn())::bigint")) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (rs.next()) {
+                        lag = rs.getObject(1, Long.class);
+                    }
+                }
+            }
+            
+            // lag null : l'instance n'est pas en réplication (pas de WAL rejoué)
+            boolean usable = lag != null && lag <= properties.getMaxLagBytes();
+            if (usable != replicaUsable) {
+                log.info("Réplique {} (retard: {} octets)", usable ? "utilisable" : "écartée", lag);
+            }
+            lastLagBytes = lag != null ? Math.max(lag, 0) : -1;
+            replicaUsable = usable;
+        } catch (Exception e) {
+            if (replicaUsable) {
+                log.warn("Mesure du retard de réplication impossible, lectures redirigées vers le primaire: {}", 
+                        e.getMessage());
+            }
+            lastLagBytes = -1;
+            replicaUsable = false;
+        }
+    }
+    
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
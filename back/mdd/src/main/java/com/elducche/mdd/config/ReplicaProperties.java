@@ -0,0 +1,46 @@
+package com.elducche.mdd.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration de la réplique PostgreSQL en lecture seule
+ * 
+ * Propriétés préfixées par mdd.datasource.replica (voir application-replica.yml)
+ */
+@Data
+@ConfigurationProperties(prefix = "mdd.datasource.replica")
+public class ReplicaProperties {
+    
+    /**
+     * Active le routage des transactions readOnly vers la réplique
+     */
+    private boolean enabled = false;
+    
+    private String url;
+    private String username;
+    private String password;
+    
+    /**
+     * Taille maximale du pool de connexions vers la réplique
+     */
+    private int maximumPoolSize = 10;
+    
+    /**
+     * Retard de réplication toléré (en octets de WAL) avant de revenir sur le primaire
+     */
+    private long maxLagBytes = 1024 * 1024;
+    
+    /**
+     * Intervalle de mesure du retard de réplication
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+    
+    /**
+     * Durée pendant laquelle les lectures d'un utilisateur restent sur le primaire
+     * après une écriture (read-your-writes)
+     */
+    private Duration stickiness = Duration.ofSeconds(5);
+}
@@ -0,0 +1,34 @@
+package com.elducche.mdd.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * DataSource de routage primaire / réplique
+ * 
+ * Les transactions @Transactional(readOnly = true) sont envoyées sur la réplique,
+ * sauf si elle est en retard ou si l'utilisateur vient d'écrire (read-your-writes).
+ * Tout le reste (écritures, accès hors transaction) va sur le primaire.
+ * 
+ * Doit être enveloppée dans un LazyConnectionDataSourceProxy afin que la connexion
+ * soit obtenue après que l'attribut readOnly de la transaction a été positionné.
+ */
+@RequiredArgsConstructor
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public enum Route { PRIMARY, REPLICA }
+    
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+            && lagMonitor.isReplicaUsable()
+            && !readYourWritesTracker.isCurrentUserSticky()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+}
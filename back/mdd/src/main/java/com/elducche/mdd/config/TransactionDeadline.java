@@ -0,0 +1,60 @@
+package com.elducche.mdd.config;
+
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Échéance des transactions ouvertes par le thread courant
+ *
+ * Tant qu'une échéance est posée (sous-requête d'un lot), chaque transaction démarrée
+ * dans ce thread reçoit comme timeout le temps restant : Hibernate et JdbcTemplate le
+ * reportent sur chaque requête SQL (Statement.setQueryTimeout), qui est annulée côté
+ * PostgreSQL à l'échéance. Le travail d'une sous-requête expirée s'arrête donc de
+ * lui-même et rend sa connexion, sans dépendre d'une interruption du thread.
+ */
+public final class TransactionDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private TransactionDeadline() {
+    }
+
+    /**
+     * Exécute une action avec une échéance (System.nanoTime) pour ses transactions
+     */
+    public static <T> T callWithin(long deadlineNanos, Callable<T> action) throws Exception {
+        Long previous = DEADLINE_NANOS.get();
+        DEADLINE_NANOS.set(previous == null ? deadlineNanos : Math.min(previous, deadlineNanos));
+        try {
+            return action.call();
+        } finally {
+            if (previous == null) {
+                DEADLINE_NANOS.remove();
+            } else {
+                DEADLINE_NANOS.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Timeout (secondes, arrondi au supérieur) d'une transaction démarrée maintenant
+     *
+     * @param timeout Timeout demandé par la définition de la transaction (-1 si aucun)
+     * @return Le plus court du timeout demandé et du temps restant avant l'échéance
+     * @throws TransactionTimedOutException si l'échéance est déjà dépassée
+     */
+    static int apply(int timeout) {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return timeout;
+        }
+        long remainingNanos = deadline - System.nanoTime();
+        if (remainingNanos <= 0) {
+            throw new TransactionTimedOutException("Échéance de la requête dépassée");
+        }
+        int remaining = (int) Math.max(1, (remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        return timeout < 0 ? remaining : Math.min(timeout, remaining);
+    }
+}
@@ -0,0 +1,33 @@
+package com.elducche.mdd.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionManager;
+
+/**
+ * Gestionnaire de transactions JPA tenant compte de l'échéance du thread
+ * ({@link TransactionDeadline})
+ *
+ * Remplace celui de l'auto-configuration (mêmes personnalisations), seul le calcul
+ * du timeout change.
+ */
+@Configuration
+public class TransactionManagerConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager() {
+            @Override
+            protected int determineTimeout(TransactionDefinition definition) {
+                return TransactionDeadline.apply(super.determineTimeout(definition));
+            }
+        };
+        customizers.ifAvailable(customizer -> customizer.customize((TransactionManager) transactionManager));
+        return transactionManager;
+    }
+}
@@ -0,0 +1,45 @@
+package com.elducche.mdd.controller;
+
+import com.elducche.mdd.dto.BatchRequest;
+import com.elducche.mdd.dto.BatchResponse;
+import com.elducche.mdd.service.BatchService;
+import com.elducche.mdd.util.AuthUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+
+/**
+ * Contrôleur des requêtes groupées
+ * 
+ * Permet au front de charger en un seul aller-retour les données d'une page
+ * (post, commentaires, thèmes, abonnements...) avec une seule authentification.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/batch")
+@RequiredArgsConstructor
+public class BatchController {
+
+    private final BatchService batchService;
+    private final AuthUtil authUtil;
+
+    /**
+     * Exécute un lot de sous-requêtes GET
+     * @param request Sous-requêtes (id, path)
+     * @return Une réponse (id, status, body) par sous-requête
+     */
+    @PostMapping
+    public ResponseEntity<BatchResponse> executeBatch(@Valid @RequestBody BatchRequest request,
+                                                      HttpServletRequest httpRequest,
+                                                      HttpServletResponse httpResponse) {
+        log.debug("Exécution d'une requête groupée de {} sous-requêtes", request.getRequests().size());
+        
+        return authUtil.executeWithAuth(userId -> 
+            ResponseEntity.ok(batchService.execute(request, httpRequest, httpResponse)));
+    }
+}
@@ -1,12 +1,18 @@
 package com.elducche.mdd.controller;
 
 import com.elducche.mdd.dto.CommentCreateRequest;
+import com.elducche.mdd.dto.CommentDTO;
+import com.elducche.mdd.dto.ResponseShape;
 import com.elducche.mdd.entity.Comment;
+import com.elducche.mdd.mapper.EntityMapper;
 import com.elducche.mdd.service.CommentService;
 import com.elducche.mdd.util.AuthUtil;
+import com.elducche.mdd.util.BinaryMediaTypes;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,17 +31,29 @@ public class CommentController {
 
     private final CommentService commentService;
     private final AuthUtil authUtil;
+    private final EntityMapper entityMapper;
 
     /**
      * Récupère tous les commentaires d'un post
      * @param postId ID du post
+     * @param shape "normalized" pour regrouper auteurs et posts dans un bloc included
+     * @param accept En-tête Accept (CBOR / Smile pour une réponse binaire compacte)
      * @return Liste des commentaires du post
      */
     @GetMapping("/post/{postId}")
-    public ResponseEntity<List<Comment>> getCommentsByPost(@PathVariable Long postId) {
+    public ResponseEntity<?> getCommentsByPost(@PathVariable Long postId,
+                                               @RequestParam(required = false) String shape,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         log.debug("Récupération des commentaires pour le post ID : {}", postId);
         
-        List<Comment> comments = commentService.getCommentsByPostId(postId);
+        List<CommentDTO> comments = commentService.getCommentsByPostId(postId);
+        Optional<MediaType> binary = BinaryMediaTypes.negotiate(accept);
+        if (binary.isPresent()) {
+            return ResponseEntity.ok().contentType(binary.get()).body(entityMapper.toCompactCommentPage(comments));
+        }
+        if (ResponseShape.NORMALIZED.equals(shape)) {
+            return ResponseEntity.ok(entityMapper.toNormalizedCommentPage(comments));
+        }
         return ResponseEntity.ok(comments);
     }
 
@@ -51,7 +69,7 @@ public class CommentController {
         return authUtil.executeWithAuthHandleErrors(userId -> {
             Optional<Comment> comment = commentService.createComment(request, userId);
             if (comment.isPresent()) {
-                return ResponseEntity.status(HttpStatus.CREATED).body(comment.get());
+                return ResponseEntity.status(HttpStatus.CREATED).body(entityMapper.toCommentDTO(comment.get()));
             } else {
                 return ResponseEntity.badRequest().body("Impossible de créer le commentaire");
             }
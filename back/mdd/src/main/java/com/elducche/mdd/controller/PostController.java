@@ -2,17 +2,28 @@ package com.elducche.mdd.controller;
 
 import com.elducche.mdd.dto.PostCreateRequest;
 import com.elducche.mdd.dto.PostDTO;
+import com.elducche.mdd.dto.PostPageDTO;
+import com.elducche.mdd.dto.ResponseShape;
 import com.elducche.mdd.entity.Post;
 import com.elducche.mdd.mapper.EntityMapper;
+import com.elducche.mdd.service.PostCacheService;
 import com.elducche.mdd.service.PostService;
 import com.elducche.mdd.util.AuthUtil;
+import com.elducche.mdd.util.BinaryMediaTypes;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,51 +37,115 @@ import java.util.Optional;
 public class PostController {
 
     private final PostService postService;
+    private final PostCacheService postCacheService;
     private final AuthUtil authUtil;
     private final EntityMapper entityMapper;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Récupère tous les posts
+     * Récupère tous les posts, ou seulement les plus récents si limit est précisé
+     * 
+     * Les listes ne portent que l'extrait de chaque post (content null), le contenu complet
+     * étant servi par GET /api/posts/{id}.
+     * 
+     * Sans limit, la réponse JSON est écrite au fil de l'eau : les aperçus sont lus par curseur,
+     * convertis en DTO et sérialisés par lots, sans liste complète en mémoire. Refusé sans limit
+     * en requête groupée (/api/batch), qui ne supporte pas les réponses en flux.
      */
     @GetMapping
-    public ResponseEntity<List<PostDTO>> getAllPosts() {
-        List<Post> posts = postService.getAllPosts();
-        // Convertir en DTOs pour éviter les références circulaires
-        List<PostDTO> postDTOs = posts != null 
-            ? posts.stream().map(entityMapper::toPostDTO).toList()
-            : List.of();
-        return ResponseEntity.ok(postDTOs);
+    public ResponseEntity<?> getAllPosts(@RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String shape,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (limit != null) {
+            return toPostsResponse(postService.getLatestPosts(limit), shape, accept);
+        }
+        if (BinaryMediaTypes.negotiate(accept).isPresent() || ResponseShape.NORMALIZED.equals(shape)) {
+            return toPostsResponse(postService.getAllPosts(), shape, accept);
+        }
+        
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                postService.streamAllPosts(posts -> posts.forEach(post -> writeValue(generator, post)));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
+    /**
+     * Construit la réponse d'une liste de posts : JSON (liste de PostDTO),
+     * JSON normalisé si shape=normalized, ou page compacte en CBOR / Smile
+     */
+    private ResponseEntity<Object> toPostsResponse(List<PostDTO> posts, String shape, String accept) {
+        Optional<MediaType> binary = BinaryMediaTypes.negotiate(accept);
+        if (binary.isPresent()) {
+            return ResponseEntity.ok().contentType(binary.get()).body(entityMapper.toCompactPostPage(posts));
+        }
+        if (ResponseShape.NORMALIZED.equals(shape)) {
+            return ResponseEntity.ok(entityMapper.toNormalizedPostPage(posts));
+        }
+        return ResponseEntity.ok(posts);
+    }
+    
+    private void writeValue(JsonGenerator generator, Object value) {
+        try {
+            generator.writeObject(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fil global paginé par curseur (exploration)
+     * 
+     * Les premières pages sont servies depuis le tampon mémoire des derniers posts.
+     */
+    @GetMapping("/explore")
+    public ResponseEntity<PostPageDTO> explorePosts(@RequestParam(defaultValue = "20") int limit,
+                                                    @RequestParam(required = false) String cursor) {
+        PostService.ExplorePage page = postService.getExplorePage(cursor, limit);
+        return ResponseEntity.ok(new PostPageDTO(page.posts(), page.nextCursor()));
     }
 
     /**
      * Récupère un post par ID
+     * 
+     * Le JSON est servi tel quel depuis le near-cache des posts.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<PostDTO> getPostById(@PathVariable Long id) {
-        Optional<Post> post = postService.getPostById(id);
-        return post.map(p -> ResponseEntity.ok(entityMapper.toPostDTO(p)))
-                  .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getPostById(@PathVariable Long id) {
+        return postCacheService.getPost(id)
+                .map(cached -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cached.json()))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     /**
      * Récupère les posts d'un thème
      */
     @GetMapping("/theme/{themeId}")
-    public ResponseEntity<List<PostDTO>> getPostsByTheme(@PathVariable Long themeId) {
-        List<Post> posts = postService.getPostsByTheme(themeId);
-        List<PostDTO> postDTOs = posts.stream().map(entityMapper::toPostDTO).toList();
-        return ResponseEntity.ok(postDTOs);
+    public ResponseEntity<?> getPostsByTheme(@PathVariable Long themeId,
+                                             @RequestParam(required = false) Integer limit,
+                                             @RequestParam(required = false) String shape,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        List<PostDTO> posts = limit != null 
+            ? postService.getLatestPostsByTheme(themeId, limit) 
+            : postService.getPostsByTheme(themeId);
+        return toPostsResponse(posts, shape, accept);
     }
     
     /**
      * Récupère les posts des thèmes auxquels l'utilisateur est abonné
      */
     @GetMapping("/subscribed")
-    public ResponseEntity<List<PostDTO>> getSubscribedPosts() {
+    public ResponseEntity<Object> getSubscribedPosts(@RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) String shape,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         return authUtil.executeWithAuth(userId -> {
-            List<Post> posts = postService.getPostsFromSubscribedThemes(userId);
-            List<PostDTO> postDTOs = posts.stream().map(entityMapper::toPostDTO).toList();
-            return ResponseEntity.ok(postDTOs);
+            List<PostDTO> posts = limit != null 
+                ? postService.getLatestPostsFromSubscribedThemes(userId, limit) 
+                : postService.getPostsFromSubscribedThemes(userId);
+            return toPostsResponse(posts, shape, accept);
         });
     }
 
@@ -1,7 +1,10 @@
 package com.elducche.mdd.controller;
 
+import com.elducche.mdd.dto.BulkSubscriptionRequest;
+import com.elducche.mdd.dto.SubscriptionDTO;
 import com.elducche.mdd.dto.SubscriptionRequest;
 import com.elducche.mdd.entity.Subscription;
+import com.elducche.mdd.mapper.EntityMapper;
 import com.elducche.mdd.service.SubscriptionService;
 import com.elducche.mdd.util.AuthUtil;
 import lombok.RequiredArgsConstructor;
@@ -24,18 +27,19 @@ public class SubscriptionController {
 
     private final SubscriptionService subscriptionService;
     private final AuthUtil authUtil;
+    private final EntityMapper entityMapper;
 
     /**
      * Récupère tous les abonnements de l'utilisateur connecté
      * @return Liste des abonnements de l'utilisateur
      */
     @GetMapping
-    public ResponseEntity<List<Subscription>> getUserSubscriptions() {
+    public ResponseEntity<List<SubscriptionDTO>> getUserSubscriptions() {
         log.debug("Récupération des abonnements de l'utilisateur connecté");
         
         return authUtil.executeWithAuth(userId -> {
             List<Subscription> subscriptions = subscriptionService.getUserSubscriptions(userId);
-            return ResponseEntity.ok(subscriptions);
+            return ResponseEntity.ok(subscriptions.stream().map(entityMapper::toSubscriptionDTO).toList());
         });
     }
 
@@ -51,13 +55,29 @@ public class SubscriptionController {
         return authUtil.executeWithAuthHandleErrors(userId -> {
             Subscription subscription = subscriptionService.subscribeToTheme(userId, request.getThemeId());
             if (subscription != null) {
-                return ResponseEntity.status(HttpStatus.CREATED).body(subscription);
+                return ResponseEntity.status(HttpStatus.CREATED).body(entityMapper.toSubscriptionDTO(subscription));
             } else {
                 return ResponseEntity.badRequest().body("Impossible de créer l'abonnement");
             }
         });
     }
 
+    /**
+     * Abonne et désabonne en une seule requête (idempotent)
+     * @param request Thèmes à suivre et à ne plus suivre
+     * @return Les abonnements résultants de l'utilisateur
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> updateSubscriptions(@Valid @RequestBody BulkSubscriptionRequest request) {
+        log.debug("Mise à jour groupée des abonnements : +{} -{}", request.getSubscribe(), request.getUnsubscribe());
+        
+        return authUtil.executeWithAuthHandleErrors(userId -> subscriptionService
+            .updateSubscriptions(userId, request.getSubscribe(), request.getUnsubscribe())
+            .<ResponseEntity<?>>map(subscriptions -> ResponseEntity.ok(
+                subscriptions.stream().map(entityMapper::toSubscriptionDTO).toList()))
+            .orElseGet(() -> ResponseEntity.badRequest().body("Impossible de mettre à jour les abonnements")));
+    }
+
     /**
      * Supprime un abonnement
      * @param id ID de l'abonnement
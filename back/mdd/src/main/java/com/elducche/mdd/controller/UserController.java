@@ -1,7 +1,11 @@
 package com.elducche.mdd.controller;
 
+import com.elducche.mdd.dto.ActivityPageDTO;
 import com.elducche.mdd.dto.UpdateUserProfileRequest;
+import com.elducche.mdd.dto.UserDTO;
 import com.elducche.mdd.entity.User;
+import com.elducche.mdd.mapper.EntityMapper;
+import com.elducche.mdd.service.ActivityService;
 import com.elducche.mdd.service.UserService;
 import com.elducche.mdd.util.AuthUtil;
 import lombok.RequiredArgsConstructor;
@@ -23,18 +27,21 @@ public class UserController {
 
     private final UserService userService;
     private final AuthUtil authUtil;
+    private final ActivityService activityService;
+    private final EntityMapper entityMapper;
 
     /**
      * Récupère le profil de l'utilisateur connecté
      * @return Le profil utilisateur ou 401
      */
     @GetMapping("/me")
-    public ResponseEntity<User> getCurrentUserProfile() {
+    public ResponseEntity<UserDTO> getCurrentUserProfile() {
         log.debug("Récupération du profil de l'utilisateur connecté");
         
         return authUtil.executeWithAuth(userId -> {
             Optional<User> user = userService.getUserById(userId);
-            return user.map(ResponseEntity::ok)
+            return user.map(entityMapper::toUserDTO)
+                       .map(ResponseEntity::ok)
                        .orElse(ResponseEntity.notFound().build());
         });
     }
@@ -50,7 +57,8 @@ public class UserController {
         
         return authUtil.executeWithAuthHandleErrors(userId -> {
             Optional<User> updatedUser = userService.updateUserProfile(userId, request);
-            return updatedUser.map(ResponseEntity::ok)
+            return updatedUser.map(entityMapper::toUserDTO)
+                              .map(ResponseEntity::ok)
                               .orElse(ResponseEntity.notFound().build());
         });
     }
@@ -61,11 +69,28 @@ public class UserController {
      * @return L'utilisateur correspondant ou 404
      */
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserDTO> getUserById(@PathVariable Long id) {
         log.debug("Récupération de l'utilisateur avec l'ID : {}", id);
         
         Optional<User> user = userService.getUserById(id);
-        return user.map(ResponseEntity::ok)
+        return user.map(entityMapper::toUserDTO)
+                   .map(ResponseEntity::ok)
                    .orElse(ResponseEntity.notFound().build());
     }
+
+    /**
+     * Flux d'activité d'un utilisateur (posts et commentaires, plus récents en premier), paginé par curseur
+     * @param id ID de l'utilisateur
+     * @param limit Nombre d'éléments par page
+     * @param cursor Curseur renvoyé par la page précédente
+     * @return La page d'activité
+     */
+    @GetMapping("/{id}/activity")
+    public ResponseEntity<ActivityPageDTO> getUserActivity(@PathVariable Long id,
+                                                           @RequestParam(defaultValue = "20") int limit,
+                                                           @RequestParam(required = false) String cursor) {
+        log.debug("Récupération de l'activité de l'utilisateur avec l'ID : {}", id);
+        
+        return ResponseEntity.ok(entityMapper.toActivityPageDTO(activityService.getActivity(id, cursor, limit)));
+    }
 }
@@ -0,0 +1,42 @@
+package com.elducche.mdd.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO d'une page du flux d'activité d'un utilisateur - Réponse de /api/users/{id}/activity
+ * 
+ * Posts et commentaires de l'utilisateur, du plus récent au plus ancien.
+ * nextCursor est à renvoyer tel quel pour obtenir la page suivante ;
+ * il est null sur la dernière page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityPageDTO {
+    private List<ActivityItemDTO> items;
+    private String nextCursor;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ActivityItemDTO {
+        // "post" ou "comment"
+        private String type;
+        private Long id;
+        private LocalDateTime createdAt;
+        
+        // Post publié, ou post commenté
+        private Long postId;
+        private String postTitle;
+        
+        // Extrait du post ou du commentaire
+        private String excerpt;
+        
+        // Thème du post (null pour un commentaire)
+        private PostDTO.ThemeDTO theme;
+    }
+}
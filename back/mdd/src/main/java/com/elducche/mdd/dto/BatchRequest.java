@@ -0,0 +1,38 @@
+package com.elducche.mdd.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.util.List;
+
+/**
+ * DTO pour une requête groupée (POST /api/batch)
+ * 
+ * Chaque sous-requête est une lecture GET sur un chemin de l'API, identifiée
+ * par un id libre que l'on retrouve dans la réponse.
+ */
+@Data
+public class BatchRequest {
+    
+    @NotEmpty(message = "Au moins une sous-requête est obligatoire")
+    @Size(max = 20, message = "Une requête groupée ne peut pas dépasser 20 sous-requêtes")
+    @Valid
+    private List<SubRequest> requests;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubRequest {
+        @NotBlank(message = "L'id de la sous-requête est obligatoire")
+        private String id;
+        
+        private String method = "GET";
+        
+        @NotBlank(message = "Le chemin de la sous-requête est obligatoire")
+        private String path;
+    }
+}
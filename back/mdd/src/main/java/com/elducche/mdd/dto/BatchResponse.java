@@ -0,0 +1,26 @@
+package com.elducche.mdd.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.util.List;
+
+/**
+ * DTO de réponse d'une requête groupée - Un résultat par sous-requête, dans l'ordre demandé
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResponse {
+    private List<SubResponse> responses;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubResponse {
+        private String id;
+        private int status;
+        private JsonNode body;
+    }
+}
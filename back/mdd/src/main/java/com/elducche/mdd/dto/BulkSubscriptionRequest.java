@@ -0,0 +1,25 @@
+package com.elducche.mdd.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * DTO pour la mise à jour groupée des abonnements (POST /api/subscriptions/bulk)
+ * 
+ * Idempotent : s'abonner à un thème déjà suivi ou se désabonner d'un thème
+ * non suivi est sans effet. Un même thème ne peut figurer dans les deux listes.
+ */
+@Data
+public class BulkSubscriptionRequest {
+    
+    @NotNull(message = "La liste des thèmes à suivre est obligatoire")
+    @Size(max = 100, message = "Au plus 100 thèmes par requête")
+    private Set<@NotNull Long> subscribe = new LinkedHashSet<>();
+    
+    @NotNull(message = "La liste des thèmes à ne plus suivre est obligatoire")
+    @Size(max = 100, message = "Au plus 100 thèmes par requête")
+    private Set<@NotNull Long> unsubscribe = new LinkedHashSet<>();
+}
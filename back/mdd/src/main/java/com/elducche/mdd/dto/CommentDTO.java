@@ -10,6 +10,8 @@ import java.time.LocalDateTime;
  * 
  * Ce DTO évite les références circulaires en incluant seulement
  * les données nécessaires pour le frontend.
+ * contentHtml est le rendu HTML assaini du contenu (null tant que le rendu
+ * en arrière-plan n'est pas terminé : le client affiche alors content).
  */
 @Data
 @NoArgsConstructor
@@ -17,6 +19,7 @@ import java.time.LocalDateTime;
 public class CommentDTO {
     private Long id;
     private String content;
+    private String contentHtml;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -0,0 +1,39 @@
+package com.elducche.mdd.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO compact d'une liste de commentaires - Utilisé pour les formats binaires (CBOR, Smile)
+ * 
+ * Les auteurs et posts distincts sont listés une seule fois ;
+ * chaque commentaire les référence par leur index dans ces tables.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactCommentPageDTO {
+    private List<CommentDTO.AuthorDTO> authors;
+    private List<CommentDTO.PostInfoDTO> posts;
+    private List<CompactCommentDTO> comments;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CompactCommentDTO {
+        private Long id;
+        private String content;
+        private String contentHtml;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        
+        // Index dans authors
+        private int author;
+        
+        // Index dans posts
+        private int post;
+    }
+}
@@ -0,0 +1,40 @@
+package com.elducche.mdd.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO compact d'une page de posts - Utilisé pour les formats binaires (CBOR, Smile)
+ * 
+ * Les auteurs et thèmes distincts de la page sont listés une seule fois ;
+ * chaque post les référence par leur index dans ces tables.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactPostPageDTO {
+    private List<PostDTO.AuthorDTO> authors;
+    private List<PostDTO.ThemeDTO> themes;
+    private List<CompactPostDTO> posts;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CompactPostDTO {
+        private Long id;
+        private String title;
+        private String excerpt;
+        private int contentLength;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        
+        // Index dans authors
+        private int author;
+        
+        // Index dans themes
+        private int theme;
+    }
+}
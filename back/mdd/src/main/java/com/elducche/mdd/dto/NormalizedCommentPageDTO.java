@@ -0,0 +1,42 @@
+package com.elducche.mdd.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO normalisé d'une liste de commentaires - Réponse "?shape=normalized"
+ * 
+ * Chaque commentaire ne porte que authorId / postId ; les auteurs et posts
+ * distincts sont fournis une seule fois dans le bloc included.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NormalizedCommentPageDTO {
+    private List<CommentRefDTO> comments;
+    private IncludedDTO included;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CommentRefDTO {
+        private Long id;
+        private String content;
+        private String contentHtml;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        private Long authorId;
+        private Long postId;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IncludedDTO {
+        private List<CommentDTO.AuthorDTO> authors;
+        private List<CommentDTO.PostInfoDTO> posts;
+    }
+}
@@ -0,0 +1,43 @@
+package com.elducche.mdd.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO normalisé d'une liste de posts - Réponse "?shape=normalized"
+ * 
+ * Chaque post ne porte que authorId / themeId ; les auteurs et thèmes
+ * distincts sont fournis une seule fois dans le bloc included.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NormalizedPostPageDTO {
+    private List<PostRefDTO> posts;
+    private IncludedDTO included;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PostRefDTO {
+        private Long id;
+        private String title;
+        private String excerpt;
+        private int contentLength;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+        private Long authorId;
+        private Long themeId;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IncludedDTO {
+        private List<PostDTO.AuthorDTO> authors;
+        private List<PostDTO.ThemeDTO> themes;
+    }
+}
@@ -10,6 +10,11 @@ import java.time.LocalDateTime;
  * 
  * Ce DTO évite les références circulaires en incluant seulement
  * les données nécessaires pour le frontend.
+ * 
+ * Dans les listes, content est null : seul l'extrait (excerpt) est transmis,
+ * le contenu complet étant servi par GET /api/posts/{id}.
+ * contentHtml est le rendu HTML assaini du contenu (null tant que le rendu
+ * en arrière-plan n'est pas terminé : le client affiche alors content).
  */
 @Data
 @NoArgsConstructor
@@ -18,6 +23,9 @@ public class PostDTO {
     private Long id;
     private String title;
     private String content;
+    private String contentHtml;
+    private String excerpt;
+    private int contentLength;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
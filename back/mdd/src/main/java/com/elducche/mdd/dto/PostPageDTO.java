@@ -0,0 +1,20 @@
+package com.elducche.mdd.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.util.List;
+
+/**
+ * DTO d'une page de posts paginée par curseur - Réponse de /api/posts/explore
+ * 
+ * nextCursor est à renvoyer tel quel pour obtenir la page suivante ;
+ * il est null sur la dernière page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostPageDTO {
+    private List<PostDTO> posts;
+    private String nextCursor;
+}
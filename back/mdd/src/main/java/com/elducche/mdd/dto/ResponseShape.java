@@ -0,0 +1,13 @@
+package com.elducche.mdd.dto;
+
+/**
+ * Valeurs du paramètre shape des endpoints de liste (posts, commentaires)
+ */
+public final class ResponseShape {
+    
+    /** Réponse normalisée : entités liées (auteurs, thèmes, posts) regroupées dans included */
+    public static final String NORMALIZED = "normalized";
+    
+    private ResponseShape() {
+    }
+}
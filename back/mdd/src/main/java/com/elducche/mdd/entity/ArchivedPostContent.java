@@ -0,0 +1,55 @@
+package com.elducche.mdd.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entité ArchivedPostContent - Contenu compressé d'un post archivé
+ * 
+ * Cette entité stocke le corps des posts anciens hors de la table chaude :
+ * - Contenu compressé (gzip) et taille d'origine
+ * - HTML pré-rendu compressé et sa version de rendu
+ * - Date d'archivage
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(name = "post_content_archive")
+public class ArchivedPostContent {
+    
+    @Id
+    @Column(name = "post_id")
+    @EqualsAndHashCode.Include
+    private Long postId;
+    
+    @Column(name = "content_gz", nullable = false)
+    private byte[] contentGz;
+    
+    @Column(name = "original_length", nullable = false)
+    private int originalLength;
+    
+    // HTML rendu (MarkdownRenderer), compressé ; null tant que l'archive n'est pas rendue
+    @Column(name = "content_html_gz")
+    private byte[] contentHtmlGz;
+    
+    // Version du rendu de contentHtmlGz (0 : à rendre)
+    @Column(name = "render_version", nullable = false)
+    private short renderVersion;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+    
+    public ArchivedPostContent(Long postId, byte[] contentGz, int originalLength,
+                               byte[] contentHtmlGz, short renderVersion) {
+        this.postId = postId;
+        this.contentGz = contentGz;
+        this.originalLength = originalLength;
+        this.contentHtmlGz = contentHtmlGz;
+        this.renderVersion = renderVersion;
+        this.archivedAt = LocalDateTime.now();
+    }
+}
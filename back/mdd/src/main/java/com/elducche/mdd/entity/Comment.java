@@ -3,6 +3,8 @@ package com.elducche.mdd.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.PartitionKey;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -10,7 +12,7 @@ import java.time.LocalDateTime;
  * Entité Comment - Représente un commentaire sur un post
  * 
  * Cette entité gère les commentaires laissés par les utilisateurs :
- * - Contenu du commentaire
+ * - Contenu du commentaire, sa longueur et son HTML pré-rendu
  * - Relations avec l'auteur et le post
  * - Métadonnées (created_at, updated_at)
  */
@@ -28,24 +30,46 @@ public class Comment {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
     
-    @Column(name = "created_at")
+    // Longueur du contenu en points de code (char_length), écrite avec le contenu
+    @Column(name = "content_length", nullable = false)
+    private int contentLength;
+    
+    // HTML rendu depuis content (MarkdownRenderer), écrit en arrière-plan après chaque écriture
+    @Column(name = "content_html", columnDefinition = "TEXT")
+    private String contentHtml;
+    
+    // Version du rendu de contentHtml (0 : à rendre)
+    @Column(name = "render_version", nullable = false)
+    private short renderVersion;
+    
+    // Clé de partitionnement (partitions mensuelles) : jamais modifiée après insertion,
+    // ajoutée par Hibernate aux UPDATE/DELETE pour n'atteindre qu'une partition
+    @PartitionKey
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    // Relations JPA
+    // Relations JPA (exclues de toString : un log ne doit pas déclencher de chargement)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
+    @ToString.Exclude
     private User author;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id", nullable = false)
     @JsonIgnore
+    @ToString.Exclude
     private Post post;
     
+    // Date de création du post (sa clé de partitionnement) : restreint la jointure vers le post à une partition
+    @Column(name = "post_created_at", nullable = false, updatable = false)
+    private LocalDateTime postCreatedAt;
+    
     @PrePersist
     protected void onCreate() {
+        postCreatedAt = post.getCreatedAt();
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
     }
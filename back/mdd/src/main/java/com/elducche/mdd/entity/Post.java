@@ -3,6 +3,8 @@ package com.elducche.mdd.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.PartitionKey;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -11,7 +13,7 @@ import java.util.List;
  * Entité Post - Représente un article/post de l'application MDD
  * 
  * Cette entité gère les posts créés par les utilisateurs :
- * - Contenu du post (title, content)
+ * - Contenu du post (title, content), son HTML pré-rendu et son aperçu précalculé (excerpt, content_length)
  * - Relations avec l'auteur, le thème et les commentaires
  * - Métadonnées (created_at, updated_at)
  */
@@ -32,23 +34,49 @@ public class Post {
     @Column(columnDefinition = "TEXT")
     private String content;
     
-    @Column(name = "created_at")
+    // HTML rendu depuis content (MarkdownRenderer), écrit en arrière-plan après chaque écriture
+    @Column(name = "content_html", columnDefinition = "TEXT")
+    private String contentHtml;
+    
+    // Version du rendu de contentHtml (0 : à rendre)
+    @Column(name = "render_version", nullable = false)
+    private short renderVersion;
+    
+    // Aperçu affiché dans les listes (ExcerptGenerator), écrit avec le contenu
+    @Column(length = 210)
+    private String excerpt;
+    
+    // Longueur du contenu complet en points de code (char_length), conservée après archivage
+    @Column(name = "content_length", nullable = false)
+    private int contentLength;
+    
+    // true si le contenu a été déplacé, compressé, dans post_content_archive
+    @Column(name = "content_archived", nullable = false)
+    private boolean contentArchived;
+    
+    // Clé de partitionnement (partitions mensuelles) : jamais modifiée après insertion,
+    // ajoutée par Hibernate aux UPDATE/DELETE pour n'atteindre qu'une partition
+    @PartitionKey
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    // Relations JPA
+    // Relations JPA (exclues de toString : un log ne doit pas déclencher de chargement)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
+    @ToString.Exclude
     private User author;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "theme_id", nullable = false)
+    @ToString.Exclude
     private Theme theme;
     
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
+    @ToString.Exclude
     private List<Comment> comments;
     
     @PrePersist
@@ -3,6 +3,7 @@ package com.elducche.mdd.entity;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
@@ -20,8 +21,17 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Entity
 @Table(name = "subscriptions")
+@NamedEntityGraph(name = Subscription.WITH_USER_AND_THEME, attributeNodes = {
+    @NamedAttributeNode("user"),
+    @NamedAttributeNode("theme")
+})
 public class Subscription {
     
+    /**
+     * Plan de chargement des abonnements exposés (SubscriptionDTO : utilisateur + thème)
+     */
+    public static final String WITH_USER_AND_THEME = "Subscription.withUserAndTheme";
+    
     @EmbeddedId
     @EqualsAndHashCode.Include
     private SubscriptionId id;
@@ -29,15 +39,17 @@ public class Subscription {
     @Column(name = "subscribed_at")
     private LocalDateTime subscribedAt;
     
-    // Relations JPA
+    // Relations JPA (exclues de toString : un log ne doit pas déclencher de chargement)
     @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("userId")
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
     private User user;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("themeId")
     @JoinColumn(name = "theme_id")
+    @ToString.Exclude
     private Theme theme;
     
     @PrePersist
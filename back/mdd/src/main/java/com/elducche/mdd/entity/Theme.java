@@ -3,6 +3,7 @@ package com.elducche.mdd.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -38,13 +39,15 @@ public class Theme {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
-    // Relations JPA
+    // Relations JPA (exclues de toString : un log ne doit pas déclencher de chargement)
     @OneToMany(mappedBy = "theme", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
+    @ToString.Exclude
     private List<Post> posts;
     
     @OneToMany(mappedBy = "theme", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
+    @ToString.Exclude
     private List<Subscription> subscriptions;
     
     @PrePersist
@@ -2,6 +2,7 @@ package com.elducche.mdd.entity;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -30,6 +31,7 @@ public class User {
     private String username;
     
     @Column(nullable = false)
+    @ToString.Exclude
     private String password;
     
     @Column(name = "created_at")
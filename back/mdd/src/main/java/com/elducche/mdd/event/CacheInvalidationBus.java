@@ -0,0 +1,115 @@
+package com.elducche.mdd.event;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Bus d'invalidation de cache entre instances du backend
+ * 
+ * Les événements de modification publiés localement sont diffusés après commit
+ * sur le transport ; les messages reçus des autres instances sont republiés
+ * localement (remote = true) pour que leurs caches soient invalidés de la même
+ * façon. Les messages émis par l'instance elle-même sont ignorés.
+ * 
+ * Format des messages : "<nodeId>|<type>|<id>" (type : post, user, registration, theme, subscription).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationBus {
+
+    private final InvalidationTransport transport;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    @PostConstruct
+    void subscribe() {
+        transport.subscribe(this::onMessage);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (!event.remote()) {
+            broadcast("post", event.postId());
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.remote()) {
+            broadcast("user", event.userId());
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        if (!event.remote()) {
+            broadcast("registration", event.userId());
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onThemeChanged(ThemeChangedEvent event) {
+        if (!event.remote()) {
+            broadcast("theme", event.themeId());
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        if (!event.remote()) {
+            broadcast("subscription", event.userId());
+        }
+    }
+    
+    private void broadcast(String type, Long id) {
+        try {
+            transport.publish(nodeId + "|" + type + "|" + id);
+        } catch (Exception e) {
+            // Les autres instances resteront périmées jusqu'à l'expiration de leurs entrées
+            log.error("Impossible de diffuser l'invalidation {} {} : {}", type, id, e.getMessage());
+        }
+    }
+    
+    private void onMessage(String payload) {
+        if (InvalidationTransport.RESET.equals(payload)) {
+            log.info("Invalidations potentiellement manquées, vidage des caches locaux");
+            eventPublisher.publishEvent(new CachesResetEvent());
+            return;
+        }
+        
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3) {
+            log.warn("Message d'invalidation ignoré (format inconnu) : {}", payload);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+        
+        Long id;
+        try {
+            id = Long.valueOf(parts[2]);
+        } catch (NumberFormatException e) {
+            log.warn("Message d'invalidation ignoré (ID invalide) : {}", payload);
+            return;
+        }
+        
+        log.debug("Invalidation reçue de l'instance {} : {} {}", parts[0], parts[1], id);
+        switch (parts[1]) {
+            case "post" -> eventPublisher.publishEvent(new PostChangedEvent(id, true));
+            case "user" -> eventPublisher.publishEvent(new UserChangedEvent(id, true));
+            case "registration" -> eventPublisher.publishEvent(new UserRegisteredEvent(id, true));
+            case "theme" -> eventPublisher.publishEvent(new ThemeChangedEvent(id, true));
+            case "subscription" -> eventPublisher.publishEvent(new SubscriptionChangedEvent(id, true));
+            default -> log.warn("Message d'invalidation ignoré (type inconnu) : {}", payload);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.elducche.mdd.event;
+
+import com.elducche.mdd.entity.OutboxEvent;
+import com.elducche.mdd.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consommateur de l'outbox qui invalide les caches de posts
+ * 
+ * Chaque événement de post (création, modification, suppression, rendu) est
+ * republié en PostChangedEvent dans la transaction de livraison : les caches
+ * locaux sont invalidés après son commit, puis les autres instances via le
+ * bus d'invalidation. L'écriture publie déjà l'événement après son commit ;
+ * ce second passage, au moins une fois, couvre une publication perdue
+ * (arrêt de l'instance, bus indisponible). Rejouée, l'invalidation est sans effet.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationOutboxConsumer implements OutboxConsumer {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public boolean supports(String aggregateType) {
+        return OutboxService.POST.equals(aggregateType);
+    }
+
+    @Override
+    public void consume(OutboxEvent event) {
+        eventPublisher.publishEvent(new PostChangedEvent(event.getAggregateId()));
+    }
+}
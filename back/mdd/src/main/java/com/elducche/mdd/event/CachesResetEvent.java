@@ -0,0 +1,8 @@
+package com.elducche.mdd.event;
+
+/**
+ * Événement publié lorsque des invalidations ont pu être perdues (reconnexion
+ * du bus d'invalidation) : les caches locaux doivent être entièrement vidés.
+ */
+public record CachesResetEvent() {
+}
@@ -0,0 +1,20 @@
+package com.elducche.mdd.event;
+
+/**
+ * Événement publié lorsque le contenu d'un post ou d'un commentaire a été écrit (création, modification)
+ * 
+ * Consommé après commit par ContentRenderService, qui rend le Markdown en HTML en arrière-plan.
+ * Purement local : l'instance qui a écrit se charge du rendu.
+ */
+public record ContentWrittenEvent(Kind kind, Long id) {
+    
+    public enum Kind { POST, COMMENT }
+    
+    public static ContentWrittenEvent post(Long postId) {
+        return new ContentWrittenEvent(Kind.POST, postId);
+    }
+    
+    public static ContentWrittenEvent comment(Long commentId) {
+        return new ContentWrittenEvent(Kind.COMMENT, commentId);
+    }
+}
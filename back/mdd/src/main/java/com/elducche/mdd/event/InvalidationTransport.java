@@ -0,0 +1,26 @@
+package com.elducche.mdd.event;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport des messages d'invalidation de cache entre instances du backend
+ * 
+ * Implémentations : PostgreSQL LISTEN/NOTIFY (par défaut) et local (instance unique).
+ */
+public interface InvalidationTransport {
+    
+    /**
+     * Message reçu lorsque des invalidations ont pu être manquées (ex : reconnexion)
+     */
+    String RESET = "*";
+    
+    /**
+     * Diffuse un message à toutes les instances (y compris, éventuellement, l'émettrice)
+     */
+    void publish(String payload);
+    
+    /**
+     * Enregistre le récepteur des messages diffusés par les instances
+     */
+    void subscribe(Consumer<String> listener);
+}
@@ -0,0 +1,27 @@
+package com.elducche.mdd.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport local : instance unique, aucune diffusion nécessaire
+ * (les caches de l'instance sont déjà invalidés par les événements applicatifs)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "mdd.invalidation.transport", havingValue = "local")
+public class LocalInvalidationTransport implements InvalidationTransport {
+
+    @Override
+    public void publish(String payload) {
+        log.trace("Invalidation locale uniquement : {}", payload);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        // Aucune autre instance
+    }
+}
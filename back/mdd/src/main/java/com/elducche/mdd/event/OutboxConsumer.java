@@ -0,0 +1,25 @@
+package com.elducche.mdd.event;
+
+import com.elducche.mdd.entity.OutboxEvent;
+
+/**
+ * Consommateur interne des événements de l'outbox (SPI)
+ * 
+ * Les beans qui implémentent cette interface reçoivent, via le relais, chaque
+ * événement au moins une fois, dans l'ordre de l'agrégat. Ils doivent donc être
+ * idempotents. Une exception bloque l'agrégat concerné jusqu'au prochain passage.
+ */
+public interface OutboxConsumer {
+    
+    /**
+     * Indique si le consommateur traite ce type d'agrégat ("post", "comment", "subscription")
+     */
+    default boolean supports(String aggregateType) {
+        return true;
+    }
+    
+    /**
+     * Traite un événement
+     */
+    void consume(OutboxEvent event);
+}
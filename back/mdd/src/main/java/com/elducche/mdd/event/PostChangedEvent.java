@@ -0,0 +1,16 @@
+package com.elducche.mdd.event;
+
+/**
+ * Événement publié lorsqu'un post a été créé, modifié ou supprimé
+ * 
+ * Consommé après commit par les caches qui doivent être invalidés ou mis à jour ; remote indique
+ * un événement reçu d'une autre instance via le bus d'invalidation. Publié par l'écriture
+ * elle-même, puis de nouveau par le relais de l'outbox (CacheInvalidationOutboxConsumer),
+ * qui garantit l'invalidation si la première publication est perdue.
+ */
+public record PostChangedEvent(Long postId, boolean remote) {
+    
+    public PostChangedEvent(Long postId) {
+        this(postId, false);
+    }
+}
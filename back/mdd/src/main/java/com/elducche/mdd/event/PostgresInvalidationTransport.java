@@ -0,0 +1,136 @@
+package com.elducche.mdd.event;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport PostgreSQL LISTEN/NOTIFY (par défaut)
+ * 
+ * Les messages sont émis par pg_notify via le pool ; la réception utilise une
+ * connexion dédiée, hors pool, écoutée par un thread démon. Après une
+ * reconnexion, un message RESET est remis aux récepteurs car des notifications
+ * ont pu être perdues pendant la coupure.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "mdd.invalidation.transport", havingValue = "postgres", matchIfMissing = true)
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    static final String CHANNEL = "mdd_cache_invalidation";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    
+    @Value("${spring.datasource.url}")
+    private String url;
+    
+    @Value("${spring.datasource.username}")
+    private String username;
+    
+    @Value("${spring.datasource.password}")
+    private String password;
+    
+    @Value("${mdd.invalidation.poll-timeout-ms:500}")
+    private int pollTimeoutMs;
+    
+    @Value("${mdd.invalidation.reconnect-delay-ms:2000}")
+    private long reconnectDelayMs;
+    
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresInvalidationTransport(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void publish(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> { }, CHANNEL, payload);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "mdd-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+    
+    private void listenLoop() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Écoute des invalidations de cache sur le canal {}", CHANNEL);
+                if (reconnecting) {
+                    dispatch(RESET);
+                }
+                
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Connexion d'écoute des invalidations perdue, nouvelle tentative dans {} ms : {}", 
+                        reconnectDelayMs, e.getMessage());
+                reconnecting = true;
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    private void dispatch(String payload) {
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(payload);
+            } catch (Exception e) {
+                log.error("Erreur lors du traitement de l'invalidation {} : ", payload, e);
+            }
+        }
+    }
+}
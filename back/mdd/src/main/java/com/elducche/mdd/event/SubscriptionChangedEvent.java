@@ -0,0 +1,14 @@
+package com.elducche.mdd.event;
+
+/**
+ * Événement publié lorsque les abonnements d'un utilisateur ont changé (abonnement, désabonnement)
+ * 
+ * Consommé après commit par l'index mémoire des abonnements ; remote indique
+ * un événement reçu d'une autre instance via le bus d'invalidation.
+ */
+public record SubscriptionChangedEvent(Long userId, boolean remote) {
+    
+    public SubscriptionChangedEvent(Long userId) {
+        this(userId, false);
+    }
+}
@@ -0,0 +1,14 @@
+package com.elducche.mdd.event;
+
+/**
+ * Événement publié lorsque un thème a été modifié ou supprimé
+ * 
+ * Consommé après commit par les caches qui doivent être invalidés ; remote indique
+ * un événement reçu d'une autre instance via le bus d'invalidation.
+ */
+public record ThemeChangedEvent(Long themeId, boolean remote) {
+    
+    public ThemeChangedEvent(Long themeId) {
+        this(themeId, false);
+    }
+}
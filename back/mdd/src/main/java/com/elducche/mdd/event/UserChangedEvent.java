@@ -0,0 +1,14 @@
+package com.elducche.mdd.event;
+
+/**
+ * Événement publié lorsque le profil public d'un utilisateur (nom, email) a changé ou le compte a été supprimé
+ * 
+ * Consommé après commit par les caches qui doivent être invalidés ; remote indique
+ * un événement reçu d'une autre instance via le bus d'invalidation.
+ */
+public record UserChangedEvent(Long userId, boolean remote) {
+    
+    public UserChangedEvent(Long userId) {
+        this(userId, false);
+    }
+}
@@ -0,0 +1,15 @@
+package com.elducche.mdd.event;
+
+/**
+ * Événement publié lorsqu'un compte a été créé
+ * 
+ * Consommé après commit par les filtres d'identité des autres instances, seuls concernés :
+ * un nouveau compte n'a ni posts ni abonnements en cache. remote indique un événement
+ * reçu d'une autre instance via le bus d'invalidation.
+ */
+public record UserRegisteredEvent(Long userId, boolean remote) {
+    
+    public UserRegisteredEvent(Long userId) {
+        this(userId, false);
+    }
+}
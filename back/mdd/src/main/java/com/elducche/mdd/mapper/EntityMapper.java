@@ -1,40 +1,81 @@
 package com.elducche.mdd.mapper;
 
+import com.elducche.mdd.dto.ActivityPageDTO;
+import com.elducche.mdd.dto.CompactCommentPageDTO;
+import com.elducche.mdd.dto.CompactPostPageDTO;
+import com.elducche.mdd.dto.NormalizedCommentPageDTO;
+import com.elducche.mdd.dto.NormalizedPostPageDTO;
 import com.elducche.mdd.dto.PostDTO;
 import com.elducche.mdd.dto.CommentDTO;
 import com.elducche.mdd.dto.SubscriptionDTO;
+import com.elducche.mdd.dto.UserDTO;
 import com.elducche.mdd.entity.Post;
 import com.elducche.mdd.entity.Comment;
 import com.elducche.mdd.entity.Subscription;
+import com.elducche.mdd.entity.User;
+import com.elducche.mdd.repository.PostRepository.PostSummary;
+import com.elducche.mdd.service.ActivityService;
+import com.elducche.mdd.service.AuthorDirectory;
+import com.elducche.mdd.util.ExcerptGenerator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Mapper pour convertir les entités en DTOs
  * 
- * Cette classe permet d'éviter les références circulaires lors de la sérialisation JSON
+ * Cette classe permet d'éviter les références circulaires lors de la sérialisation JSON.
+ * 
+ * Aucune conversion n'accède à la base : une entité arrive avec son auteur chargé
+ * (JOIN FETCH), et les listes dont les auteurs ne sont pas joints (aperçus de posts,
+ * commentaires d'un post) reçoivent les auteurs déjà résolus par le service, dans
+ * sa transaction, depuis l'annuaire des auteurs.
  */
 @Slf4j
 @Component
 public class EntityMapper {
     
     /**
-     * Convertit un Post en PostDTO
+     * Convertit un Post (auteur et thème chargés) en PostDTO
      */
     public PostDTO toPostDTO(Post post) {
         if (post == null) {
             log.warn("Tentative de conversion d'un post null");
             return null;
         }
-        
+        return toPostDTO(post, authorsOf(post.getAuthor()));
+    }
+    
+    /**
+     * Convertit une liste d'aperçus de posts en PostDTOs sans contenu
+     * @param authors Auteurs des posts, par ID (résolus par le service)
+     */
+    public List<PostDTO> toPostDTOs(List<PostSummary> posts, Map<Long, AuthorDirectory.Author> authors) {
+        return posts.stream()
+            .map(post -> new PostDTO(
+                post.getId(),
+                post.getTitle(),
+                null,
+                null,
+                post.getExcerpt(),
+                post.getContentLength(),
+                post.getCreatedAt(),
+                post.getUpdatedAt(),
+                toPostAuthorDTO(post.getAuthorId(), authors),
+                new PostDTO.ThemeDTO(post.getThemeId(), post.getThemeTitle(), post.getThemeDescription())))
+            .toList();
+    }
+    
+    private PostDTO toPostDTO(Post post, Map<Long, AuthorDirectory.Author> authors) {
         try {
             PostDTO.AuthorDTO authorDTO = null;
-            if (post.getAuthor() != null) {
-                authorDTO = new PostDTO.AuthorDTO(
-                    post.getAuthor().getId(),
-                    post.getAuthor().getUsername(),
-                    post.getAuthor().getEmail()
-                );
+            AuthorDirectory.Author author = post.getAuthor() != null ? authors.get(post.getAuthor().getId()) : null;
+            if (author != null) {
+                authorDTO = new PostDTO.AuthorDTO(author.id(), author.username(), author.email());
             } else {
                 log.warn("Post {} sans auteur", post.getId());
             }
@@ -54,6 +95,9 @@ public class EntityMapper {
                 post.getId(),
                 post.getTitle(),
                 post.getContent(),
+                post.getContentHtml(),
+                post.getExcerpt(),
+                post.getContentLength(),
                 post.getCreatedAt(),
                 post.getUpdatedAt(),
                 authorDTO,
@@ -66,18 +110,25 @@ public class EntityMapper {
     }
     
     /**
-     * Convertit un Comment en CommentDTO
+     * Convertit un Comment (auteur et post chargés) en CommentDTO
      */
     public CommentDTO toCommentDTO(Comment comment) {
         if (comment == null) {
             return null;
         }
-        
-        CommentDTO.AuthorDTO authorDTO = new CommentDTO.AuthorDTO(
-            comment.getAuthor().getId(),
-            comment.getAuthor().getUsername(),
-            comment.getAuthor().getEmail()
-        );
+        return toCommentDTO(comment, authorsOf(comment.getAuthor()));
+    }
+    
+    /**
+     * Convertit une liste de commentaires (post chargé) en CommentDTOs
+     * @param authors Auteurs des commentaires, par ID (résolus par le service)
+     */
+    public List<CommentDTO> toCommentDTOs(List<Comment> comments, Map<Long, AuthorDirectory.Author> authors) {
+        return comments.stream().map(comment -> toCommentDTO(comment, authors)).toList();
+    }
+    
+    private CommentDTO toCommentDTO(Comment comment, Map<Long, AuthorDirectory.Author> authors) {
+        CommentDTO.AuthorDTO authorDTO = toCommentAuthorDTO(comment.getAuthor().getId(), authors);
         
         CommentDTO.PostInfoDTO postDTO = new CommentDTO.PostInfoDTO(
             comment.getPost().getId(),
@@ -87,6 +138,7 @@ public class EntityMapper {
         return new CommentDTO(
             comment.getId(),
             comment.getContent(),
+            comment.getContentHtml(),
             comment.getCreatedAt(),
             comment.getUpdatedAt(),
             authorDTO,
@@ -94,6 +146,16 @@ public class EntityMapper {
         );
     }
     
+    /**
+     * Convertit un User en UserDTO (sans le mot de passe)
+     */
+    public UserDTO toUserDTO(User user) {
+        if (user == null) {
+            return null;
+        }
+        return new UserDTO(user.getId(), user.getUsername(), user.getEmail(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+    
     /**
      * Convertit un Subscription en SubscriptionDTO
      */
@@ -122,4 +184,162 @@ public class EntityMapper {
             themeDTO
         );
     }
+    
+    /**
+     * Convertit une page du flux d'activité (l'auteur étant l'utilisateur consulté, il n'est pas répété)
+     */
+    public ActivityPageDTO toActivityPageDTO(ActivityService.ActivityPage page) {
+        List<ActivityPageDTO.ActivityItemDTO> items = page.items().stream()
+            .map(item -> item.post() != null
+                ? new ActivityPageDTO.ActivityItemDTO(
+                    "post",
+                    item.post().getId(),
+                    item.post().getCreatedAt(),
+                    item.post().getId(),
+                    item.post().getTitle(),
+                    item.post().getExcerpt(),
+                    new PostDTO.ThemeDTO(item.post().getThemeId(), item.post().getThemeTitle(), item.post().getThemeDescription()))
+                : new ActivityPageDTO.ActivityItemDTO(
+                    "comment",
+                    item.comment().getId(),
+                    item.comment().getCreatedAt(),
+                    item.comment().getPostId(),
+                    item.comment().getPostTitle(),
+                    ExcerptGenerator.excerpt(item.comment().getContentPrefix(), item.comment().getContentLength()),
+                    null))
+            .toList();
+        return new ActivityPageDTO(items, page.nextCursor());
+    }
+    
+    /**
+     * Convertit une liste de posts en page compacte (auteurs et thèmes dédupliqués)
+     */
+    public CompactPostPageDTO toCompactPostPage(List<PostDTO> posts) {
+        Included<PostDTO.AuthorDTO> authors = new Included<>();
+        Included<PostDTO.ThemeDTO> themes = new Included<>();
+        List<CompactPostPageDTO.CompactPostDTO> compactPosts = posts.stream()
+            .map(post -> new CompactPostPageDTO.CompactPostDTO(
+                post.getId(),
+                post.getTitle(),
+                post.getExcerpt(),
+                post.getContentLength(),
+                post.getCreatedAt(),
+                post.getUpdatedAt(),
+                authors.indexOf(post.getAuthor().getId(), post.getAuthor()),
+                themes.indexOf(post.getTheme().getId(), post.getTheme())))
+            .toList();
+        
+        return new CompactPostPageDTO(authors.values(), themes.values(), compactPosts);
+    }
+    
+    /**
+     * Convertit une liste de commentaires en page compacte (auteurs et posts dédupliqués)
+     */
+    public CompactCommentPageDTO toCompactCommentPage(List<CommentDTO> comments) {
+        Included<CommentDTO.AuthorDTO> authors = new Included<>();
+        Included<CommentDTO.PostInfoDTO> posts = new Included<>();
+        List<CompactCommentPageDTO.CompactCommentDTO> compactComments = comments.stream()
+            .map(comment -> new CompactCommentPageDTO.CompactCommentDTO(
+                comment.getId(),
+                comment.getContent(),
+                comment.getContentHtml(),
+                comment.getCreatedAt(),
+                comment.getUpdatedAt(),
+                authors.indexOf(comment.getAuthor().getId(), comment.getAuthor()),
+                posts.indexOf(comment.getPost().getId(), comment.getPost())))
+            .toList();
+        
+        return new CompactCommentPageDTO(authors.values(), posts.values(), compactComments);
+    }
+    
+    /**
+     * Convertit une liste de posts en réponse normalisée (auteurs et thèmes dans included)
+     */
+    public NormalizedPostPageDTO toNormalizedPostPage(List<PostDTO> posts) {
+        Included<PostDTO.AuthorDTO> authors = new Included<>();
+        Included<PostDTO.ThemeDTO> themes = new Included<>();
+        List<NormalizedPostPageDTO.PostRefDTO> postRefs = posts.stream()
+            .map(post -> new NormalizedPostPageDTO.PostRefDTO(
+                post.getId(),
+                post.getTitle(),
+                post.getExcerpt(),
+                post.getContentLength(),
+                post.getCreatedAt(),
+                post.getUpdatedAt(),
+                authors.add(post.getAuthor().getId(), post.getAuthor()),
+                themes.add(post.getTheme().getId(), post.getTheme())))
+            .toList();
+        
+        return new NormalizedPostPageDTO(postRefs, 
+            new NormalizedPostPageDTO.IncludedDTO(authors.values(), themes.values()));
+    }
+    
+    /**
+     * Convertit une liste de commentaires en réponse normalisée (auteurs et posts dans included)
+     */
+    public NormalizedCommentPageDTO toNormalizedCommentPage(List<CommentDTO> comments) {
+        Included<CommentDTO.AuthorDTO> authors = new Included<>();
+        Included<CommentDTO.PostInfoDTO> posts = new Included<>();
+        List<NormalizedCommentPageDTO.CommentRefDTO> commentRefs = comments.stream()
+            .map(comment -> new NormalizedCommentPageDTO.CommentRefDTO(
+                comment.getId(),
+                comment.getContent(),
+                comment.getContentHtml(),
+                comment.getCreatedAt(),
+                comment.getUpdatedAt(),
+                authors.add(comment.getAuthor().getId(), comment.getAuthor()),
+                posts.add(comment.getPost().getId(), comment.getPost())))
+            .toList();
+        
+        return new NormalizedCommentPageDTO(commentRefs, 
+            new NormalizedCommentPageDTO.IncludedDTO(authors.values(), posts.values()));
+    }
+    
+    /**
+     * Entités liées d'une page, dédupliquées par id dans l'ordre de première apparition :
+     * la forme compacte y fait référence par position, la forme normalisée par id
+     */
+    private static final class Included<T> {
+        
+        private final Map<Long, Integer> indexes = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+        
+        /** Position de l'entité, ajoutée à sa première apparition */
+        int indexOf(Long id, T value) {
+            return indexes.computeIfAbsent(id, key -> {
+                values.add(value);
+                return values.size() - 1;
+            });
+        }
+        
+        /** Enregistre l'entité à sa première apparition et retourne son id */
+        Long add(Long id, T value) {
+            indexOf(id, value);
+            return id;
+        }
+        
+        List<T> values() {
+            return values;
+        }
+    }
+    
+    /**
+     * Auteur chargé d'une entité (JOIN FETCH), sous la forme attendue par les conversions
+     */
+    private static Map<Long, AuthorDirectory.Author> authorsOf(User author) {
+        return author == null ? Map.of()
+            : Map.of(author.getId(), new AuthorDirectory.Author(author.getId(), author.getUsername(), author.getEmail()));
+    }
+    
+    private PostDTO.AuthorDTO toPostAuthorDTO(Long id, Map<Long, AuthorDirectory.Author> authors) {
+        AuthorDirectory.Author author = authors.get(id);
+        return author == null ? new PostDTO.AuthorDTO(id, null, null)
+            : new PostDTO.AuthorDTO(author.id(), author.username(), author.email());
+    }
+    
+    private CommentDTO.AuthorDTO toCommentAuthorDTO(Long id, Map<Long, AuthorDirectory.Author> authors) {
+        AuthorDirectory.Author author = authors.get(id);
+        return author == null ? new CommentDTO.AuthorDTO(id, null, null)
+            : new CommentDTO.AuthorDTO(author.id(), author.username(), author.email());
+    }
 }
@@ -0,0 +1,40 @@
+package com.elducche.mdd.repository;
+
+import com.elducche.mdd.entity.ArchivedPostContent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository pour l'entité ArchivedPostContent
+ * 
+ * Accès au contenu compressé des posts archivés
+ */
+@Repository
+public interface ArchivedPostContentRepository extends JpaRepository<ArchivedPostContent, Long> {
+    
+    /**
+     * Trouve un lot d'archives dont le HTML est absent ou rendu par une version antérieure
+     * @param version Version courante du rendu (MarkdownRenderer.VERSION)
+     * @param afterId Dernier ID traité (parcours reprenable)
+     * @param pageable Taille du lot
+     * @return Archives à rendre, par ID croissant
+     */
+    @Query("SELECT a FROM ArchivedPostContent a WHERE a.renderVersion < :version AND a.postId > :afterId ORDER BY a.postId")
+    List<ArchivedPostContent> findOutdatedRenders(@Param("version") short version,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+    
+    /**
+     * Enregistre le HTML rendu (compressé) d'une archive
+     * @return 1 si le HTML a été enregistré, 0 si l'archive a été supprimée entre-temps
+     */
+    @Modifying
+    @Query("UPDATE ArchivedPostContent a SET a.contentHtmlGz = :htmlGz, a.renderVersion = :version WHERE a.postId = :id")
+    int updateRenderedHtml(@Param("id") Long id, @Param("htmlGz") byte[] htmlGz, @Param("version") short version);
+}
@@ -1,13 +1,22 @@
 package com.elducche.mdd.repository;
 
 import com.elducche.mdd.entity.Comment;
+import com.elducche.mdd.util.ExcerptGenerator;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Repository pour l'entité Comment
@@ -27,29 +36,81 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByPostIdWithAuthor(@Param("postId") Long postId);
     
     /**
-     * Trouve un commentaire par ID avec ses relations
+     * Trouve les commentaires d'un post créés depuis une date donnée, avec leur post
+     * Un commentaire étant toujours postérieur à son post, passer la date de création
+     * du post permet d'ignorer les partitions antérieures, côté commentaires comme côté post
+     * @param postId L'ID du post
+     * @param since Date de création du post
+     * @return Liste des commentaires triés par date de création
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.post p " +
+           "WHERE c.post.id = :postId AND c.createdAt >= :since AND p.createdAt = :since " +
+           "ORDER BY c.createdAt DESC")
+    List<Comment> findByPostIdWithPostSince(@Param("postId") Long postId, @Param("since") LocalDateTime since);
+    
+    /**
+     * Trouve un commentaire par ID avec ses relations, dans sa seule partition
+     * (date de création lue d'abord dans comment_ids)
+     * @param id L'ID du commentaire
+     * @return Optional contenant le commentaire avec ses relations
+     */
+    default Optional<Comment> findByIdWithAuthorAndPost(Long id) {
+        return findCreatedAtById(id).flatMap(createdAt -> findByIdWithAuthorAndPost(id, createdAt));
+    }
+    
+    /**
+     * Trouve un commentaire par ID et date de création avec ses relations
+     * (p.createdAt = c.postCreatedAt restreint aussi la jointure à la partition du post)
      * @param id L'ID du commentaire
+     * @param createdAt Date de création du commentaire (clé de partitionnement)
      * @return Optional contenant le commentaire avec ses relations
      */
-    @Query("SELECT c FROM Comment c JOIN FETCH c.author JOIN FETCH c.post WHERE c.id = :id")
-    Optional<Comment> findByIdWithAuthorAndPost(@Param("id") Long id);
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author JOIN FETCH c.post p " +
+           "WHERE c.id = :id AND c.createdAt = :createdAt AND p.createdAt = c.postCreatedAt")
+    Optional<Comment> findByIdWithAuthorAndPost(@Param("id") Long id, @Param("createdAt") LocalDateTime createdAt);
+    
+    /**
+     * Trouve un commentaire par ID dans sa seule partition (date de création lue d'abord dans comment_ids)
+     * @param id L'ID du commentaire
+     * @return Optional contenant le commentaire
+     */
+    default Optional<Comment> findByIdInPartition(Long id) {
+        return findCreatedAtById(id).flatMap(createdAt -> findByIdAndCreatedAt(id, createdAt));
+    }
+    
+    /**
+     * Trouve un commentaire par ID et date de création
+     * @param id L'ID du commentaire
+     * @param createdAt Date de création du commentaire (clé de partitionnement)
+     * @return Optional contenant le commentaire
+     */
+    Optional<Comment> findByIdAndCreatedAt(Long id, LocalDateTime createdAt);
+    
+    /**
+     * Récupère la date de création d'un commentaire (clé de partitionnement) dans la table de
+     * correspondance comment_ids, sans parcourir les partitions
+     * @param id L'ID du commentaire
+     * @return Optional contenant la date de création
+     */
+    @Query(value = "SELECT created_at FROM comment_ids WHERE id = :id", nativeQuery = true)
+    Optional<LocalDateTime> findCreatedAtById(@Param("id") Long id);
     
     /**
      * Trouve les commentaires d'un auteur spécifique
      * @param authorId L'ID de l'auteur
      * @return Liste des commentaires de l'auteur
      */
-    @Query("SELECT c FROM Comment c JOIN FETCH c.author JOIN FETCH c.post WHERE c.author.id = :authorId ORDER BY c.createdAt DESC")
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author JOIN FETCH c.post p " +
+           "WHERE c.author.id = :authorId AND p.createdAt = c.postCreatedAt ORDER BY c.createdAt DESC")
     List<Comment> findByAuthorIdWithAuthorAndPost(@Param("authorId") Long authorId);
     
     /**
      * Récupère tous les commentaires d'un utilisateur avec les posts et thèmes associés
      */
     @Query("SELECT c FROM Comment c " +
-           "JOIN FETCH c.author " +
            "JOIN FETCH c.post p " +
            "JOIN FETCH p.theme " +
-           "WHERE c.author.id = :authorId " +
+           "WHERE c.author.id = :authorId AND p.createdAt = c.postCreatedAt " +
            "ORDER BY c.createdAt DESC")
     List<Comment> findByAuthorIdWithPostAndTheme(@Param("authorId") Long authorId);
     
@@ -66,11 +127,155 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     long countByPostId(Long postId);
     
     /**
-     * Trouve les commentaires les plus récents d'un utilisateur
+     * Parcourt les commentaires les plus récents d'un utilisateur, dans l'ordre (created_at DESC, id DESC)
+     * (flux d'activité ; à consommer dans une transaction, puis fermer le Stream)
      * @param userId L'ID de l'utilisateur
-     * @param pageable Objet Pageable pour la limitation et le tri
-     * @return Liste des commentaires récents
+     * @param pageable Nombre maximal de commentaires
+     * @return Flux des commentaires, avec le titre de leur post
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "25"))
+    @Query(CommentActivity.SELECT + "WHERE c.author.id = :userId ORDER BY c.createdAt DESC, c.id DESC")
+    Stream<CommentActivity> streamRecentByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    /**
+     * Parcourt les commentaires d'un utilisateur qui suivent un curseur (created_at, id),
+     * dans l'ordre (created_at DESC, id DESC)
+     * @param userId L'ID de l'utilisateur
+     * @param createdAt Date de création du dernier commentaire déjà lu
+     * @param id ID du dernier commentaire déjà lu
+     * @param pageable Nombre maximal de commentaires
+     * @return Flux des commentaires suivants
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "25"))
+    @Query(CommentActivity.SELECT + 
+           "WHERE c.author.id = :userId AND c.createdAt <= :createdAt AND (c.createdAt < :createdAt OR c.id < :id) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    Stream<CommentActivity> streamByUserIdBefore(@Param("userId") Long userId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+    
+    /**
+     * Supprime en une seule requête tous les commentaires d'un post
+     * @param postId L'ID du post
+     * @return Nombre de commentaires supprimés
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.post.id = :postId")
+    int deleteAllByPostId(@Param("postId") Long postId);
+    
+    /**
+     * Supprime en une seule requête les commentaires de plusieurs posts
+     * @param postIds Les IDs des posts
+     * @return Nombre de commentaires supprimés
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.post.id IN :postIds")
+    int deleteAllByPostIdIn(@Param("postIds") List<Long> postIds);
+    
+    /**
+     * Récupère un lot d'IDs de commentaires d'un auteur (suppression par lots)
+     * @param authorId L'ID de l'auteur
+     * @param pageable Taille du lot
+     * @return IDs des commentaires triés par ID
+     */
+    @Query("SELECT c.id FROM Comment c WHERE c.author.id = :authorId ORDER BY c.id")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
+    
+    /**
+     * Supprime en une seule requête un lot de commentaires
+     * @param ids Les IDs des commentaires
+     * @return Nombre de commentaires supprimés
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") List<Long> ids);
+    
+    /**
+     * Charge la source Markdown d'un commentaire à rendre, dans sa seule partition
+     * @param id L'ID du commentaire
+     * @return Optional contenant l'ID, la date de création et le contenu
+     */
+    default Optional<RenderSource> findRenderSourceById(Long id) {
+        return findCreatedAtById(id).flatMap(createdAt -> findRenderSourceById(id, createdAt));
+    }
+    
+    /**
+     * Charge la source Markdown d'un commentaire par ID et date de création
+     * @param id L'ID du commentaire
+     * @param createdAt Date de création du commentaire (clé de partitionnement)
+     * @return Optional contenant l'ID, la date de création et le contenu
+     */
+    @Query("SELECT c.id AS id, c.createdAt AS createdAt, c.content AS content FROM Comment c " +
+           "WHERE c.id = :id AND c.createdAt = :createdAt")
+    Optional<RenderSource> findRenderSourceById(@Param("id") Long id, @Param("createdAt") LocalDateTime createdAt);
+    
+    /**
+     * Trouve un lot de commentaires dont le HTML est absent ou rendu par une version antérieure
+     * (parcours par ID croissant, reprise après afterId)
+     * @param version Version courante du rendu
+     * @param afterId Dernier ID traité (0 au départ)
+     * @param pageable Taille du lot
+     * @return Sources à rendre, triées par ID
+     */
+    @Query("SELECT c.id AS id, c.createdAt AS createdAt, c.content AS content FROM Comment c " +
+           "WHERE c.renderVersion < :version AND c.id > :afterId AND c.content IS NOT NULL ORDER BY c.id")
+    List<RenderSource> findOutdatedRenderSources(@Param("version") short version,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+    
+    /**
+     * Enregistre le HTML rendu, sans modifier updated_at, si le contenu n'a pas changé depuis la lecture
+     * (la date de création borne la mise à jour à une seule partition)
+     * @return 1 si le HTML a été enregistré, 0 si le contenu a été modifié ou supprimé entre-temps
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Comment c SET c.contentHtml = :html, c.renderVersion = :version " +
+           "WHERE c.id = :id AND c.createdAt = :createdAt AND c.content = :source")
+    int updateRenderedContent(@Param("id") Long id,
+                              @Param("createdAt") LocalDateTime createdAt,
+                              @Param("source") String source,
+                              @Param("html") String html,
+                              @Param("version") short version);
+    
+    /**
+     * Projection : source Markdown d'un commentaire (rendu HTML)
+     */
+    interface RenderSource {
+        Long getId();
+        LocalDateTime getCreatedAt();
+        String getContent();
+    }
+    
+    /**
+     * Projection : commentaire dans le flux d'activité de son auteur
      */
-    @Query("SELECT c FROM Comment c JOIN FETCH c.author JOIN FETCH c.post WHERE c.author.id = :userId ORDER BY c.createdAt DESC")
-    List<Comment> findRecentCommentsByUserId(@Param("userId") Long userId, Pageable pageable);
+    interface CommentActivity {
+        
+        /**
+         * Début commun des requêtes du flux d'activité (alias c pour le commentaire ;
+         * la jointure vers le post est restreinte à sa partition)
+         */
+        String SELECT = "SELECT c.id AS id, "
+                      + "SUBSTRING(c.content, 1, " + ExcerptGenerator.SOURCE_PREFIX_LENGTH + ") AS contentPrefix, "
+                      + "c.contentLength AS contentLength, c.createdAt AS createdAt, "
+                      + "p.id AS postId, p.title AS postTitle "
+                      + "FROM Comment c JOIN c.post p ON p.createdAt = c.postCreatedAt ";
+        
+        Long getId();
+        
+        /**
+         * Début du contenu, suffisant pour en construire l'extrait (le contenu complet n'est pas lu)
+         */
+        String getContentPrefix();
+        
+        Integer getContentLength();
+        LocalDateTime getCreatedAt();
+        Long getPostId();
+        String getPostTitle();
+    }
 }
@@ -0,0 +1,75 @@
+package com.elducche.mdd.repository;
+
+import com.elducche.mdd.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository pour l'entité OutboxEvent
+ * 
+ * File des événements métier à relayer vers les consommateurs internes
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    /**
+     * Événements non publiés livrables, du plus ancien au plus récent (ordre de livraison)
+     * 
+     * Un événement en attente de nouvelle tentative (next_attempt_at futur) est exclu,
+     * ainsi que tous les événements suivants de son agrégat.
+     * @param now Date courante
+     * @param pageable Taille du lot
+     * @return Lot d'événements à livrer
+     */
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL " +
+           "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) " +
+           "AND NOT EXISTS (SELECT 1 FROM OutboxEvent b WHERE b.publishedAt IS NULL " +
+           "AND b.aggregateType = e.aggregateType AND b.aggregateId = e.aggregateId " +
+           "AND b.id < e.id AND b.nextAttemptAt > :now) " +
+           "ORDER BY e.id")
+    List<OutboxEvent> findPending(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    /**
+     * Marque un événement comme publié
+     * (appelé dans la transaction de livraison de l'événement)
+     * @param id ID de l'événement livré
+     * @param publishedAt Date de publication
+     * @return Nombre d'événements marqués
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id = :id")
+    int markPublished(@Param("id") Long id, @Param("publishedAt") LocalDateTime publishedAt);
+    
+    /**
+     * Enregistre un échec de livraison et la date de la prochaine tentative
+     * @param id ID de l'événement
+     * @param attempts Nombre de tentatives effectuées
+     * @param lastError Message d'erreur (tronqué)
+     * @param nextAttemptAt Date de la prochaine tentative
+     * @return Nombre d'événements mis à jour
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = :attempts, e.lastError = :lastError, " +
+           "e.nextAttemptAt = :nextAttemptAt WHERE e.id = :id")
+    int markFailed(@Param("id") Long id, 
+                   @Param("attempts") int attempts, 
+                   @Param("lastError") String lastError, 
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+    
+    /**
+     * Supprime les événements publiés avant la date donnée
+     * @param before Date limite
+     * @return Nombre d'événements supprimés
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
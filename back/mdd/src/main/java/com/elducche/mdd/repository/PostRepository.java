@@ -1,12 +1,21 @@
 package com.elducche.mdd.repository;
 
 import com.elducche.mdd.entity.Post;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Repository pour l'entité Post
@@ -19,50 +28,84 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     
     /**
      * Trouve tous les posts triés par date de création (plus récents en premier)
-     * @return Liste des posts avec leurs relations
+     * @return Aperçus des posts (auteurs hydratés depuis l'annuaire)
+     */
+    @Query(PostSummary.SELECT + "ORDER BY p.createdAt DESC")
+    List<PostSummary> findAllSummaries();
+    
+    /**
+     * Parcourt les aperçus de tous les posts triés par date de création, ligne par ligne (curseur JDBC)
+     * À consommer dans une transaction, puis fermer le Stream
+     * @return Flux des aperçus
      */
-    @Query("SELECT p FROM Post p JOIN FETCH p.author JOIN FETCH p.theme ORDER BY p.createdAt DESC")
-    List<Post> findAllWithAuthorAndTheme();
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "200"))
+    @Query(PostSummary.SELECT + "ORDER BY p.createdAt DESC")
+    Stream<PostSummary> streamAllSummaries();
     
     /**
-     * Trouve un post par ID avec ses relations
+     * Trouve un post par ID avec ses relations, dans sa seule partition
+     * (date de création lue d'abord dans post_ids)
      * @param id L'ID du post
      * @return Optional contenant le post avec ses relations
      */
-    @Query("SELECT p FROM Post p JOIN FETCH p.author JOIN FETCH p.theme WHERE p.id = :id")
-    Optional<Post> findByIdWithAuthorAndTheme(@Param("id") Long id);
+    default Optional<Post> findByIdWithAuthorAndTheme(Long id) {
+        return findCreatedAtById(id).flatMap(createdAt -> findByIdWithAuthorAndTheme(id, createdAt));
+    }
+    
+    /**
+     * Trouve un post par ID et date de création avec ses relations
+     * @param id L'ID du post
+     * @param createdAt Date de création du post (clé de partitionnement)
+     * @return Optional contenant le post avec ses relations
+     */
+    @Query("SELECT p FROM Post p JOIN FETCH p.author JOIN FETCH p.theme WHERE p.id = :id AND p.createdAt = :createdAt")
+    Optional<Post> findByIdWithAuthorAndTheme(@Param("id") Long id, @Param("createdAt") LocalDateTime createdAt);
+    
+    /**
+     * Trouve un post par ID dans sa seule partition (date de création lue d'abord dans post_ids)
+     * @param id L'ID du post
+     * @return Optional contenant le post
+     */
+    default Optional<Post> findByIdInPartition(Long id) {
+        return findCreatedAtById(id).flatMap(createdAt -> findByIdAndCreatedAt(id, createdAt));
+    }
+    
+    /**
+     * Trouve un post par ID et date de création
+     * @param id L'ID du post
+     * @param createdAt Date de création du post (clé de partitionnement)
+     * @return Optional contenant le post
+     */
+    Optional<Post> findByIdAndCreatedAt(Long id, LocalDateTime createdAt);
     
     /**
      * Trouve les posts d'un thème spécifique
      * @param themeId L'ID du thème
-     * @return Liste des posts du thème
+     * @return Aperçus des posts du thème
      */
-    @Query("SELECT p FROM Post p JOIN FETCH p.author JOIN FETCH p.theme WHERE p.theme.id = :themeId ORDER BY p.createdAt DESC")
-    List<Post> findByThemeIdWithAuthorAndTheme(@Param("themeId") Long themeId);
+    @Query(PostSummary.SELECT + "WHERE t.id = :themeId ORDER BY p.createdAt DESC")
+    List<PostSummary> findSummariesByThemeId(@Param("themeId") Long themeId);
     
     /**
      * Trouve les posts d'un auteur spécifique
      * @param authorId L'ID de l'auteur
-     * @return Liste des posts de l'auteur
+     * @return Aperçus des posts de l'auteur
      */
-    @Query("SELECT p FROM Post p JOIN FETCH p.author JOIN FETCH p.theme WHERE p.author.id = :authorId ORDER BY p.createdAt DESC")
-    List<Post> findByAuthorIdWithAuthorAndTheme(@Param("authorId") Long authorId);
+    @Query(PostSummary.SELECT + "WHERE p.author.id = :authorId ORDER BY p.createdAt DESC")
+    List<PostSummary> findSummariesByAuthorId(@Param("authorId") Long authorId);
     
     /**
      * Trouve les posts des thèmes auxquels un utilisateur est abonné (feed personnalisé)
      * @param userId L'ID de l'utilisateur
-     * @return Liste des posts du feed personnalisé
+     * @return Aperçus des posts du feed personnalisé
      */
-    @Query("""
-        SELECT p FROM Post p 
-        JOIN FETCH p.author 
-        JOIN FETCH p.theme t
+    @Query(PostSummary.SELECT + """
         WHERE t.id IN (
             SELECT s.theme.id FROM Subscription s WHERE s.user.id = :userId
         )
         ORDER BY p.createdAt DESC
         """)
-    List<Post> findPostsFromSubscribedThemes(@Param("userId") Long userId);
+    List<PostSummary> findSummariesFromSubscribedThemes(@Param("userId") Long userId);
     
     /**
      * Trouve les posts par liste d'IDs de thèmes
@@ -75,8 +118,269 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     /**
      * Recherche de posts par titre (recherche partielle)
      * @param title Le titre à rechercher
-     * @return Liste des posts correspondants
+     * @return Aperçus des posts correspondants
+     */
+    @Query(PostSummary.SELECT + "WHERE p.title LIKE %:title% ORDER BY p.createdAt DESC")
+    List<PostSummary> findSummariesByTitleContaining(@Param("title") String title);
+    
+    /**
+     * Récupère un lot d'IDs de posts d'un auteur (suppression par lots)
+     * @param authorId L'ID de l'auteur
+     * @param pageable Taille du lot
+     * @return IDs des posts triés par ID
+     */
+    @Query("SELECT p.id FROM Post p WHERE p.author.id = :authorId ORDER BY p.id")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
+    
+    /**
+     * Supprime en une seule requête un lot de posts
+     * (les commentaires associés doivent avoir été supprimés au préalable)
+     * @param ids Les IDs des posts
+     * @return Nombre de posts supprimés
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Post p WHERE p.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") List<Long> ids);
+    
+    /**
+     * Trouve les posts les plus récents créés depuis une date donnée
+     * La borne sur created_at permet au planificateur de ne lire que les partitions récentes
+     * @param since Date de création minimale
+     * @param pageable Nombre de posts à retourner
+     * @return Aperçus des posts triés par date de création décroissante
+     */
+    @Query(PostSummary.SELECT + "WHERE p.createdAt >= :since ORDER BY p.createdAt DESC")
+    List<PostSummary> findLatestSummaries(@Param("since") LocalDateTime since, Pageable pageable);
+    
+    /**
+     * Trouve les posts les plus récents d'un thème créés depuis une date donnée
+     * @param themeId L'ID du thème
+     * @param since Date de création minimale
+     * @param pageable Nombre de posts à retourner
+     * @return Aperçus des posts du thème
+     */
+    @Query(PostSummary.SELECT + "WHERE t.id = :themeId AND p.createdAt >= :since ORDER BY p.createdAt DESC")
+    List<PostSummary> findLatestSummariesByThemeId(@Param("themeId") Long themeId,
+                                                   @Param("since") LocalDateTime since,
+                                                   Pageable pageable);
+    
+    /**
+     * Trouve les posts les plus récents des thèmes suivis créés depuis une date donnée
+     * @param userId L'ID de l'utilisateur
+     * @param since Date de création minimale
+     * @param pageable Nombre de posts à retourner
+     * @return Aperçus des posts du feed personnalisé
+     */
+    @Query(PostSummary.SELECT + """
+        WHERE t.id IN (
+            SELECT s.theme.id FROM Subscription s WHERE s.user.id = :userId
+        )
+        AND p.createdAt >= :since
+        ORDER BY p.createdAt DESC
+        """)
+    List<PostSummary> findLatestSummariesFromSubscribedThemes(@Param("userId") Long userId,
+                                                              @Param("since") LocalDateTime since,
+                                                              Pageable pageable);
+    
+    /**
+     * Trouve la première page des posts dans l'ordre de pagination par clé (created_at DESC, id DESC)
+     * @param pageable Nombre de posts à retourner
+     * @return Aperçus des posts les plus récents
+     */
+    @Query(PostSummary.SELECT + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummary> findFirstSummaries(Pageable pageable);
+    
+    /**
+     * Trouve la page de posts qui suit un curseur (created_at, id), dans l'ordre (created_at DESC, id DESC)
+     * La borne created_at <= :createdAt permet d'ignorer les partitions plus récentes
+     * @param createdAt Date de création du dernier post de la page précédente
+     * @param id ID du dernier post de la page précédente
+     * @param pageable Nombre de posts à retourner
+     * @return Aperçus des posts suivants
+     */
+    @Query(PostSummary.SELECT + 
+           "WHERE p.createdAt <= :createdAt AND (p.createdAt < :createdAt OR p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<PostSummary> findSummariesBefore(@Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+    
+    /**
+     * Parcourt les posts les plus récents d'un auteur, dans l'ordre (created_at DESC, id DESC)
+     * (flux d'activité ; à consommer dans une transaction, puis fermer le Stream)
+     * @param authorId L'ID de l'auteur
+     * @param pageable Nombre maximal de posts
+     * @return Flux des aperçus
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "25"))
+    @Query(PostSummary.SELECT + "WHERE p.author.id = :authorId ORDER BY p.createdAt DESC, p.id DESC")
+    Stream<PostSummary> streamRecentSummariesByAuthorId(@Param("authorId") Long authorId, Pageable pageable);
+    
+    /**
+     * Parcourt les posts d'un auteur qui suivent un curseur (created_at, id),
+     * dans l'ordre (created_at DESC, id DESC)
+     * @param authorId L'ID de l'auteur
+     * @param createdAt Date de création du dernier post déjà lu
+     * @param id ID du dernier post déjà lu
+     * @param pageable Nombre maximal de posts
+     * @return Flux des aperçus suivants
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "25"))
+    @Query(PostSummary.SELECT + 
+           "WHERE p.author.id = :authorId AND p.createdAt <= :createdAt AND (p.createdAt < :createdAt OR p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Stream<PostSummary> streamSummariesByAuthorIdBefore(@Param("authorId") Long authorId,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") Long id,
+                                                        Pageable pageable);
+    
+    /**
+     * Trouve l'aperçu d'un post, dans sa seule partition
+     * @param id L'ID du post
+     * @return Optional contenant l'aperçu
+     */
+    default Optional<PostSummary> findSummaryById(Long id) {
+        return findCreatedAtById(id).flatMap(createdAt -> findSummaryById(id, createdAt));
+    }
+    
+    /**
+     * Trouve l'aperçu d'un post par ID et date de création
+     * @param id L'ID du post
+     * @param createdAt Date de création du post (clé de partitionnement)
+     * @return Optional contenant l'aperçu
+     */
+    @Query(PostSummary.SELECT + "WHERE p.id = :id AND p.createdAt = :createdAt")
+    Optional<PostSummary> findSummaryById(@Param("id") Long id, @Param("createdAt") LocalDateTime createdAt);
+    
+    /**
+     * Récupère la date de création d'un post (clé de partitionnement) dans la table de correspondance
+     * post_ids, sans parcourir les partitions
+     * @param id L'ID du post
+     * @return Optional contenant la date de création
+     */
+    @Query(value = "SELECT created_at FROM post_ids WHERE id = :id", nativeQuery = true)
+    Optional<LocalDateTime> findCreatedAtById(@Param("id") Long id);
+    
+    /**
+     * Trouve les posts dont le contenu peut être archivé (plus anciens que la date donnée)
+     * @param before Date de création maximale
+     * @param pageable Taille du lot
+     * @return Liste des posts à archiver, du plus ancien au plus récent
+     */
+    @Query("SELECT p FROM Post p WHERE p.contentArchived = false AND p.content IS NOT NULL " +
+           "AND p.createdAt < :before ORDER BY p.createdAt")
+    List<Post> findArchivableBefore(@Param("before") LocalDateTime before, Pageable pageable);
+    
+    /**
+     * Vide le contenu (et son HTML) d'un lot de posts archivés, sans modifier updated_at
+     * @param ids Les IDs des posts
+     * @param before Date de création maximale du lot (écarte les partitions plus récentes)
+     * @return Nombre de posts mis à jour
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.content = NULL, p.contentHtml = NULL, p.contentArchived = true " +
+           "WHERE p.id IN :ids AND p.createdAt < :before")
+    int markContentArchived(@Param("ids") List<Long> ids, @Param("before") LocalDateTime before);
+    
+    /**
+     * Trouve un lot de posts archivés sans extrait (posts archivés avant la migration V6)
+     * @param pageable Taille du lot
+     * @return IDs des posts
+     */
+    @Query("SELECT p.id FROM Post p WHERE p.excerpt IS NULL AND p.contentArchived = true ORDER BY p.id")
+    List<Long> findArchivedIdsWithoutExcerpt(Pageable pageable);
+    
+    /**
+     * Enregistre l'extrait d'un post, sans modifier updated_at
+     * @param id L'ID du post
+     * @param excerpt L'extrait
+     * @return Nombre de posts mis à jour
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.excerpt = :excerpt WHERE p.id = :id")
+    int updateExcerpt(@Param("id") Long id, @Param("excerpt") String excerpt);
+    
+    /**
+     * Charge la source Markdown d'un post à rendre, dans sa seule partition
+     * @param id L'ID du post
+     * @return Optional contenant l'ID, la date de création et le contenu
+     */
+    default Optional<RenderSource> findRenderSourceById(Long id) {
+        return findCreatedAtById(id).flatMap(createdAt -> findRenderSourceById(id, createdAt));
+    }
+    
+    /**
+     * Charge la source Markdown d'un post par ID et date de création
+     * @param id L'ID du post
+     * @param createdAt Date de création du post (clé de partitionnement)
+     * @return Optional contenant l'ID, la date de création et le contenu
+     */
+    @Query("SELECT p.id AS id, p.createdAt AS createdAt, p.content AS content FROM Post p " +
+           "WHERE p.id = :id AND p.createdAt = :createdAt")
+    Optional<RenderSource> findRenderSourceById(@Param("id") Long id, @Param("createdAt") LocalDateTime createdAt);
+    
+    /**
+     * Trouve un lot de posts dont le HTML est absent ou rendu par une version antérieure
+     * (parcours par ID croissant, reprise après afterId)
+     * @param version Version courante du rendu
+     * @param afterId Dernier ID traité (0 au départ)
+     * @param pageable Taille du lot
+     * @return Sources à rendre, triées par ID
+     */
+    @Query("SELECT p.id AS id, p.createdAt AS createdAt, p.content AS content FROM Post p " +
+           "WHERE p.renderVersion < :version AND p.id > :afterId AND p.content IS NOT NULL ORDER BY p.id")
+    List<RenderSource> findOutdatedRenderSources(@Param("version") short version,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+    
+    /**
+     * Enregistre le HTML rendu, sans modifier updated_at, si le contenu n'a pas changé depuis la lecture
+     * (la date de création borne la mise à jour à une seule partition)
+     * @return 1 si le HTML a été enregistré, 0 si le contenu a été modifié ou supprimé entre-temps
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Post p SET p.contentHtml = :html, p.renderVersion = :version " +
+           "WHERE p.id = :id AND p.createdAt = :createdAt AND p.content = :source")
+    int updateRenderedContent(@Param("id") Long id,
+                              @Param("createdAt") LocalDateTime createdAt,
+                              @Param("source") String source,
+                              @Param("html") String html,
+                              @Param("version") short version);
+    
+    /**
+     * Projection : aperçu d'un post pour les listes (extrait au lieu du contenu,
+     * auteur réduit à son ID, thème joint)
+     */
+    interface PostSummary {
+        
+        /**
+         * Début commun des requêtes d'aperçus (alias p pour le post, t pour le thème)
+         */
+        String SELECT = "SELECT p.id AS id, p.title AS title, p.excerpt AS excerpt, p.contentLength AS contentLength, "
+                      + "p.createdAt AS createdAt, p.updatedAt AS updatedAt, p.author.id AS authorId, "
+                      + "t.id AS themeId, t.title AS themeTitle, t.description AS themeDescription "
+                      + "FROM Post p JOIN p.theme t ";
+        
+        Long getId();
+        String getTitle();
+        String getExcerpt();
+        int getContentLength();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getUpdatedAt();
+        Long getAuthorId();
+        Long getThemeId();
+        String getThemeTitle();
+        String getThemeDescription();
+    }
+    
+    /**
+     * Projection : source Markdown d'un post (rendu HTML)
      */
-    @Query("SELECT p FROM Post p JOIN FETCH p.author JOIN FETCH p.theme WHERE p.title LIKE %:title% ORDER BY p.createdAt DESC")
-    List<Post> findByTitleContainingIgnoreCase(@Param("title") String title);
+    interface RenderSource {
+        Long getId();
+        LocalDateTime getCreatedAt();
+        String getContent();
+    }
 }
@@ -2,12 +2,20 @@ package com.elducche.mdd.repository;
 
 import com.elducche.mdd.entity.Subscription;
 import com.elducche.mdd.entity.SubscriptionId;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Repository pour l'entité Subscription
@@ -19,12 +27,21 @@ import java.util.Optional;
 public interface SubscriptionRepository extends JpaRepository<Subscription, SubscriptionId> {
     
     /**
-     * Trouve tous les abonnements d'un utilisateur avec les thèmes
+     * Trouve tous les abonnements d'un utilisateur avec l'utilisateur et les thèmes
      * @param userId L'ID de l'utilisateur
-     * @return Liste des abonnements avec les thèmes
+     * @return Liste des abonnements avec l'utilisateur et les thèmes
      */
-    @Query("SELECT s FROM Subscription s JOIN FETCH s.theme WHERE s.user.id = :userId")
-    List<Subscription> findByUserIdWithTheme(@Param("userId") Long userId);
+    @EntityGraph(Subscription.WITH_USER_AND_THEME)
+    @Query("SELECT s FROM Subscription s WHERE s.user.id = :userId")
+    List<Subscription> findByUserIdWithUserAndTheme(@Param("userId") Long userId);
+    
+    /**
+     * Trouve un abonnement avec l'utilisateur et le thème
+     * @param id Clé de l'abonnement
+     * @return L'abonnement avec ses relations
+     */
+    @EntityGraph(Subscription.WITH_USER_AND_THEME)
+    Optional<Subscription> findWithUserAndThemeById(SubscriptionId id);
     
     /**
      * Trouve tous les abonnés d'un thème
@@ -42,6 +59,23 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Subs
     @Query("SELECT s.theme.id FROM Subscription s WHERE s.user.id = :userId")
     List<Long> findThemeIdsByUserId(@Param("userId") Long userId);
     
+    /**
+     * Trouve les IDs des abonnés d'un thème
+     * @param themeId L'ID du thème
+     * @return Liste des IDs d'utilisateurs
+     */
+    @Query("SELECT s.id.userId FROM Subscription s WHERE s.id.themeId = :themeId")
+    List<Long> findUserIdsByThemeId(@Param("themeId") Long themeId);
+    
+    /**
+     * Parcourt toutes les paires (utilisateur, thème), ligne par ligne (curseur JDBC)
+     * À consommer dans une transaction, puis fermer le Stream
+     * @return Flux des clés d'abonnement
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT s.id FROM Subscription s")
+    Stream<SubscriptionId> streamAllIds();
+    
     /**
      * Vérifie si un utilisateur est abonné à un thème
      * @param userId L'ID de l'utilisateur
@@ -90,4 +124,24 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Subs
      * @return Nombre d'abonnements
      */
     long countByUserId(Long userId);
+    
+    /**
+     * Supprime en une seule requête tous les abonnements d'un utilisateur
+     * @param userId L'ID de l'utilisateur
+     * @return Nombre d'abonnements supprimés
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Subscription s WHERE s.id.userId = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Supprime en une seule requête tous les abonnements d'un thème
+     * @param themeId L'ID du thème
+     * @return Nombre d'abonnements supprimés
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Subscription s WHERE s.id.themeId = :themeId")
+    int deleteAllByThemeId(@Param("themeId") Long themeId);
 }
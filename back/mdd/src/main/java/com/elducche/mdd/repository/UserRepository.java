@@ -1,11 +1,18 @@
 package com.elducche.mdd.repository;
 
 import com.elducche.mdd.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Repository pour l'entité User
@@ -51,4 +58,38 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u FROM User u WHERE u.email = :identifier OR u.username = :identifier")
     Optional<User> findByEmailOrUsername(@Param("identifier") String identifier);
+    
+    /**
+     * Parcourt les emails et usernames de tous les utilisateurs, ligne par ligne (curseur JDBC)
+     * À consommer dans une transaction, puis fermer le Stream
+     * @return Flux des identifiants publics
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT u.email AS email, u.username AS username FROM User u")
+    Stream<UserIdentity> streamAllIdentities();
+    
+    /**
+     * Charge le nom et l'email d'un ensemble d'auteurs (annuaire des auteurs)
+     * @param ids Les IDs des utilisateurs
+     * @return Auteurs trouvés
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email FROM User u WHERE u.id IN :ids")
+    List<AuthorView> findAuthorsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Projection : identifiants uniques d'un utilisateur
+     */
+    interface UserIdentity {
+        String getEmail();
+        String getUsername();
+    }
+    
+    /**
+     * Projection : auteur affiché avec les posts et commentaires
+     */
+    interface AuthorView {
+        Long getId();
+        String getUsername();
+        String getEmail();
+    }
 }
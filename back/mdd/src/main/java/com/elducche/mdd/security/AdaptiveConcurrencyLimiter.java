@@ -0,0 +1,125 @@
+package com.elducche.mdd.security;
+
+import com.elducche.mdd.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de concurrence adaptative (AIMD) pilotée par l'attente du pool de connexions
+ * 
+ * À chaque intervalle, le temps moyen d'acquisition d'une connexion Hikari
+ * (hikaricp.connections.acquire) est comparé à la cible : au-delà, la limite de
+ * requêtes simultanées est réduite de 20 % ; en deçà, elle remonte d'une unité.
+ * Les requêtes au-delà de la limite sont délestées (503) au lieu de s'empiler
+ * devant le pool.
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private final RateLimitProperties.Concurrency properties;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter shed;
+    private final ScheduledExecutorService scheduler;
+    
+    private long lastAcquireCount;
+    private double lastAcquireTotalNanos;
+
+    public AdaptiveConcurrencyLimiter(RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+        this.properties = rateLimitProperties.getConcurrency();
+        this.meterRegistry = meterRegistry;
+        this.limit = new AtomicInteger(properties.getInitialLimit());
+        this.shed = Counter.builder("mdd.ratelimit.rejected").tag("reason", "concurrency").register(meterRegistry);
+        
+        Gauge.builder("mdd.concurrency.limit", limit, AtomicInteger::get)
+                .description("Limite courante de requêtes simultanées")
+                .register(meterRegistry);
+        Gauge.builder("mdd.concurrency.in.flight", inFlight, AtomicInteger::get)
+                .description("Requêtes en cours")
+                .register(meterRegistry);
+        
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mdd-concurrency-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (properties.isEnabled()) {
+            long interval = properties.getSampleInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::adjust, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Réserve une place si la limite courante le permet
+     * 
+     * @return true si la requête peut être traitée (appeler {@link #release()} ensuite)
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                shed.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+    
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+    
+    private void adjust() {
+        try {
+            long count = 0;
+            double totalNanos = 0;
+            for (Timer timer : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+                count += timer.count();
+                totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+            }
+            
+            long acquisitions = count - lastAcquireCount;
+            double averageNanos = acquisitions > 0 ? (totalNanos - lastAcquireTotalNanos) / acquisitions : 0;
+            lastAcquireCount = count;
+            lastAcquireTotalNanos = totalNanos;
+            
+            int current = limit.get();
+            int next;
+            if (averageNanos > properties.getTargetAcquireTime().toNanos()) {
+                next = Math.max(properties.getMinLimit(), (int) (current * 0.8));
+                if (next != current) {
+                    log.warn("Attente moyenne du pool {} ms : limite de concurrence réduite à {}", 
+                            String.format("%.1f", averageNanos / 1_000_000), next);
+                }
+            } else {
+                next = Math.min(properties.getMaxLimit(), current + 1);
+            }
+            limit.set(next);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'ajustement de la limite de concurrence: {}", e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,24 @@
+package com.elducche.mdd.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Détails de l'authentification JWT : ceux de la requête, plus le claim userId du token
+ * 
+ * Permet aux filtres suivants (limitation de débit) d'identifier l'utilisateur
+ * sans analyser le token une seconde fois ni accéder à la base.
+ */
+@Getter
+@EqualsAndHashCode(callSuper = true)
+public class JwtAuthenticationDetails extends WebAuthenticationDetails {
+
+    private final Long userId;
+
+    public JwtAuthenticationDetails(HttpServletRequest request, Long userId) {
+        super(request);
+        this.userId = userId;
+    }
+}
@@ -8,7 +8,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -19,7 +18,9 @@ import java.util.ArrayList;
  * Filtre JWT simplifié pour l'authentification
  * 
  * Vérifie la validité du token et définit l'authentification
- * dans le contexte de sécurité Spring avec l'email comme principal
+ * dans le contexte de sécurité Spring avec l'email comme principal ;
+ * le claim userId est conservé dans les détails de l'authentification
+ * (token analysé une seule fois par requête)
  */
 @Slf4j
 @Component
@@ -44,9 +45,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtUtil.getValidatedEmail(jwt);
+            final JwtUtil.TokenIdentity identity = jwtUtil.getValidatedIdentity(jwt);
 
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (identity != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                final String userEmail = identity.email();
                 // Création d'une authentification simple avec l'email
                 UsernamePasswordAuthenticationToken authToken = 
                     new UsernamePasswordAuthenticationToken(
@@ -55,7 +57,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         new ArrayList<>() // Pas de rôles pour simplifier
                     );
                 
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authToken.setDetails(new JwtAuthenticationDetails(request, identity.userId()));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
                 
                 log.debug("Utilisateur authentifié: {}", userEmail);
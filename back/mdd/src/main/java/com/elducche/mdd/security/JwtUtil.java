@@ -91,13 +91,39 @@ public class JwtUtil {
         }
     }
 
+    /**
+     * Identité portée par un token valide : email (principal) et claim userId
+     */
+    public record TokenIdentity(String email, Long userId) {
+    }
+
+    /**
+     * Vérifie le token et en extrait l'identité en une seule analyse, null s'il est invalide ou expiré
+     */
+    public TokenIdentity getValidatedIdentity(String token) {
+        try {
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(key)
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+            
+            if (!claims.getExpiration().after(new Date())) {
+                return null;
+            }
+            Number userId = claims.get("userId", Number.class);
+            return new TokenIdentity(claims.getSubject(), userId != null ? userId.longValue() : null);
+        } catch (JwtException e) {
+            log.warn("Token JWT invalide: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Extrait l'email si le token est valide, null sinon
      */
     public String getValidatedEmail(String token) {
-        if (isTokenValid(token)) {
-            return getEmailFromToken(token);
-        }
-        return null;
+        TokenIdentity identity = getValidatedIdentity(token);
+        return identity != null ? identity.email() : null;
     }
 }
@@ -0,0 +1,140 @@
+package com.elducche.mdd.security;
+
+import com.elducche.mdd.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Filtre de limitation de débit et de délestage
+ * 
+ * Chaque client (claim userId du JWT, sinon adresse IP) dispose d'un seau à
+ * jetons par règle de route ({@link RateLimiter}) ; au-delà, la requête reçoit
+ * un 429. Une limite de concurrence adaptative ({@link AdaptiveConcurrencyLimiter})
+ * renvoie ensuite un 503 lorsque l'attente du pool de connexions augmente.
+ * Placé juste après le filtre JWT, dont il réutilise l'authentification (le token
+ * n'est analysé qu'une fois) : les requêtes rejetées ne coûtent aucun accès base.
+ * Une réponse asynchrone (streaming) conserve sa place dans la limite de
+ * concurrence jusqu'à la fin du traitement asynchrone, pas seulement du
+ * premier dispatch.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        if (rateLimiter.isEnabled()) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            long retryAfter = rateLimiter.tryConsume(request.getMethod(), path, rateLimiter.clientKey(request.getRemoteAddr()));
+            if (retryAfter > 0) {
+                reject(request, response, HttpStatus.TOO_MANY_REQUESTS, retryAfter, "Trop de requêtes, réessayez plus tard");
+                return;
+            }
+        }
+        
+        if (!concurrencyLimiter.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Serveur surchargé, réessayez plus tard");
+            return;
+        }
+        boolean releaseOnAsyncEnd = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnAsyncEnd());
+                releaseOnAsyncEnd = true;
+            }
+        } finally {
+            if (!releaseOnAsyncEnd) {
+                concurrencyLimiter.release();
+            }
+        }
+    }
+    
+    /**
+     * Rend la place de la limite de concurrence à la fin du traitement asynchrone
+     * (une seule fois, quelle que soit l'issue)
+     */
+    private final class ReleaseOnAsyncEnd implements AsyncListener {
+        
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Nouveau cycle asynchrone (redispatch) : les écouteurs doivent être réenregistrés
+            event.getAsyncContext().addListener(this);
+        }
+        
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                concurrencyLimiter.release();
+            }
+        }
+    }
+    
+    private void reject(HttpServletRequest request, HttpServletResponse response, 
+                        HttpStatus status, long retryAfterSeconds, String message) throws IOException {
+        log.debug("Requête {} {} rejetée ({})", request.getMethod(), request.getRequestURI(), status.value());
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new GlobalExceptionHandler.ErrorResponse(
+            status.value(),
+            status.getReasonPhrase(),
+            message,
+            request.getRequestURI(),
+            LocalDateTime.now(),
+            null
+        ));
+    }
+}
@@ -0,0 +1,111 @@
+package com.elducche.mdd.security;
+
+import com.elducche.mdd.config.RateLimitProperties;
+import com.elducche.mdd.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Seaux à jetons par (règle de route, client)
+ *
+ * Partagés par le filtre de limitation de débit et par les requêtes groupées,
+ * dont chaque sous-requête consomme un jeton du seau de sa propre route.
+ */
+@Component
+public class RateLimiter {
+
+    private static final String DEFAULT_ROUTE = "default";
+
+    private final RateLimitProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * (route, client) -> seau ; purgé périodiquement des seaux inactifs
+     */
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final Counter rejected;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.rejected = Counter.builder("mdd.ratelimit.rejected").tag("reason", "rate").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Consomme un jeton du seau de la route pour ce client
+     *
+     * @param method Méthode HTTP
+     * @param path Chemin, sans le contexte de l'application
+     * @param client Identifiant du client (voir {@link #clientKey(String)})
+     * @return 0 si la requête est acceptée, sinon le délai en secondes (au moins 1) avant le prochain jeton
+     */
+    public long tryConsume(String method, String path, String client) {
+        TokenBucket bucket = resolveBucket(method, path, client);
+        if (bucket.tryConsume()) {
+            return 0;
+        }
+        rejected.increment();
+        return Math.max(1, bucket.secondsUntilNextToken());
+    }
+
+    /**
+     * Identifiant du client : userId de l'authentification JWT, sinon adresse IP
+     */
+    public String clientKey(String remoteAddr) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof JwtAuthenticationDetails details
+                && details.getUserId() != null) {
+            return "user:" + details.getUserId();
+        }
+        return "ip:" + remoteAddr;
+    }
+
+    private TokenBucket resolveBucket(String method, String path, String client) {
+        List<RateLimitProperties.Route> routes = properties.getRoutes();
+        for (int i = 0; i < routes.size(); i++) {
+            RateLimitProperties.Route route = routes.get(i);
+            if ((route.getMethod() == null || route.getMethod().equalsIgnoreCase(method))
+                    && pathMatcher.match(route.getPattern(), path)) {
+                return buckets.computeIfAbsent(i + "|" + client,
+                        key -> new TokenBucket(route.getCapacity(), route.getRefillPerSecond()));
+            }
+        }
+        RateLimitProperties.Limit defaults = properties.getDefaults();
+        return buckets.computeIfAbsent(DEFAULT_ROUTE + "|" + client,
+                key -> new TokenBucket(defaults.getCapacity(), defaults.getRefillPerSecond()));
+    }
+
+    /**
+     * Purge des seaux inactifs, puis des seaux pleins les plus anciens si le plafond est dépassé
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long idleBefore = System.nanoTime() - properties.getIdleEviction().toNanos();
+        buckets.values().removeIf(bucket -> bucket.lastUsedNanos() - idleBefore < 0);
+
+        int excess = buckets.size() - properties.getMaxBuckets();
+        if (excess > 0) {
+            buckets.entrySet().stream()
+                .filter(entry -> entry.getValue().isFull())
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUsedNanos()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(buckets::remove);
+        }
+    }
+}
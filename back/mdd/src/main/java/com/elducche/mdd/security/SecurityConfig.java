@@ -1,5 +1,6 @@
 package com.elducche.mdd.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -24,6 +25,7 @@ import java.util.List;
  * Configure :
  * - Endpoints publics et protégés
  * - Filtre JWT d'authentification
+ * - Limitation de débit / délestage (juste après le filtre JWT)
  * - CORS pour le frontend
  * - Politique de sessions (stateless)
  */
@@ -33,6 +35,7 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     /**
      * Configuration principale de sécurité
@@ -51,6 +54,9 @@ public class SecurityConfig {
             
             // Configuration des autorisations
             .authorizeHttpRequests(auth -> auth
+                // Fin des réponses en streaming (requête initiale déjà authentifiée)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                
                 // Endpoints d'authentification publics
                 .requestMatchers("/api/auth/**").permitAll()
                 
@@ -59,7 +65,11 @@ public class SecurityConfig {
             )
             
             // Ajouter le filtre JWT avant le filtre d'authentification standard
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            
+            // Limitation de débit et délestage juste après le filtre JWT (sans accès base),
+            // pour identifier le client par l'authentification déjà établie
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
             
         return http.build();
     }
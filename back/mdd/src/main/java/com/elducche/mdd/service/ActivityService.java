@@ -0,0 +1,113 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.repository.CommentRepository;
+import com.elducche.mdd.repository.CommentRepository.CommentActivity;
+import com.elducche.mdd.repository.PostRepository;
+import com.elducche.mdd.repository.PostRepository.PostSummary;
+import com.elducche.mdd.util.ActivityCursor;
+import com.elducche.mdd.util.KeysetCursor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service du flux d'activité d'un utilisateur (ses posts et ses commentaires)
+ * 
+ * Les deux listes sont lues par curseur (created_at, id) sur les index
+ * (author_id, created_at DESC, id DESC), en flux (fetch size réduit), et fusionnées
+ * au fil de l'eau : chaque côté n'est avancé que lorsque son élément courant est
+ * servi. Une page lit donc au plus page + 1 lignes de chaque côté, quel que soit
+ * le nombre de posts et de commentaires de l'utilisateur.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActivityService {
+    
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    
+    /**
+     * Élément du flux : un post ou un commentaire (l'autre champ est null)
+     */
+    public record ActivityItem(PostSummary post, CommentActivity comment) {
+        
+        public LocalDateTime createdAt() {
+            return post != null ? post.getCreatedAt() : comment.getCreatedAt();
+        }
+    }
+    
+    /**
+     * Page du flux d'activité
+     * 
+     * @param items Éléments du plus récent au plus ancien
+     * @param nextCursor Curseur de la page suivante (null sur la dernière page)
+     */
+    public record ActivityPage(List<ActivityItem> items, String nextCursor) {
+    }
+    
+    /**
+     * Récupère une page du flux d'activité d'un utilisateur, pagination par curseur
+     * 
+     * @param userId L'ID de l'utilisateur
+     * @param cursor Curseur de la page précédente (null pour la première page)
+     * @param limit Nombre d'éléments (borné à 100)
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    @Transactional(readOnly = true)
+    public ActivityPage getActivity(Long userId, String cursor, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        ActivityCursor after = cursor == null || cursor.isBlank() 
+            ? new ActivityCursor(null, null) 
+            : ActivityCursor.decode(cursor);
+        // Un élément de plus de chaque côté : indique s'il reste des éléments après la page
+        PageRequest page = PageRequest.of(0, size + 1);
+        
+        try (Stream<PostSummary> postStream = after.posts() == null 
+                 ? postRepository.streamRecentSummariesByAuthorId(userId, page) 
+                 : postRepository.streamSummariesByAuthorIdBefore(userId, after.posts().createdAt(), after.posts().id(), page);
+             Stream<CommentActivity> commentStream = after.comments() == null 
+                 ? commentRepository.streamRecentByUserId(userId, page) 
+                 : commentRepository.streamByUserIdBefore(userId, after.comments().createdAt(), after.comments().id(), page)) {
+            
+            Iterator<PostSummary> posts = postStream.iterator();
+            Iterator<CommentActivity> comments = commentStream.iterator();
+            PostSummary nextPost = posts.hasNext() ? posts.next() : null;
+            CommentActivity nextComment = comments.hasNext() ? comments.next() : null;
+            
+            List<ActivityItem> items = new ArrayList<>(size);
+            KeysetCursor lastPost = after.posts();
+            KeysetCursor lastComment = after.comments();
+            
+            while (items.size() < size && (nextPost != null || nextComment != null)) {
+                // À date égale, le post passe avant le commentaire
+                if (nextComment == null 
+                        || (nextPost != null && !nextPost.getCreatedAt().isBefore(nextComment.getCreatedAt()))) {
+                    items.add(new ActivityItem(nextPost, null));
+                    lastPost = new KeysetCursor(nextPost.getCreatedAt(), nextPost.getId());
+                    nextPost = posts.hasNext() ? posts.next() : null;
+                } else {
+                    items.add(new ActivityItem(null, nextComment));
+                    lastComment = new KeysetCursor(nextComment.getCreatedAt(), nextComment.getId());
+                    nextComment = comments.hasNext() ? comments.next() : null;
+                }
+            }
+            
+            // Page pleine avec des éléments restants : la page suivante reprend après les derniers servis
+            String nextCursor = items.size() == size && (nextPost != null || nextComment != null)
+                ? new ActivityCursor(lastPost, lastComment).encode()
+                : null;
+            return new ActivityPage(items, nextCursor);
+        }
+    }
+}
@@ -4,8 +4,11 @@ import com.elducche.mdd.dto.LoginRequest;
 import com.elducche.mdd.dto.LoginResponse;
 import com.elducche.mdd.dto.RegisterRequest;
 import com.elducche.mdd.entity.User;
+import com.elducche.mdd.event.UserRegisteredEvent;
 import com.elducche.mdd.repository.UserRepository;
 import com.elducche.mdd.security.JwtUtil;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
@@ -24,15 +27,18 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final UserIdentityFilter userIdentityFilter;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Connexion d'un utilisateur
      */
     public LoginResponse login(LoginRequest loginRequest) {
         try {
-            // Recherche de l'utilisateur
-            User user = userRepository.findByEmail(loginRequest.getEmail())
-                    .orElse(null);
+            // Recherche de l'utilisateur (un email absent du filtre n'existe pas : pas de requête)
+            User user = userIdentityFilter.mightContainEmail(loginRequest.getEmail())
+                    ? userRepository.findByEmail(loginRequest.getEmail()).orElse(null)
+                    : null;
             
             if (user == null) {
                 log.warn("Tentative de connexion avec email inexistant: {}", loginRequest.getEmail());
@@ -62,13 +68,15 @@ public class AuthService {
      */
     public LoginResponse register(RegisterRequest registerRequest) {
         try {
-            // Vérifications d'existence
-            if (userRepository.existsByEmail(registerRequest.getEmail())) {
+            // Vérifications d'existence (en base uniquement si le filtre ne les exclut pas)
+            if (userIdentityFilter.mightContainEmail(registerRequest.getEmail())
+                && userRepository.existsByEmail(registerRequest.getEmail())) {
                 log.warn("Tentative d'inscription avec email existant: {}", registerRequest.getEmail());
                 return LoginResponse.error("Un compte avec cet email existe déjà");
             }
             
-            if (userRepository.existsByUsername(registerRequest.getUsername())) {
+            if (userIdentityFilter.mightContainUsername(registerRequest.getUsername())
+                && userRepository.existsByUsername(registerRequest.getUsername())) {
                 log.warn("Tentative d'inscription avec username existant: {}", registerRequest.getUsername());
                 return LoginResponse.error("Ce nom d'utilisateur est déjà pris");
             }
@@ -79,7 +87,16 @@ public class AuthService {
             user.setUsername(registerRequest.getUsername());
             user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
             
-            User savedUser = userRepository.save(user);
+            userIdentityFilter.add(user.getEmail(), user.getUsername());
+            User savedUser;
+            try {
+                savedUser = userRepository.save(user);
+            } catch (DataIntegrityViolationException e) {
+                // Inscription concurrente avec le même email ou username (index uniques)
+                log.warn("Inscription refusée par les contraintes d'unicité pour: {}", registerRequest.getEmail());
+                return LoginResponse.error("Un compte avec cet email ou ce nom d'utilisateur existe déjà");
+            }
+            eventPublisher.publishEvent(new UserRegisteredEvent(savedUser.getId()));
             log.info("Nouveau compte créé pour l'utilisateur: {}", savedUser.getEmail());
             
             // Génération du token JWT pour connexion automatique
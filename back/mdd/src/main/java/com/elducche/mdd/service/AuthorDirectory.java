@@ -0,0 +1,184 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.event.CachesResetEvent;
+import com.elducche.mdd.event.UserChangedEvent;
+import com.elducche.mdd.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Annuaire mémoire des auteurs : ID → (username, email)
+ *
+ * Permet aux requêtes de listes (fil d'actualité, commentaires) de ne sélectionner
+ * que author_id, sans jointure sur users : les auteurs sont hydratés depuis cet
+ * annuaire, les absents étant chargés en une seule requête par page.
+ *
+ * Les IDs d'utilisateurs étant denses (BIGSERIAL), l'annuaire est un tableau indexé
+ * directement par l'ID (pas de boxing ni de table de hachage). Les IDs au-delà de
+ * mdd.author-directory.max-id sont chargés sans être conservés.
+ *
+ * Invalidé après commit par UserChangedEvent (profil modifié, compte supprimé,
+ * localement ou sur une autre instance) ; les entrées expirent après
+ * mdd.author-directory.ttl, ce qui borne l'effet d'une lecture sur une réplique en retard.
+ */
+@Service
+public class AuthorDirectory {
+
+    private final UserRepository userRepository;
+    private final Counter loadedAuthors;
+
+    @Value("${mdd.author-directory.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mdd.author-directory.max-id:10000000}")
+    private int maxId;
+
+    @Value("${mdd.author-directory.ttl:10m}")
+    private Duration ttl;
+
+    /**
+     * Auteur tel qu'affiché avec les posts et commentaires
+     */
+    public record Author(Long id, String username, String email) {
+    }
+
+    private record Entry(Author author, long expiresAtNanos) {
+    }
+
+    /**
+     * Tableau courant (remplacé par un plus grand sous verrou, les écritures se font sous ce même verrou)
+     */
+    private volatile AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<>(1024);
+
+    /**
+     * Incrémenté à chaque invalidation : un chargement commencé avant n'est pas conservé
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuthorDirectory(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.loadedAuthors = Counter.builder("mdd.author.directory.loads")
+            .description("Auteurs chargés en base par l'annuaire (absents ou expirés)")
+            .register(meterRegistry);
+        Gauge.builder("mdd.author.directory.capacity", this, directory -> directory.entries.length())
+            .register(meterRegistry);
+    }
+
+    /**
+     * Résout un ensemble d'auteurs : annuaire d'abord, puis une requête pour les absents
+     *
+     * @return Auteurs trouvés, par ID (les utilisateurs inexistants sont absents)
+     */
+    public Map<Long, Author> resolve(Collection<Long> ids) {
+        Map<Long, Author> authors = new HashMap<>(ids.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        long now = System.nanoTime();
+        AtomicReferenceArray<Entry> current = entries;
+
+        for (Long id : ids) {
+            if (id == null || authors.containsKey(id)) {
+                continue;
+            }
+            Entry entry = enabled && id > 0 && id < current.length() ? current.get(id.intValue()) : null;
+            if (entry != null && entry.expiresAtNanos() - now > 0) {
+                authors.put(id, entry.author());
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long startGeneration = generation.get();
+            List<Author> loaded = userRepository.findAuthorsByIdIn(missing).stream()
+                .map(view -> new Author(view.getId(), view.getUsername(), view.getEmail()))
+                .toList();
+            loadedAuthors.increment(loaded.size());
+            loaded.forEach(author -> authors.put(author.id(), author));
+            store(loaded, startGeneration);
+        }
+        return authors;
+    }
+
+    /**
+     * Résout un auteur
+     */
+    public Author resolve(Long id) {
+        return resolve(List.of(id)).get(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    @EventListener
+    public void onCachesReset(CachesResetEvent event) {
+        synchronized (this) {
+            generation.incrementAndGet();
+            entries = new AtomicReferenceArray<>(entries.length());
+        }
+    }
+
+    public void invalidate(Long id) {
+        synchronized (this) {
+            generation.incrementAndGet();
+            AtomicReferenceArray<Entry> current = entries;
+            if (id != null && id > 0 && id < current.length()) {
+                current.set(id.intValue(), null);
+            }
+        }
+    }
+
+    private void store(List<Author> authors, long startGeneration) {
+        if (!enabled || authors.isEmpty()) {
+            return;
+        }
+        long expiresAt = System.nanoTime() + ttl.toNanos();
+        synchronized (this) {
+            if (generation.get() != startGeneration) {
+                return;
+            }
+            for (Author author : authors) {
+                long id = author.id();
+                if (id <= 0 || id > maxId) {
+                    continue;
+                }
+                ensureCapacity((int) id);
+                entries.set((int) id, new Entry(author, expiresAt));
+            }
+        }
+    }
+
+    /**
+     * Agrandit le tableau (x2) pour contenir l'index donné ; appelé sous verrou
+     */
+    private void ensureCapacity(int index) {
+        AtomicReferenceArray<Entry> current = entries;
+        if (index < current.length()) {
+            return;
+        }
+        int length = current.length();
+        while (length <= index) {
+            length = (int) Math.min((long) length * 2, (long) maxId + 1);
+        }
+        AtomicReferenceArray<Entry> grown = new AtomicReferenceArray<>(length);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        entries = grown;
+    }
+}
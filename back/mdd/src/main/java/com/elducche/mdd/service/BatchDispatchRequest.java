@@ -0,0 +1,447 @@
+package com.elducche.mdd.service;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.MappingMatch;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sous-requête GET d'un lot, rejouée dans le DispatcherServlet
+ * 
+ * Seuls le contexte de servlet, l'utilisateur et la locale viennent de la requête
+ * groupée : méthode, chemin, paramètres, attributs et en-têtes de contenu sont propres
+ * à la sous-requête, sans corps ni en-tête conditionnel, et la réponse est toujours
+ * demandée en JSON. Le traitement asynchrone n'est pas supporté : la sous-requête
+ * se termine dans le thread du pool batch.
+ * 
+ * Tout ce qui est lu de la requête groupée est copié à la construction, dans le thread
+ * de la requête : une sous-requête expirée peut encore s'exécuter après la réponse du
+ * lot, quand le conteneur a recyclé la requête d'origine. Aucune session n'est créée
+ * (API sans état).
+ */
+final class BatchDispatchRequest extends HttpServletRequestWrapper {
+
+    private static final ServletInputStream EMPTY_BODY = new ServletInputStream() {
+        private final ByteArrayInputStream empty = new ByteArrayInputStream(new byte[0]);
+        
+        @Override
+        public int read() {
+            return empty.read();
+        }
+        
+        @Override
+        public boolean isFinished() {
+            return true;
+        }
+        
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+        
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new IllegalStateException("Sous-requête sans corps");
+        }
+    };
+    
+    private final String path;
+    private final String queryString;
+    private final String contextPath;
+    private final String scheme;
+    private final String serverName;
+    private final int serverPort;
+    private final boolean secure;
+    private final String protocol;
+    private final String remoteAddr;
+    private final String remoteHost;
+    private final int remotePort;
+    private final String localAddr;
+    private final String localName;
+    private final int localPort;
+    private final List<Locale> locales;
+    private final Principal principal;
+    private final String authType;
+    private final Cookie[] cookies;
+    private final ServletContext servletContext;
+    private final HttpServletMapping mapping;
+    private final Map<String, String[]> parameters;
+    private final Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    BatchDispatchRequest(HttpServletRequest batchRequest, UriComponents uri) {
+        super(batchRequest);
+        this.path = uri.getPath();
+        this.queryString = uri.getQuery();
+        this.contextPath = batchRequest.getContextPath();
+        this.scheme = batchRequest.getScheme();
+        this.serverName = batchRequest.getServerName();
+        this.serverPort = batchRequest.getServerPort();
+        this.secure = batchRequest.isSecure();
+        this.protocol = batchRequest.getProtocol();
+        this.remoteAddr = batchRequest.getRemoteAddr();
+        this.remoteHost = batchRequest.getRemoteHost();
+        this.remotePort = batchRequest.getRemotePort();
+        this.localAddr = batchRequest.getLocalAddr();
+        this.localName = batchRequest.getLocalName();
+        this.localPort = batchRequest.getLocalPort();
+        this.locales = Collections.list(batchRequest.getLocales());
+        this.principal = batchRequest.getUserPrincipal();
+        this.authType = batchRequest.getAuthType();
+        this.cookies = batchRequest.getCookies();
+        this.servletContext = batchRequest.getServletContext();
+        this.mapping = new SubRequestMapping(batchRequest.getHttpServletMapping().getServletName());
+        
+        MultiValueMap<String, String> query = uri.getQueryParams();
+        Map<String, String[]> params = new LinkedHashMap<>();
+        query.forEach((name, values) -> params.put(UriUtils.decode(name, StandardCharsets.UTF_8), values.stream()
+            .map(value -> value == null ? "" : UriUtils.decode(value, StandardCharsets.UTF_8))
+            .toArray(String[]::new)));
+        this.parameters = Collections.unmodifiableMap(params);
+        
+        for (String name : Collections.list(batchRequest.getHeaderNames())) {
+            headers.put(name, Collections.list(batchRequest.getHeaders(name)));
+        }
+        headers.remove(HttpHeaders.CONTENT_TYPE);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        headers.remove(HttpHeaders.IF_NONE_MATCH);
+        headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+        headers.put(HttpHeaders.ACCEPT, List.of(MediaType.APPLICATION_JSON_VALUE));
+    }
+
+    @Override
+    public String getMethod() {
+        return "GET";
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    @Override
+    public String getContextPath() {
+        return contextPath;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return contextPath + path;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer();
+        url.append(getScheme()).append("://").append(getServerName()).append(':').append(getServerPort());
+        return url.append(getRequestURI());
+    }
+
+    @Override
+    public String getServletPath() {
+        return UriUtils.decode(path, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public HttpServletMapping getHttpServletMapping() {
+        return mapping;
+    }
+
+    @Override
+    public String getScheme() {
+        return scheme;
+    }
+
+    @Override
+    public String getServerName() {
+        return serverName;
+    }
+
+    @Override
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    @Override
+    public boolean isSecure() {
+        return secure;
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocol;
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return remoteAddr;
+    }
+
+    @Override
+    public String getRemoteHost() {
+        return remoteHost;
+    }
+
+    @Override
+    public int getRemotePort() {
+        return remotePort;
+    }
+
+    @Override
+    public String getLocalAddr() {
+        return localAddr;
+    }
+
+    @Override
+    public String getLocalName() {
+        return localName;
+    }
+
+    @Override
+    public int getLocalPort() {
+        return localPort;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locales.isEmpty() ? Locale.getDefault() : locales.get(0);
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales() {
+        return Collections.enumeration(locales);
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public String getRemoteUser() {
+        return principal == null ? null : principal.getName();
+    }
+
+    @Override
+    public String getAuthType() {
+        return authType;
+    }
+
+    @Override
+    public boolean isUserInRole(String role) {
+        return principal instanceof Authentication authentication && authentication.getAuthorities().stream()
+            .anyMatch(authority -> authority.getAuthority().equals("ROLE_" + role));
+    }
+
+    @Override
+    public Cookie[] getCookies() {
+        return cookies;
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return servletContext;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return null;
+    }
+
+    @Override
+    public HttpSession getSession(boolean create) {
+        return null;
+    }
+
+    @Override
+    public String getRequestedSessionId() {
+        return null;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdValid() {
+        return false;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return null;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values == null || values.length == 0 ? null : values[0];
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return parameters;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters.get(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return Collections.enumeration(headers.getOrDefault(name, List.of()));
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(headers.keySet());
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        return -1;
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return value == null ? -1 : Integer.parseInt(value);
+    }
+
+    @Override
+    public String getContentType() {
+        return null;
+    }
+
+    @Override
+    public int getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return -1;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        return EMPTY_BODY;
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(EMPTY_BODY, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("Traitement asynchrone non supporté en requête groupée");
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+        throw new IllegalStateException("Traitement asynchrone non supporté en requête groupée");
+    }
+
+    /**
+     * Correspondance de servlet de la sous-requête (DispatcherServlet sur "/")
+     */
+    private record SubRequestMapping(String getServletName) implements HttpServletMapping {
+
+        @Override
+        public String getMatchValue() {
+            return "";
+        }
+
+        @Override
+        public String getPattern() {
+            return "/";
+        }
+
+        @Override
+        public MappingMatch getMappingMatch() {
+            return MappingMatch.DEFAULT;
+        }
+    }
+}
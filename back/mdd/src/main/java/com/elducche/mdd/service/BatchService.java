@@ -0,0 +1,231 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.config.TransactionDeadline;
+import com.elducche.mdd.dto.BatchRequest;
+import com.elducche.mdd.dto.BatchResponse;
+import com.elducche.mdd.security.AdaptiveConcurrencyLimiter;
+import com.elducche.mdd.security.RateLimiter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service d'exécution des requêtes groupées (POST /api/batch)
+ * 
+ * L'utilisateur est authentifié une seule fois pour tout le lot ; les sous-requêtes,
+ * des lectures GET indépendantes, s'exécutent en parallèle sur un pool borné. Chacune
+ * est rejouée dans le DispatcherServlet, avec le contexte de sécurité du lot : elle
+ * suit le même mapping, les mêmes paramètres et la même gestion d'erreurs que l'appel
+ * direct de l'endpoint, sans table de routes à maintenir ici.
+ * 
+ * Le DispatcherServlet étant appelé hors de la chaîne de filtres, les limites y sont
+ * appliquées ici, sous-requête par sous-requête : un jeton du seau de sa propre route
+ * (429 sinon) et une place dans la limite de concurrence (503 sinon). La liste complète
+ * des posts (GET /api/posts sans limit, servie en flux hors lot) est refusée.
+ * Le délai du lot borne aussi le travail de chaque sous-requête : ses transactions
+ * reçoivent le temps restant comme timeout ({@link TransactionDeadline}), une
+ * sous-requête en retard s'arrête donc d'elle-même et rend sa connexion.
+ */
+@Slf4j
+@Service
+public class BatchService {
+
+    private static final String API_PREFIX = "/api/";
+    private static final String BATCH_PATH = "/api/batch";
+    private static final String ALL_POSTS_PATH = "/api/posts";
+
+    private final DispatcherServlet dispatcherServlet;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor batchExecutor;
+    private final RateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    
+    @Value("${mdd.batch.timeout-ms:5000}")
+    private long timeoutMs;
+
+    public BatchService(DispatcherServlet dispatcherServlet,
+                        ObjectMapper objectMapper,
+                        @Qualifier("batchExecutor") ThreadPoolTaskExecutor batchExecutor,
+                        RateLimiter rateLimiter,
+                        AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.dispatcherServlet = dispatcherServlet;
+        this.objectMapper = objectMapper;
+        this.batchExecutor = batchExecutor;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Exécute toutes les sous-requêtes du lot pour l'utilisateur connecté
+     * 
+     * @param request Lot de sous-requêtes
+     * @param batchRequest Requête HTTP du lot (contexte de servlet, locale), lue uniquement dans ce thread
+     * @param batchResponse Réponse HTTP du lot, jamais utilisée par les sous-requêtes
+     * @return Une réponse par sous-requête, dans l'ordre du lot
+     */
+    public BatchResponse execute(BatchRequest request, HttpServletRequest batchRequest, HttpServletResponse batchResponse) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Executor executor = new DelegatingSecurityContextExecutor(batchExecutor, SecurityContextHolder.getContext());
+        String client = rateLimiter.clientKey(batchRequest.getRemoteAddr());
+        List<CompletableFuture<BatchResponse.SubResponse>> futures = new ArrayList<>();
+        
+        for (BatchRequest.SubRequest subRequest : request.getRequests()) {
+            Admission admission = admit(subRequest, client);
+            if (admission.rejection() != null) {
+                futures.add(CompletableFuture.completedFuture(admission.rejection()));
+                continue;
+            }
+            BatchDispatchRequest dispatchRequest = new BatchDispatchRequest(batchRequest, admission.uri());
+            BufferedDispatchResponse dispatchResponse = new BufferedDispatchResponse(batchResponse);
+            try {
+                futures.add(CompletableFuture.supplyAsync(
+                    () -> executeOne(subRequest, dispatchRequest, dispatchResponse, deadline), executor));
+            } catch (TaskRejectedException e) {
+                log.warn("Pool batch saturé, sous-requête {} rejetée", subRequest.getId());
+                futures.add(CompletableFuture.completedFuture(
+                    error(subRequest, HttpStatus.SERVICE_UNAVAILABLE, "Serveur surchargé")));
+            }
+        }
+        
+        List<BatchResponse.SubResponse> responses = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            BatchRequest.SubRequest subRequest = request.getRequests().get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                responses.add(futures.get(i).get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                log.warn("Sous-requête {} ({}) expirée", subRequest.getId(), subRequest.getPath());
+                // N'empêche que le démarrage d'une sous-requête encore en file ; une sous-requête
+                // en cours est arrêtée par le timeout de ses transactions
+                futures.get(i).cancel(false);
+                responses.add(error(subRequest, HttpStatus.GATEWAY_TIMEOUT, "Délai dépassé"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                responses.add(error(subRequest, HttpStatus.SERVICE_UNAVAILABLE, "Requête interrompue"));
+            } catch (Exception e) {
+                log.error("Erreur lors de la sous-requête {} : ", subRequest.getId(), e);
+                responses.add(error(subRequest, HttpStatus.INTERNAL_SERVER_ERROR, "Erreur interne du serveur"));
+            }
+        }
+        return new BatchResponse(responses);
+    }
+    
+    /**
+     * Sous-requête acceptée (uri) ou refusée (rejection)
+     */
+    private record Admission(UriComponents uri, BatchResponse.SubResponse rejection) {
+    }
+    
+    /**
+     * Valide le chemin de la sous-requête et consomme un jeton du seau de sa route
+     */
+    private Admission admit(BatchRequest.SubRequest subRequest, String client) {
+        if (subRequest.getMethod() != null && !"GET".equalsIgnoreCase(subRequest.getMethod())) {
+            return rejected(subRequest, HttpStatus.METHOD_NOT_ALLOWED, "Seules les lectures GET sont autorisées");
+        }
+        
+        UriComponents uri;
+        try {
+            uri = UriComponentsBuilder.fromUriString(subRequest.getPath()).build();
+        } catch (IllegalArgumentException e) {
+            return rejected(subRequest, HttpStatus.BAD_REQUEST, "Chemin invalide");
+        }
+        String path = uri.getPath();
+        if (path == null || !path.startsWith(API_PREFIX) || path.equals(BATCH_PATH) || path.startsWith(BATCH_PATH + "/")
+                || path.contains("..") || uri.getScheme() != null || uri.getHost() != null) {
+            return rejected(subRequest, HttpStatus.NOT_FOUND, "Chemin non supporté en requête groupée");
+        }
+        if (isAllPosts(path) && !uri.getQueryParams().containsKey("limit")) {
+            return rejected(subRequest, HttpStatus.BAD_REQUEST, "Paramètre limit obligatoire pour /api/posts en requête groupée");
+        }
+        
+        if (rateLimiter.isEnabled() && rateLimiter.tryConsume(HttpMethod.GET.name(), path, client) > 0) {
+            return rejected(subRequest, HttpStatus.TOO_MANY_REQUESTS, "Trop de requêtes, réessayez plus tard");
+        }
+        return new Admission(uri, null);
+    }
+    
+    private static boolean isAllPosts(String path) {
+        return path.equals(ALL_POSTS_PATH) || path.equals(ALL_POSTS_PATH + "/");
+    }
+    
+    /**
+     * Rejoue une sous-requête dans le DispatcherServlet et recopie son statut et son corps JSON
+     */
+    private BatchResponse.SubResponse executeOne(BatchRequest.SubRequest subRequest,
+                                                 BatchDispatchRequest request,
+                                                 BufferedDispatchResponse response,
+                                                 long deadline) {
+        if (deadline - System.nanoTime() <= 0) {
+            return error(subRequest, HttpStatus.GATEWAY_TIMEOUT, "Délai dépassé");
+        }
+        boolean limited = concurrencyLimiter.isEnabled();
+        if (limited && !concurrencyLimiter.tryAcquire()) {
+            return error(subRequest, HttpStatus.SERVICE_UNAVAILABLE, "Serveur surchargé, réessayez plus tard");
+        }
+        
+        try {
+            TransactionDeadline.callWithin(deadline, () -> {
+                dispatcherServlet.service(request, response);
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors de la sous-requête {} ({}) : ", subRequest.getId(), request.getServletPath(), e);
+            return error(subRequest, HttpStatus.INTERNAL_SERVER_ERROR, "Erreur interne du serveur");
+        } finally {
+            if (limited) {
+                concurrencyLimiter.release();
+            }
+        }
+        
+        return new BatchResponse.SubResponse(subRequest.getId(), response.getStatus(), toJson(response));
+    }
+    
+    /**
+     * Corps de la sous-réponse : JSON tel quel, sinon texte (message d'erreur), null si vide
+     */
+    private JsonNode toJson(BufferedDispatchResponse response) {
+        byte[] body = response.getBody();
+        if (body.length == 0) {
+            return response.getErrorMessage() != null 
+                ? objectMapper.getNodeFactory().textNode(response.getErrorMessage()) 
+                : null;
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return objectMapper.getNodeFactory().textNode(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+    
+    private Admission rejected(BatchRequest.SubRequest subRequest, HttpStatus status, String message) {
+        return new Admission(null, error(subRequest, status, message));
+    }
+    
+    private BatchResponse.SubResponse error(BatchRequest.SubRequest subRequest, HttpStatus status, String message) {
+        return new BatchResponse.SubResponse(subRequest.getId(), status.value(), objectMapper.getNodeFactory().textNode(message));
+    }
+}
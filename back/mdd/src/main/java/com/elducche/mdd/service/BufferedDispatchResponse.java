@@ -0,0 +1,258 @@
+package com.elducche.mdd.service;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Réponse d'une sous-requête de lot, entièrement en mémoire
+ * 
+ * Statut et corps sont capturés pour être recopiés dans la réponse groupée ; en-têtes,
+ * cookies et encodage de la sous-requête sont ignorés, rien n'atteint la réponse réelle.
+ * Aucune méthode ne délègue à la réponse du lot, qui peut être recyclée avant la fin
+ * d'une sous-requête expirée.
+ */
+final class BufferedDispatchResponse extends HttpServletResponseWrapper {
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final ServletOutputStream outputStream = new ServletOutputStream() {
+        @Override
+        public void write(int b) {
+            body.write(b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            body.write(b, off, len);
+        }
+        
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+        
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new IllegalStateException("Écriture non bloquante non supportée en requête groupée");
+        }
+    };
+    
+    private PrintWriter writer;
+    private Charset charset = StandardCharsets.UTF_8;
+    private String contentType;
+    private int status = SC_OK;
+    private String errorMessage;
+
+    BufferedDispatchResponse(HttpServletResponse batchResponse) {
+        super(batchResponse);
+    }
+
+    /** Corps écrit par le contrôleur */
+    byte[] getBody() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return body.toByteArray();
+    }
+
+    /** Message passé à sendError, s'il y en a eu un */
+    String getErrorMessage() {
+        return errorMessage;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, charset));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public void sendError(int status) {
+        sendError(status, null);
+    }
+
+    @Override
+    public void sendError(int status, String message) {
+        resetBuffer();
+        this.status = status;
+        this.errorMessage = message;
+    }
+
+    @Override
+    public void sendRedirect(String location) {
+        sendError(SC_NOT_FOUND, "Redirection non supportée en requête groupée");
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        if (charset != null && writer == null) {
+            this.charset = Charset.forName(charset);
+        }
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return charset.name();
+    }
+
+    @Override
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public void setContentLength(int length) {
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return false;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return null;
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        return List.of();
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return List.of();
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+    }
+
+    @Override
+    public void setLocale(Locale locale) {
+    }
+
+    @Override
+    public Locale getLocale() {
+        return Locale.getDefault();
+    }
+
+    @Override
+    public String encodeURL(String url) {
+        return url;
+    }
+
+    @Override
+    public String encodeRedirectURL(String url) {
+        return url;
+    }
+
+    @Override
+    public void setTrailerFields(Supplier<Map<String, String>> supplier) {
+    }
+
+    @Override
+    public Supplier<Map<String, String>> getTrailerFields() {
+        return null;
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+    }
+
+    @Override
+    public int getBufferSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void flushBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+        body.reset();
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+        status = SC_OK;
+        contentType = null;
+        errorMessage = null;
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return false;
+    }
+}
@@ -1,17 +1,30 @@
 package com.elducche.mdd.service;
 
 import com.elducche.mdd.dto.CommentCreateRequest;
+import com.elducche.mdd.dto.CommentDTO;
+import com.elducche.mdd.config.ReadYourWritesTracker;
 import com.elducche.mdd.entity.Comment;
 import com.elducche.mdd.entity.Post;
 import com.elducche.mdd.entity.User;
+import com.elducche.mdd.event.ContentWrittenEvent;
+import com.elducche.mdd.mapper.EntityMapper;
 import com.elducche.mdd.repository.CommentRepository;
 import com.elducche.mdd.repository.PostRepository;
 import com.elducche.mdd.repository.UserRepository;
+import com.elducche.mdd.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -28,18 +41,62 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final MeterRegistry meterRegistry;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityMapper entityMapper;
+    private final AuthorDirectory authorDirectory;
+    private final PlatformTransactionManager transactionManager;
+    
+    /**
+     * Lectures concurrentes des commentaires d'un même post fusionnées en une seule requête ;
+     * le résultat partagé est une liste non modifiable de DTO construite par le chargeur
+     */
+    private SingleFlight<Long, List<CommentDTO>> commentLoads;
+    private TransactionTemplate readOnlyTransaction;
+    
+    @PostConstruct
+    void initReadPaths() {
+        commentLoads = new SingleFlight<>("comments-by-post", meterRegistry);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
     
     /**
      * Récupère tous les commentaires d'un post avec leurs auteurs
+     * (bornés à la date de création du post pour ignorer les partitions antérieures)
+     * 
+     * Les lectures concurrentes du même post partagent une seule requête, sauf pour
+     * un utilisateur qui vient d'écrire (lecture de sa propre écriture). Les DTO sont
+     * construits dans la transaction du chargeur.
+     */
+    public List<CommentDTO> getCommentsByPost(Long postId) {
+        if (readYourWritesTracker.isCurrentUserSticky()) {
+            return loadCommentsByPost(postId);
+        }
+        return commentLoads.execute(postId, () -> loadCommentsByPost(postId));
+    }
+    
+    private List<CommentDTO> loadCommentsByPost(Long postId) {
+        return readOnlyTransaction.execute(status -> postRepository.findCreatedAtById(postId)
+                .map(since -> toCommentDTOs(commentRepository.findByPostIdWithPostSince(postId, since)))
+                .orElseGet(List::of));
+    }
+    
+    /**
+     * Convertit des commentaires en DTO ; leurs auteurs (non joints) sont résolus en une fois
+     * par l'annuaire, dans la transaction de l'appelant
      */
-    public List<Comment> getCommentsByPost(Long postId) {
-        return commentRepository.findByPostIdWithAuthor(postId);
+    private List<CommentDTO> toCommentDTOs(List<Comment> comments) {
+        return entityMapper.toCommentDTOs(comments, 
+            authorDirectory.resolve(comments.stream().map(comment -> comment.getAuthor().getId()).toList()));
     }
     
     /**
      * Alias pour getCommentsByPost (compatibilité avec les contrôleurs)
      */
-    public List<Comment> getCommentsByPostId(Long postId) {
+    public List<CommentDTO> getCommentsByPostId(Long postId) {
         return getCommentsByPost(postId);
     }
     
@@ -67,6 +124,7 @@ public class CommentService {
     /**
      * Crée un nouveau commentaire
      */
+    @Transactional
     public Optional<Comment> createComment(CommentCreateRequest request, Long authorId) {
         try {
             // Vérification de l'existence de l'auteur
@@ -77,7 +135,7 @@ public class CommentService {
             }
             
             // Vérification de l'existence du post
-            Optional<Post> postOpt = postRepository.findById(request.getPostId());
+            Optional<Post> postOpt = postRepository.findByIdInPartition(request.getPostId());
             if (postOpt.isEmpty()) {
                 log.warn("Tentative de création de commentaire avec post inexistant: {}", request.getPostId());
                 return Optional.empty();
@@ -91,11 +149,14 @@ public class CommentService {
             
             // Création du commentaire
             Comment comment = new Comment();
-            comment.setContent(request.getContent().trim());
+            setContent(comment, request.getContent().trim());
             comment.setAuthor(authorOpt.get());
             comment.setPost(postOpt.get());
             
             Comment savedComment = commentRepository.save(comment);
+            recordCommentEvent(savedComment, "comment.created");
+            eventPublisher.publishEvent(ContentWrittenEvent.comment(savedComment.getId()));
+            readYourWritesTracker.markCurrentUserWrite();
             log.info("Nouveau commentaire créé par l'utilisateur {} sur le post {}", authorId, request.getPostId());
             
             // Retourner le commentaire avec ses relations
@@ -104,6 +165,7 @@ public class CommentService {
         } catch (Exception e) {
             log.error("Erreur lors de la création du commentaire par l'utilisateur {} sur le post {}: {}", 
                      authorId, request.getPostId(), e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Optional.empty();
         }
     }
@@ -111,6 +173,7 @@ public class CommentService {
     /**
      * Met à jour un commentaire (seul l'auteur peut modifier)
      */
+    @Transactional
     public Optional<Comment> updateComment(Long commentId, String newContent, Long userId) {
         try {
             Optional<Comment> commentOpt = commentRepository.findByIdWithAuthorAndPost(commentId);
@@ -136,9 +199,12 @@ public class CommentService {
             }
             
             // Mise à jour du contenu
-            comment.setContent(newContent.trim());
+            setContent(comment, newContent.trim());
             
             Comment savedComment = commentRepository.save(comment);
+            recordCommentEvent(savedComment, "comment.updated");
+            eventPublisher.publishEvent(ContentWrittenEvent.comment(savedComment.getId()));
+            readYourWritesTracker.markCurrentUserWrite();
             log.info("Commentaire {} mis à jour par l'utilisateur {}", commentId, userId);
             
             return commentRepository.findByIdWithAuthorAndPost(savedComment.getId());
@@ -146,6 +212,7 @@ public class CommentService {
         } catch (Exception e) {
             log.error("Erreur lors de la mise à jour du commentaire {} par l'utilisateur {}: {}", 
                      commentId, userId, e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Optional.empty();
         }
     }
@@ -153,6 +220,7 @@ public class CommentService {
     /**
      * Supprime un commentaire (seul l'auteur peut supprimer)
      */
+    @Transactional
     public boolean deleteComment(Long commentId, Long userId) {
         try {
             Optional<Comment> commentOpt = commentRepository.findByIdWithAuthorAndPost(commentId);
@@ -172,6 +240,8 @@ public class CommentService {
             }
             
             commentRepository.delete(comment);
+            recordCommentEvent(comment, "comment.deleted");
+            readYourWritesTracker.markCurrentUserWrite();
             log.info("Commentaire {} supprimé par l'utilisateur {}", commentId, userId);
             
             return true;
@@ -179,19 +249,20 @@ public class CommentService {
         } catch (Exception e) {
             log.error("Erreur lors de la suppression du commentaire {} par l'utilisateur {}: {}", 
                      commentId, userId, e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return false;
         }
     }
     
     /**
      * Supprime tous les commentaires d'un post (utilisé lors de la suppression d'un post)
+     * en une seule requête DELETE, sans charger les entités
      */
     public void deleteCommentsByPost(Long postId) {
         try {
-            List<Comment> comments = commentRepository.findByPostId(postId);
-            if (!comments.isEmpty()) {
-                commentRepository.deleteAll(comments);
-                log.info("{} commentaire(s) supprimé(s) du post {}", comments.size(), postId);
+            int deleted = commentRepository.deleteAllByPostId(postId);
+            if (deleted > 0) {
+                log.info("{} commentaire(s) supprimé(s) du post {}", deleted, postId);
             }
         } catch (Exception e) {
             log.error("Erreur lors de la suppression des commentaires du post {}: {}", postId, e.getMessage());
@@ -202,7 +273,25 @@ public class CommentService {
      * Vérifie si un commentaire appartient à un utilisateur
      */
     public boolean isCommentOwner(Long commentId, Long userId) {
-        Optional<Comment> commentOpt = commentRepository.findById(commentId);
+        Optional<Comment> commentOpt = commentRepository.findByIdInPartition(commentId);
         return commentOpt.isPresent() && commentOpt.get().getAuthor().getId().equals(userId);
     }
+    
+    /**
+     * Écrit le contenu et sa longueur (lue par le flux d'activité) ;
+     * le HTML est effacé jusqu'au rendu en arrière-plan (ContentWrittenEvent)
+     */
+    private void setContent(Comment comment, String content) {
+        comment.setContent(content);
+        comment.setContentLength(content.codePointCount(0, content.length()));
+        comment.setContentHtml(null);
+        comment.setRenderVersion((short) 0);
+    }
+    
+    private void recordCommentEvent(Comment comment, String eventType) {
+        outboxService.record(OutboxService.COMMENT, comment.getId(), eventType, Map.of(
+            "commentId", comment.getId(),
+            "postId", comment.getPost().getId(),
+            "authorId", comment.getAuthor().getId()));
+    }
 }
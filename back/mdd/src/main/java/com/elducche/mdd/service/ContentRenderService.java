@@ -0,0 +1,202 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.event.ContentWrittenEvent;
+import com.elducche.mdd.event.PostChangedEvent;
+import com.elducche.mdd.repository.CommentRepository;
+import com.elducche.mdd.repository.PostRepository;
+import com.elducche.mdd.util.MarkdownRenderer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service de rendu Markdown -> HTML des posts et commentaires
+ *
+ * Le rendu est fait une seule fois par écriture, après commit, sur l'exécuteur dédié
+ * (renderExecutor) : le HTML est stocké à côté de la source (content_html) avec la
+ * version du moteur (render_version), et les lectures le servent tel quel.
+ *
+ * Le HTML n'est enregistré que si le contenu n'a pas changé depuis sa lecture : un
+ * rendu en retard ne peut pas écraser celui d'une modification plus récente.
+ *
+ * Un job par lots rend les lignes en version inférieure à MarkdownRenderer.VERSION
+ * (nouvelle version du moteur, rendus refusés ou interrompus) ; il est reprenable,
+ * l'avancement étant porté par render_version lui-même.
+ */
+@Slf4j
+@Service
+public class ContentRenderService {
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final ThreadPoolTaskExecutor renderExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${mdd.render.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * Un seul job de re-rendu à la fois (démarrage et planification)
+     */
+    private final AtomicBoolean rerendering = new AtomicBoolean();
+
+    /**
+     * Source Markdown d'un post ou d'un commentaire
+     */
+    private record Source(Long id, LocalDateTime createdAt, String content) {
+    }
+
+    public ContentRenderService(PostRepository postRepository,
+                                CommentRepository commentRepository,
+                                @Qualifier("renderExecutor") ThreadPoolTaskExecutor renderExecutor,
+                                PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher,
+                                OutboxService outboxService,
+                                MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.renderExecutor = renderExecutor;
+        // Lecture et écriture sur le primaire : la source doit être celle qui vient d'être écrite
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.outboxService = outboxService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Rendu en arrière-plan du contenu qui vient d'être écrit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentWritten(ContentWrittenEvent event) {
+        try {
+            renderExecutor.execute(() -> render(event.kind(), event.id()));
+        } catch (TaskRejectedException e) {
+            // Rattrapé par le job de re-rendu (render_version reste à 0)
+            log.warn("Rendu différé au prochain re-rendu ({} {}): file d'attente pleine", event.kind(), event.id());
+        }
+    }
+
+    private void render(ContentWrittenEvent.Kind kind, Long id) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                findSource(kind, id).ifPresent(source -> renderAndStore(kind, source)));
+        } catch (Exception e) {
+            log.error("Erreur lors du rendu du contenu ({} {}): {}", kind, id, e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rerenderOnStartup() {
+        try {
+            renderExecutor.execute(this::rerenderOutdated);
+        } catch (TaskRejectedException e) {
+            log.warn("Re-rendu au démarrage non planifié: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-rendu par lots (une transaction par lot) des contenus absents ou rendus par une version antérieure
+     */
+    @Scheduled(cron = "${mdd.render.rerender-cron:0 0 4 * * *}")
+    public void rerenderOutdated() {
+        if (!rerendering.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int posts = rerender(ContentWrittenEvent.Kind.POST);
+            int comments = rerender(ContentWrittenEvent.Kind.COMMENT);
+            if (posts + comments > 0) {
+                log.info("Re-rendu (version {}) : {} post(s), {} commentaire(s)", MarkdownRenderer.VERSION, posts, comments);
+            }
+        } finally {
+            rerendering.set(false);
+        }
+    }
+
+    private int rerender(ContentWrittenEvent.Kind kind) {
+        int total = 0;
+        long lastId = 0;
+        try {
+            while (true) {
+                long afterId = lastId;
+                List<Source> batch = transactionTemplate.execute(status -> {
+                    List<Source> sources = findOutdated(kind, afterId);
+                    sources.forEach(source -> renderAndStore(kind, source));
+                    return sources;
+                });
+                if (batch == null || batch.isEmpty()) {
+                    return total;
+                }
+                total += batch.size();
+                lastId = batch.get(batch.size() - 1).id();
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors du re-rendu ({}, après l'ID {}): {}", kind, lastId, e.getMessage());
+            return total;
+        }
+    }
+
+    private void renderAndStore(ContentWrittenEvent.Kind kind, Source source) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String html = MarkdownRenderer.render(source.content());
+        sample.stop(meterRegistry.timer("mdd.content.render", "kind", kind.name().toLowerCase(Locale.ROOT)));
+
+        boolean stored = switch (kind) {
+            case POST -> postRepository.updateRenderedContent(
+                source.id(), source.createdAt(), source.content(), html, MarkdownRenderer.VERSION) > 0;
+            case COMMENT -> commentRepository.updateRenderedContent(
+                source.id(), source.createdAt(), source.content(), html, MarkdownRenderer.VERSION) > 0;
+        };
+
+        // Le near-cache des posts contient le DTO sans HTML : invalidé après commit, puis via l'outbox
+        if (stored && kind == ContentWrittenEvent.Kind.POST) {
+            eventPublisher.publishEvent(new PostChangedEvent(source.id()));
+            outboxService.record(OutboxService.POST, source.id(), "post.rendered", Map.of("postId", source.id()));
+        }
+    }
+
+    private Optional<Source> findSource(ContentWrittenEvent.Kind kind, Long id) {
+        Optional<Source> found = switch (kind) {
+            case POST -> postRepository.findRenderSourceById(id)
+                .map(source -> new Source(source.getId(), source.getCreatedAt(), source.getContent()));
+            case COMMENT -> commentRepository.findRenderSourceById(id)
+                .map(source -> new Source(source.getId(), source.getCreatedAt(), source.getContent()));
+        };
+        return found.filter(source -> source.content() != null);
+    }
+
+    private List<Source> findOutdated(ContentWrittenEvent.Kind kind, long afterId) {
+        PageRequest page = PageRequest.of(0, batchSize);
+        return switch (kind) {
+            case POST -> postRepository.findOutdatedRenderSources(MarkdownRenderer.VERSION, afterId, page).stream()
+                .map(source -> new Source(source.getId(), source.getCreatedAt(), source.getContent()))
+                .toList();
+            case COMMENT -> commentRepository.findOutdatedRenderSources(MarkdownRenderer.VERSION, afterId, page).stream()
+                .map(source -> new Source(source.getId(), source.getCreatedAt(), source.getContent()))
+                .toList();
+        };
+    }
+}
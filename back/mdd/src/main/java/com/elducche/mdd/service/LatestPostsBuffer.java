@@ -0,0 +1,324 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.event.CachesResetEvent;
+import com.elducche.mdd.event.PostChangedEvent;
+import com.elducche.mdd.event.ThemeChangedEvent;
+import com.elducche.mdd.event.UserChangedEvent;
+import com.elducche.mdd.repository.PostRepository;
+import com.elducche.mdd.repository.PostRepository.PostSummary;
+import com.elducche.mdd.util.KeysetCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Tampon mémoire des N posts les plus récents (fil global)
+ *
+ * Sert les premières pages du fil global sans requête : la lecture est sans verrou
+ * (un tableau immuable, trié dans l'ordre (created_at DESC, id DESC), publié par
+ * une écriture volatile), les pages au-delà du tampon sont lues en base par curseur.
+ *
+ * Alimenté après commit par PostChangedEvent (création, modification, rendu,
+ * suppression ; locale ou reçue des autres instances) : l'aperçu du post est relu
+ * sur le primaire puis inséré, remplacé ou retiré dans une copie du tableau. Les
+ * écritures s'exécutent sur un thread dédié, sans verrou : l'écouteur ne fait que
+ * les planifier, sans bloquer le thread qui a validé la transaction ni lui faire
+ * ouvrir une seconde connexion. Le plus ancien post sort du tampon quand il est plein.
+ * Rechargé entièrement au démarrage, après une réinitialisation des caches et
+ * quand un thème change (titre et description sont copiés dans les aperçus), et
+ * périodiquement.
+ */
+@Slf4j
+@Service
+public class LatestPostsBuffer {
+
+    private static final Comparator<PostSummary> NEWEST_FIRST = Comparator
+        .comparing(PostSummary::getCreatedAt, Comparator.reverseOrder())
+        .thenComparing(PostSummary::getId, Comparator.reverseOrder());
+
+    private final PostRepository postRepository;
+    private final TransactionTemplate primaryTransaction;
+    private final Counter memoryPages;
+    private final Counter databasePages;
+
+    @Value("${mdd.latest-posts.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mdd.latest-posts.capacity:500}")
+    private int capacity;
+
+    /**
+     * Contenu publié du tampon (null tant qu'il n'est pas chargé)
+     *
+     * @param posts Aperçus du plus récent au plus ancien
+     * @param complete true si le tampon contient tous les posts existants (aucun post plus ancien en base)
+     */
+    private record Snapshot(Entry[] posts, boolean complete) {
+    }
+
+    /**
+     * Aperçu immuable conservé en mémoire (copie de la projection)
+     */
+    @Getter
+    @RequiredArgsConstructor
+    static final class Entry implements PostSummary {
+        private final Long id;
+        private final String title;
+        private final String excerpt;
+        private final int contentLength;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime updatedAt;
+        private final Long authorId;
+        private final Long themeId;
+        private final String themeTitle;
+        private final String themeDescription;
+
+        static Entry of(PostSummary post) {
+            return new Entry(post.getId(), post.getTitle(), post.getExcerpt(), post.getContentLength(),
+                             post.getCreatedAt(), post.getUpdatedAt(), post.getAuthorId(),
+                             post.getThemeId(), post.getThemeTitle(), post.getThemeDescription());
+        }
+    }
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Seul thread qui écrit le tampon (mises à jour et rechargements, dans l'ordre de planification)
+     */
+    private final ExecutorService updateExecutor;
+
+    public LatestPostsBuffer(PostRepository postRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        // Lecture sur le primaire : la réplique pourrait ignorer le post qui vient d'être écrit
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.memoryPages = Counter.builder("mdd.latest.posts.pages")
+            .tag("source", "memory")
+            .description("Pages du fil global servies par le tampon des derniers posts")
+            .register(meterRegistry);
+        this.databasePages = Counter.builder("mdd.latest.posts.pages")
+            .tag("source", "database")
+            .description("Pages du fil global lues en base (tampon non chargé ou dépassé)")
+            .register(meterRegistry);
+        Gauge.builder("mdd.latest.posts.size", this, buffer -> {
+            Snapshot current = buffer.snapshot;
+            return current == null ? 0 : current.posts().length;
+        }).register(meterRegistry);
+        this.updateExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "latest-posts-buffer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Page du fil global depuis le tampon
+     *
+     * @param after Curseur de la page précédente (null pour la première page)
+     * @param limit Nombre de posts
+     * @return La page, ou vide si le tampon ne la contient pas entièrement (lecture en base)
+     */
+    public Optional<List<PostSummary>> page(KeysetCursor after, int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            databasePages.increment();
+            return Optional.empty();
+        }
+
+        Entry[] posts = current.posts();
+        int start = after == null ? 0 : firstAfter(posts, after);
+        int end = start + limit;
+        if (end > posts.length && !current.complete()) {
+            databasePages.increment();
+            return Optional.empty();
+        }
+        memoryPages.increment();
+        return Optional.of(List.of(Arrays.copyOfRange(posts, start, Math.min(end, posts.length))));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Rechargement périodique (filet de sécurité : événements manqués, échec d'une mise à jour)
+     */
+    @Scheduled(cron = "${mdd.latest-posts.reload-cron:0 */10 * * * *}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    @EventListener
+    public void onCachesReset(CachesResetEvent event) {
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onThemeChanged(ThemeChangedEvent event) {
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (enabled) {
+            schedule(() -> apply(event.postId()));
+        }
+    }
+
+    /**
+     * Un compte supprimé emporte ses posts, supprimés par lots sans PostChangedEvent ;
+     * suppression et modification de profil étant indiscernables ici, le tampon est
+     * rechargé s'il contient des posts de cet utilisateur
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current != null && Arrays.stream(current.posts()).anyMatch(post -> event.userId().equals(post.getAuthorId()))) {
+            reload();
+        }
+    }
+
+    /**
+     * Planifie un rechargement complet du tampon
+     */
+    public void reload() {
+        if (enabled) {
+            schedule(this::load);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        updateExecutor.shutdownNow();
+    }
+
+    private void schedule(Runnable update) {
+        try {
+            updateExecutor.execute(update);
+        } catch (RejectedExecutionException e) {
+            log.debug("Mise à jour du tampon des derniers posts ignorée (arrêt en cours)");
+        }
+    }
+
+    /**
+     * Applique la modification d'un post (thread de mise à jour uniquement)
+     */
+    void apply(Long postId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        try {
+            Optional<Entry> post = primaryTransaction.execute(status ->
+                postRepository.findSummaryById(postId).map(Entry::of));
+            snapshot = post == null || post.isEmpty()
+                ? without(current, postId)
+                : with(current, post.get());
+        } catch (Exception e) {
+            // Le tampon pourrait être incohérent : lectures en base jusqu'au prochain rechargement
+            log.error("Erreur lors de la mise à jour du tampon des derniers posts (post {}): {}",
+                      postId, e.getMessage());
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Recharge entièrement le tampon (thread de mise à jour uniquement)
+     */
+    void load() {
+        try {
+            long start = System.nanoTime();
+            List<Entry> latest = primaryTransaction.execute(status ->
+                postRepository.findFirstSummaries(PageRequest.of(0, capacity)).stream()
+                    .map(Entry::of)
+                    .toList());
+            Entry[] posts = latest.toArray(Entry[]::new);
+            snapshot = new Snapshot(posts, posts.length < capacity);
+            log.debug("Tampon des derniers posts chargé : {} post(s) en {} ms",
+                     posts.length, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Erreur lors du chargement du tampon des derniers posts: {}", e.getMessage());
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Index du premier post situé après le curseur (recherche dichotomique)
+     */
+    private static int firstAfter(Entry[] posts, KeysetCursor cursor) {
+        int low = 0;
+        int high = posts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cursor.precedes(posts[mid].getCreatedAt(), posts[mid].getId())) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copie avec le post inséré ou remplacé à sa place ; un post plus ancien que tout
+     * le tampon n'est ajouté que si le tampon est complet
+     */
+    private Snapshot with(Snapshot current, Entry post) {
+        List<Entry> posts = new ArrayList<>(current.posts().length + 1);
+        for (Entry existing : current.posts()) {
+            if (!existing.getId().equals(post.getId())) {
+                posts.add(existing);
+            }
+        }
+
+        int index = 0;
+        while (index < posts.size() && NEWEST_FIRST.compare(posts.get(index), post) < 0) {
+            index++;
+        }
+        if (index == posts.size() && !current.complete()) {
+            return new Snapshot(posts.toArray(Entry[]::new), false);
+        }
+        posts.add(index, post);
+
+        boolean complete = current.complete();
+        if (posts.size() > capacity) {
+            posts.remove(posts.size() - 1);
+            complete = false;
+        }
+        return new Snapshot(posts.toArray(Entry[]::new), complete);
+    }
+
+    private static Snapshot without(Snapshot current, Long postId) {
+        Entry[] posts = Arrays.stream(current.posts())
+            .filter(post -> !post.getId().equals(postId))
+            .toArray(Entry[]::new);
+        return posts.length == current.posts().length ? current : new Snapshot(posts, current.complete());
+    }
+}
@@ -0,0 +1,221 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.entity.OutboxEvent;
+import com.elducche.mdd.event.OutboxConsumer;
+import com.elducche.mdd.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Relais de l'outbox vers les consommateurs internes
+ * 
+ * Lit périodiquement les événements livrables par lots, dans l'ordre des IDs,
+ * et transmet chacun à chaque {@link OutboxConsumer} dans sa propre transaction,
+ * validée avec la publication de l'événement : un consommateur qui échoue (ou
+ * marque sa transaction rollback-only) n'annule que cet événement. Un verrou
+ * consultatif PostgreSQL garantit qu'une seule instance relaie à la fois.
+ * 
+ * Un événement en échec est retenté après un délai exponentiel (borné), et les
+ * événements suivants du même agrégat sont retenus jusque-là, ce qui préserve
+ * l'ordre par agrégat (livraison au moins une fois). Aucun événement n'est abandonné.
+ */
+@Slf4j
+@Service
+public class OutboxRelayService {
+    
+    /**
+     * Clé du verrou consultatif du relais
+     */
+    private static final long RELAY_LOCK_KEY = 0x6D64646F7574626FL;
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxConsumer> consumers;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${mdd.outbox.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${mdd.outbox.retry-initial-delay:1s}")
+    private Duration retryInitialDelay;
+    
+    @Value("${mdd.outbox.retry-max-delay:10m}")
+    private Duration retryMaxDelay;
+    
+    @Value("${mdd.outbox.retention-hours:24}")
+    private int retentionHours;
+    
+    /**
+     * Résultat d'un lot : événements lus et échecs de livraison
+     */
+    private record BatchResult(int read, int failed) {
+        static final BatchResult EMPTY = new BatchResult(0, 0);
+    }
+    
+    public OutboxRelayService(OutboxEventRepository outboxEventRepository,
+                              List<OutboxConsumer> consumers,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.consumers = consumers;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    /**
+     * Relais périodique : enchaîne les lots tant qu'ils sont complets et sans échec ;
+     * après un échec, le lot suivant attend le prochain passage
+     */
+    @Scheduled(fixedDelayString = "${mdd.outbox.poll-interval-ms:1000}")
+    public void relayPendingEvents() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                if (!tryLock(connection)) {
+                    return null;
+                }
+                try {
+                    BatchResult result;
+                    while ((result = relayBatch()).read() >= batchSize && result.failed() == 0) {
+                        log.debug("Lot de {} événement(s) relayé(s), lot suivant", result.read());
+                    }
+                } finally {
+                    unlock(connection);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Erreur lors du relais de l'outbox: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Verrou consultatif de session, tenu par la connexion du relais pendant tous ses lots
+     * (les livraisons utilisent leurs propres connexions)
+     */
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, RELAY_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+    
+    private static void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, RELAY_LOCK_KEY);
+            statement.execute();
+        }
+    }
+    
+    /**
+     * Relaie un lot, un événement par transaction
+     */
+    private BatchResult relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findPending(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return BatchResult.EMPTY;
+        }
+        
+        int failed = 0;
+        Set<String> blockedAggregates = new HashSet<>();
+        for (OutboxEvent event : events) {
+            String aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+            if (blockedAggregates.contains(aggregate)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    deliver(event);
+                    outboxEventRepository.markPublished(event.getId(), LocalDateTime.now());
+                });
+            } catch (Exception e) {
+                failed++;
+                blockedAggregates.add(aggregate);
+                recordFailure(event, e);
+            }
+        }
+        return new BatchResult(events.size(), failed);
+    }
+    
+    private void deliver(OutboxEvent event) {
+        for (OutboxConsumer consumer : consumers) {
+            if (consumer.supports(event.getAggregateType())) {
+                consumer.consume(event);
+            }
+        }
+    }
+    
+    /**
+     * Enregistre l'échec dans une transaction séparée et planifie la prochaine tentative
+     */
+    private void recordFailure(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        Duration delay = retryDelay(attempts);
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markFailed(
+                event.getId(), attempts, truncate(e.getMessage()), LocalDateTime.now().plus(delay)));
+        } catch (Exception recordError) {
+            log.error("Impossible d'enregistrer l'échec de l'événement {}: {}", event.getId(), recordError.getMessage());
+        }
+        if (delay.equals(retryMaxDelay)) {
+            log.error("Échec de livraison de l'événement {} ({}), tentative {}, nouvel essai dans {}: {}", 
+                    event.getId(), event.getEventType(), attempts, delay, e.getMessage());
+        } else {
+            log.warn("Échec de livraison de l'événement {} ({}), tentative {}, nouvel essai dans {}: {}", 
+                    event.getId(), event.getEventType(), attempts, delay, e.getMessage());
+        }
+    }
+    
+    /**
+     * Délai avant la tentative suivante : doublé à chaque échec, borné par retry-max-delay
+     */
+    Duration retryDelay(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        Duration delay = retryInitialDelay.multipliedBy(1L << doublings);
+        return delay.compareTo(retryMaxDelay) > 0 ? retryMaxDelay : delay;
+    }
+    
+    /**
+     * Purge des événements publiés au-delà de la rétention
+     */
+    @Scheduled(cron = "${mdd.outbox.purge-cron:0 15 * * * *}")
+    public void purgePublishedEvents() {
+        try {
+            int purged = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours));
+            if (purged > 0) {
+                log.info("{} événement(s) publié(s) purgé(s) de l'outbox", purged);
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de la purge de l'outbox: {}", e.getMessage());
+        }
+    }
+    
+    private static String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
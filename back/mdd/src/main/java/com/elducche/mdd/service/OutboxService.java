@@ -0,0 +1,52 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.entity.OutboxEvent;
+import com.elducche.mdd.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+
+/**
+ * Service d'écriture dans l'outbox
+ * 
+ * Enregistre un événement métier dans la transaction de la modification qu'il
+ * décrit : l'événement n'existe que si la modification est validée, et ne peut
+ * pas être perdu si elle l'est.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    
+    public static final String POST = "post";
+    public static final String COMMENT = "comment";
+    public static final String SUBSCRIPTION = "subscription";
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * Enregistre un événement (exige une transaction en cours)
+     * 
+     * @param aggregateType Type d'agrégat (post, comment, subscription)
+     * @param aggregateId ID de l'agrégat, qui définit l'ordre de livraison
+     * @param eventType Type d'événement (ex : post.created)
+     * @param payload Données de l'événement, sérialisées en JSON
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(String aggregateType, Long aggregateId, String eventType, Map<String, Object> payload) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(
+                aggregateType, aggregateId, eventType, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible de sérialiser l'événement " + eventType, e);
+        }
+        log.debug("Événement {} enregistré pour {} {}", eventType, aggregateType, aggregateId);
+    }
+}
@@ -0,0 +1,56 @@
+package com.elducche.mdd.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Service de maintenance des partitions mensuelles
+ * 
+ * Les tables posts et comments sont partitionnées par mois sur created_at
+ * (migration V3). Ce service crée à l'avance les partitions des mois à venir.
+ * Les partitions anciennes restent attachées (V11) : seul le contenu des posts
+ * anciens est archivé, compressé, par PostArchiveService.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PartitionMaintenanceService {
+    
+    private static final List<String> PARTITIONED_TABLES = List.of("posts", "comments");
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Value("${mdd.partitions.months-ahead:3}")
+    private int monthsAhead;
+    
+    /**
+     * Garantit la présence des partitions dès le démarrage de l'application
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+    
+    /**
+     * Maintenance quotidienne des partitions
+     */
+    @Scheduled(cron = "${mdd.partitions.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                jdbcTemplate.queryForObject("SELECT mdd_ensure_partitions(?, ?)", Integer.class, table, monthsAhead);
+                log.debug("Partitions de {} assurées jusqu'à {} mois", table, monthsAhead);
+            } catch (Exception e) {
+                log.error("Erreur lors de la maintenance des partitions de {}: {}", table, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.entity.ArchivedPostContent;
+import com.elducche.mdd.entity.Post;
+import com.elducche.mdd.repository.ArchivedPostContentRepository;
+import com.elducche.mdd.repository.PostRepository;
+import com.elducche.mdd.util.ContentCompressor;
+import com.elducche.mdd.util.ExcerptGenerator;
+import com.elducche.mdd.util.MarkdownRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Service d'archivage du contenu des posts anciens
+ * 
+ * Déplace périodiquement le corps des posts plus anciens que le seuil configuré
+ * vers post_content_archive (gzip), afin que la table posts et son TOAST
+ * restent proportionnels aux seuls posts récents. La lecture reste transparente
+ * via {@link #restoreContent(Post)}.
+ * 
+ * L'extrait et la longueur du contenu restent sur la ligne de posts : les listes
+ * n'ont jamais besoin de l'archive. Les posts archivés avant l'ajout des extraits
+ * (migration V6) sont complétés au démarrage par {@link #backfillArchivedExcerpts()}.
+ * 
+ * Le HTML pré-rendu est archivé, compressé, avec le corps : la lecture d'un post
+ * archivé ne rend pas le Markdown. Les archives sans HTML (archivées avant V13 ou
+ * avant leur rendu) ou d'une version de rendu antérieure sont rendues une fois,
+ * par lots, par {@link #renderArchivedHtml()}.
+ */
+@Slf4j
+@Service
+public class PostArchiveService {
+    
+    private final PostRepository postRepository;
+    private final ArchivedPostContentRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${mdd.archive.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${mdd.archive.older-than-days:365}")
+    private int olderThanDays;
+    
+    @Value("${mdd.archive.batch-size:200}")
+    private int batchSize;
+    
+    public PostArchiveService(PostRepository postRepository,
+                              ArchivedPostContentRepository archiveRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Archivage périodique, par lots (une transaction par lot)
+     */
+    @Scheduled(cron = "${mdd.archive.cron:0 30 3 * * *}")
+    public void archiveColdPosts() {
+        if (!enabled) {
+            return;
+        }
+        
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(olderThanDays);
+        int total = 0;
+        try {
+            Integer archived;
+            while ((archived = transactionTemplate.execute(status -> archiveBatch(cutoff))) != null && archived > 0) {
+                total += archived;
+            }
+            if (total > 0) {
+                log.info("{} post(s) antérieur(s) au {} archivé(s)", total, cutoff.toLocalDate());
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors de l'archivage des posts (après {} post(s) archivé(s)): {}", total, e.getMessage());
+        }
+        // Posts archivés avant la fin de leur rendu
+        renderArchivedHtml();
+    }
+    
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Post> posts = postRepository.findArchivableBefore(cutoff, PageRequest.of(0, batchSize));
+        if (posts.isEmpty()) {
+            return 0;
+        }
+        
+        List<ArchivedPostContent> archives = posts.stream()
+            .map(post -> new ArchivedPostContent(
+                post.getId(), 
+                ContentCompressor.compress(post.getContent()), 
+                post.getContent().codePointCount(0, post.getContent().length()),
+                post.getContentHtml() == null ? null : ContentCompressor.compress(post.getContentHtml()),
+                post.getContentHtml() == null ? 0 : post.getRenderVersion()))
+            .toList();
+        archiveRepository.saveAll(archives);
+        
+        return postRepository.markContentArchived(posts.stream().map(Post::getId).toList(), cutoff);
+    }
+    
+    /**
+     * Calcule l'extrait des posts archivés qui n'en ont pas, par lots (une transaction par lot)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillArchivedExcerpts() {
+        int total = 0;
+        try {
+            Integer filled;
+            while ((filled = transactionTemplate.execute(status -> backfillExcerptBatch())) != null && filled > 0) {
+                total += filled;
+            }
+            if (total > 0) {
+                log.info("Extrait calculé pour {} post(s) archivé(s)", total);
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors du calcul des extraits des posts archivés (après {} post(s)): {}", total, e.getMessage());
+        }
+    }
+    
+    private int backfillExcerptBatch() {
+        List<Long> ids = postRepository.findArchivedIdsWithoutExcerpt(PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        
+        Set<Long> missing = new HashSet<>(ids);
+        for (ArchivedPostContent archive : archiveRepository.findAllById(ids)) {
+            String content = ContentCompressor.decompress(archive.getContentGz());
+            postRepository.updateExcerpt(archive.getPostId(), ExcerptGenerator.excerpt(content));
+            missing.remove(archive.getPostId());
+        }
+        // Sans archive, l'extrait reste vide (chaîne vide) pour ne pas être recherché à nouveau
+        for (Long id : missing) {
+            log.warn("Contenu archivé introuvable pour le post {}", id);
+            postRepository.updateExcerpt(id, "");
+        }
+        return ids.size();
+    }
+    
+    /**
+     * Rend le HTML des archives qui n'en ont pas ou dont le rendu est d'une version antérieure,
+     * par lots (une transaction par lot)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void renderArchivedHtml() {
+        int total = 0;
+        long afterId = 0;
+        try {
+            List<Long> rendered;
+            while (!(rendered = renderHtmlBatch(afterId)).isEmpty()) {
+                total += rendered.size();
+                afterId = rendered.get(rendered.size() - 1);
+            }
+            if (total > 0) {
+                log.info("HTML rendu pour {} post(s) archivé(s) (version {})", total, MarkdownRenderer.VERSION);
+            }
+        } catch (Exception e) {
+            log.error("Erreur lors du rendu des posts archivés (après {} post(s)): {}", total, e.getMessage());
+        }
+    }
+    
+    private List<Long> renderHtmlBatch(long afterId) {
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<ArchivedPostContent> archives = archiveRepository.findOutdatedRenders(
+                MarkdownRenderer.VERSION, afterId, PageRequest.of(0, batchSize));
+            for (ArchivedPostContent archive : archives) {
+                String html = MarkdownRenderer.render(ContentCompressor.decompress(archive.getContentGz()));
+                archiveRepository.updateRenderedHtml(archive.getPostId(), ContentCompressor.compress(html), MarkdownRenderer.VERSION);
+            }
+            return archives.stream().map(ArchivedPostContent::getPostId).toList();
+        });
+        return ids == null ? List.of() : ids;
+    }
+    
+    /**
+     * Recharge le contenu d'un post archivé dans l'entité (sans le réécrire en base)
+     */
+    public Optional<Post> restoreContent(Optional<Post> post) {
+        post.ifPresent(this::restoreContent);
+        return post;
+    }
+    
+    /**
+     * Recharge le contenu d'un post archivé, et son HTML, dans l'entité (sans les réécrire en base)
+     */
+    public void restoreContent(Post post) {
+        if (post.isContentArchived() && post.getContent() == null) {
+            archiveRepository.findById(post.getId())
+                .ifPresentOrElse(
+                    archive -> {
+                        post.setContent(ContentCompressor.decompress(archive.getContentGz()));
+                        // HTML archivé avec le contenu ; null tant que l'archive n'est pas rendue
+                        post.setContentHtml(archive.getContentHtmlGz() == null
+                            ? null : ContentCompressor.decompress(archive.getContentHtmlGz()));
+                    },
+                    () -> log.warn("Contenu archivé introuvable pour le post {}", post.getId()));
+        }
+    }
+    
+    /**
+     * Supprime l'archive d'un post dont le contenu vient d'être réécrit
+     */
+    public void discardArchive(Long postId) {
+        if (archiveRepository.existsById(postId)) {
+            archiveRepository.deleteById(postId);
+        }
+    }
+}
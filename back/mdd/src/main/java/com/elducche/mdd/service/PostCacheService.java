@@ -0,0 +1,174 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.dto.PostDTO;
+import com.elducche.mdd.event.CachesResetEvent;
+import com.elducche.mdd.event.PostChangedEvent;
+import com.elducche.mdd.event.ThemeChangedEvent;
+import com.elducche.mdd.event.UserChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * Near-cache des posts consultés individuellement
+ * 
+ * Conserve, par ID de post, le PostDTO et sa sérialisation JSON : une lecture
+ * en cache se réduit à une recherche dans une table de hachage et à la copie
+ * des octets dans la réponse. Le cache est borné en taille (pondérée par la
+ * longueur du contenu) et invalidé après commit par les événements de
+ * modification de post, d'auteur ou de thème, locaux ou reçus des autres
+ * instances via le bus d'invalidation (et, pour les posts, de nouveau par
+ * le relais de l'outbox).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PostCacheService {
+
+    private final PostService postService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${mdd.post-cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${mdd.post-cache.max-weight-bytes:33554432}")
+    private long maxWeightBytes;
+    
+    @Value("${mdd.post-cache.expire-after-write:10m}")
+    private Duration expireAfterWrite;
+    
+    private Cache<Long, CachedPost> cache;
+    
+    private static final int VERSION_STRIPES = 1024;
+    
+    /**
+     * Version par ID de post (répartie sur un nombre fixe de compteurs), incrémentée à chaque
+     * invalidation du post : un chargement commencé avant n'est pas mis en cache, pour ne pas
+     * réintroduire une version périmée, sans écarter les chargements des autres posts
+     */
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    
+    /**
+     * Incrémenté par les évictions groupées (auteur, thème, remise à zéro)
+     */
+    private final AtomicLong epoch = new AtomicLong();
+    
+    /**
+     * Entrée du cache : DTO et JSON correspondant
+     */
+    public record CachedPost(PostDTO dto, byte[] json) {
+    }
+    
+    @PostConstruct
+    void initCache() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long id, CachedPost entry) -> weigh(entry))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "posts");
+    }
+    
+    /**
+     * Récupère le post (DTO + JSON) depuis le cache, ou le charge et le met en cache
+     */
+    public Optional<CachedPost> getPost(Long id) {
+        if (enabled) {
+            CachedPost cached = cache.getIfPresent(id);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        
+        int stripe = stripeOf(id);
+        long loadVersion = versions.get(stripe);
+        long loadEpoch = epoch.get();
+        Optional<CachedPost> loaded = postService.getPostById(id)
+                .map(dto -> new CachedPost(dto, serialize(dto)));
+        
+        if (enabled && loaded.isPresent()) {
+            CachedPost entry = loaded.get();
+            // Vérification et écriture atomiques pour cet ID : l'invalidation du même ID
+            // (version incrémentée puis entrée retirée) attend la fin de compute
+            cache.asMap().compute(id, (key, current) -> 
+                versions.get(stripe) == loadVersion && epoch.get() == loadEpoch ? entry : current);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Récupère le DTO du post via le cache
+     */
+    public Optional<PostDTO> getPostDTO(Long id) {
+        return getPost(id).map(CachedPost::dto);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        versions.incrementAndGet(stripeOf(event.postId()));
+        cache.invalidate(event.postId());
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evictWhere(dto -> dto.getAuthor() != null && event.userId().equals(dto.getAuthor().getId()));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onThemeChanged(ThemeChangedEvent event) {
+        evictWhere(dto -> dto.getTheme() != null && event.themeId().equals(dto.getTheme().getId()));
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCachesReset(CachesResetEvent event) {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+    
+    private void evictWhere(Predicate<PostDTO> predicate) {
+        epoch.incrementAndGet();
+        cache.asMap().values().removeIf(entry -> predicate.test(entry.dto()));
+    }
+    
+    private static int stripeOf(Long id) {
+        return Long.hashCode(id) & (VERSION_STRIPES - 1);
+    }
+    
+    private byte[] serialize(PostDTO dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Poids approximatif en octets : JSON plus les chaînes du DTO (UTF-16)
+     */
+    private static int weigh(CachedPost entry) {
+        String content = entry.dto().getContent();
+        String contentHtml = entry.dto().getContentHtml();
+        long weight = entry.json().length 
+            + 2L * (content == null ? 0 : content.length()) 
+            + 2L * (contentHtml == null ? 0 : contentHtml.length());
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+}
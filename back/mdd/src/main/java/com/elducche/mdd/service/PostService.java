@@ -1,19 +1,43 @@
 package com.elducche.mdd.service;
 
 import com.elducche.mdd.dto.PostCreateRequest;
+import com.elducche.mdd.dto.PostDTO;
+import com.elducche.mdd.config.ReadYourWritesTracker;
 import com.elducche.mdd.entity.Post;
 import com.elducche.mdd.entity.Theme;
 import com.elducche.mdd.entity.User;
+import com.elducche.mdd.event.ContentWrittenEvent;
+import com.elducche.mdd.event.PostChangedEvent;
+import com.elducche.mdd.mapper.EntityMapper;
 import com.elducche.mdd.repository.PostRepository;
+import com.elducche.mdd.repository.PostRepository.PostSummary;
 import com.elducche.mdd.repository.ThemeRepository;
 import com.elducche.mdd.repository.UserRepository;
+import com.elducche.mdd.util.ExcerptGenerator;
+import com.elducche.mdd.util.KeysetCursor;
+import com.elducche.mdd.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Service de gestion des posts
@@ -29,45 +53,132 @@ public class PostService {
     private final PostRepository postRepository;
     private final ThemeRepository themeRepository;
     private final UserRepository userRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final PostArchiveService postArchiveService;
+    private final LatestPostsBuffer latestPostsBuffer;
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+    private final EntityMapper entityMapper;
+    private final AuthorDirectory authorDirectory;
     
     /**
-     * Récupère tous les posts avec leurs relations (auteur + thème)
+     * Lectures concurrentes d'un même post fusionnées en une seule requête ; le résultat
+     * partagé est un DTO construit par le chargeur, jamais une entité
+     */
+    private SingleFlight<Long, Optional<PostDTO>> postLoads;
+    private TransactionTemplate readOnlyTransaction;
+    
+    /**
+     * Taille maximale d'une page de posts récents
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    /**
+     * Taille des lots transmis lors du parcours de tous les posts (taille de fetch du curseur)
+     */
+    private static final int STREAM_CHUNK_SIZE = 200;
+    
+    /**
+     * Fenêtres successives (en mois, mois courant inclus) utilisées pour les pages récentes :
+     * la première page est généralement servie par la seule partition du mois courant
+     */
+    private static final int[] RECENT_WINDOWS_MONTHS = {1, 3, 12};
+    
+    private static final LocalDateTime BEGINNING_OF_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    /**
+     * Page du fil global et curseur de la page suivante
+     */
+    public record ExplorePage(List<PostDTO> posts, String nextCursor) {
+    }
+    
+    @PostConstruct
+    void initReadPaths() {
+        postLoads = new SingleFlight<>("post", meterRegistry);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Récupère les aperçus de tous les posts (extrait au lieu du contenu, auteurs hydratés par l'annuaire)
      */
     @Transactional(readOnly = true)
-    public List<Post> getAllPosts() {
-        return postRepository.findAllWithAuthorAndTheme();
+    public List<PostDTO> getAllPosts() {
+        return toPostDTOs(postRepository.findAllSummaries());
     }
     
     /**
-     * Récupère un post par ID avec ses relations
+     * Parcourt les aperçus de tous les posts (plus récents en premier) sans les matérialiser en liste
+     * 
+     * Les aperçus sont transmis au consommateur par lots de taille fixe (un lot = une
+     * résolution des auteurs), la mémoire utilisée reste donc constante quel que soit
+     * le nombre de posts.
      */
     @Transactional(readOnly = true)
-    public Optional<Post> getPostById(Long id) {
-        return postRepository.findByIdWithAuthorAndTheme(id);
+    public void streamAllPosts(Consumer<List<PostDTO>> consumer) {
+        List<PostSummary> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        try (Stream<PostSummary> posts = postRepository.streamAllSummaries()) {
+            posts.forEach(post -> {
+                chunk.add(post);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    consumer.accept(toPostDTOs(chunk));
+                    chunk.clear();
+                }
+            });
+        }
+        if (!chunk.isEmpty()) {
+            consumer.accept(toPostDTOs(chunk));
+        }
+    }
+    
+    /**
+     * Récupère un post par ID avec ses relations, sous forme de DTO
+     * 
+     * Les lectures concurrentes du même post partagent une seule requête ; la transaction
+     * n'est ouverte que par l'appelant qui charge, les autres attendent sans connexion.
+     * Le DTO est construit dans la transaction du chargeur : les appelants ne partagent
+     * ni entité détachée ni proxy. Un utilisateur qui vient d'écrire lit sans coalescence
+     * pour voir sa propre écriture.
+     */
+    public Optional<PostDTO> getPostById(Long id) {
+        if (readYourWritesTracker.isCurrentUserSticky()) {
+            return loadPostById(id);
+        }
+        return postLoads.execute(id, () -> loadPostById(id));
+    }
+    
+    private Optional<PostDTO> loadPostById(Long id) {
+        // Le contenu des posts anciens est relu, de façon transparente, depuis l'archive compressée
+        return readOnlyTransaction.execute(status -> 
+            postArchiveService.restoreContent(postRepository.findByIdWithAuthorAndTheme(id))
+                .map(entityMapper::toPostDTO));
     }
     
     /**
      * Récupère les posts d'un thème spécifique
      */
     @Transactional(readOnly = true)
-    public List<Post> getPostsByTheme(Long themeId) {
-        return postRepository.findByThemeIdWithAuthorAndTheme(themeId);
+    public List<PostDTO> getPostsByTheme(Long themeId) {
+        return toPostDTOs(postRepository.findSummariesByThemeId(themeId));
     }
     
     /**
      * Récupère les posts d'un auteur spécifique
      */
     @Transactional(readOnly = true)
-    public List<Post> getPostsByAuthor(Long authorId) {
-        return postRepository.findByAuthorIdWithAuthorAndTheme(authorId);
+    public List<PostDTO> getPostsByAuthor(Long authorId) {
+        return toPostDTOs(postRepository.findSummariesByAuthorId(authorId));
     }
     
     /**
      * Récupère le feed personnalisé d'un utilisateur (posts des thèmes abonnés)
      */
     @Transactional(readOnly = true)
-    public List<Post> getPersonalizedFeed(Long userId) {
-        return postRepository.findPostsFromSubscribedThemes(userId);
+    public List<PostDTO> getPersonalizedFeed(Long userId) {
+        return toPostDTOs(postRepository.findSummariesFromSubscribedThemes(userId));
     }
     
     /**
@@ -75,20 +186,110 @@ public class PostService {
      * (alias pour getPersonalizedFeed pour compatibilité avec les contrôleurs)
      */
     @Transactional(readOnly = true)
-    public List<Post> getPostsFromSubscribedThemes(Long userId) {
+    public List<PostDTO> getPostsFromSubscribedThemes(Long userId) {
         return getPersonalizedFeed(userId);
     }
     
+    /**
+     * Récupère les posts les plus récents (première page du fil global)
+     * 
+     * Servie par le tampon mémoire des derniers posts, sans transaction ; en base
+     * seulement si le tampon n'est pas chargé ou ne contient pas assez de posts.
+     */
+    public List<PostDTO> getLatestPosts(int limit) {
+        int size = clampPageSize(limit);
+        return latestPostsBuffer.page(null, size).map(this::toPostDTOs).orElseGet(() -> readOnlyTransaction.execute(status -> 
+            toPostDTOs(findInWideningWindows(size, since -> 
+                postRepository.findLatestSummaries(since, PageRequest.of(0, size))))));
+    }
+    
+    /**
+     * Récupère une page du fil global (exploration), pagination par curseur
+     * 
+     * Les premières pages sont servies par le tampon mémoire des derniers posts ;
+     * au-delà, une requête par clé (created_at, id) ne lit que les lignes de la page.
+     * 
+     * @param cursor Curseur de la page précédente (null pour la première page)
+     * @return La page et le curseur de la suivante (null si c'est la dernière)
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    public ExplorePage getExplorePage(String cursor, int limit) {
+        int size = clampPageSize(limit);
+        KeysetCursor after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        List<PostDTO> posts = latestPostsBuffer.page(after, size).map(this::toPostDTOs).orElseGet(() -> readOnlyTransaction.execute(status -> 
+            toPostDTOs(after == null 
+                ? postRepository.findFirstSummaries(PageRequest.of(0, size)) 
+                : postRepository.findSummariesBefore(after.createdAt(), after.id(), PageRequest.of(0, size)))));
+        
+        String nextCursor = null;
+        if (posts.size() == size) {
+            PostDTO last = posts.get(posts.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new ExplorePage(posts, nextCursor);
+    }
+    
+    /**
+     * Récupère les posts les plus récents d'un thème
+     */
+    @Transactional(readOnly = true)
+    public List<PostDTO> getLatestPostsByTheme(Long themeId, int limit) {
+        int size = clampPageSize(limit);
+        return toPostDTOs(findInWideningWindows(size, since -> 
+            postRepository.findLatestSummariesByThemeId(themeId, since, PageRequest.of(0, size))));
+    }
+    
+    /**
+     * Récupère les posts les plus récents des thèmes auxquels l'utilisateur est abonné
+     */
+    @Transactional(readOnly = true)
+    public List<PostDTO> getLatestPostsFromSubscribedThemes(Long userId, int limit) {
+        int size = clampPageSize(limit);
+        return toPostDTOs(findInWideningWindows(size, since -> 
+            postRepository.findLatestSummariesFromSubscribedThemes(userId, since, PageRequest.of(0, size))));
+    }
+    
+    /**
+     * Exécute une requête bornée sur created_at en élargissant la fenêtre tant que
+     * la page n'est pas complète : les pages récentes ne lisent que les partitions
+     * récentes, seul le dernier recours parcourt tout l'historique
+     */
+    private List<PostSummary> findInWideningWindows(int size, Function<LocalDateTime, List<PostSummary>> query) {
+        LocalDateTime currentMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        for (int months : RECENT_WINDOWS_MONTHS) {
+            List<PostSummary> posts = query.apply(currentMonth.minusMonths(months - 1L));
+            if (posts.size() >= size) {
+                return posts;
+            }
+        }
+        return query.apply(BEGINNING_OF_TIME);
+    }
+    
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+    
+    /**
+     * Convertit des aperçus en DTO, auteurs résolus en une fois par l'annuaire : appelée dans
+     * la transaction de lecture, les auteurs absents de l'annuaire y sont chargés en une requête
+     */
+    private List<PostDTO> toPostDTOs(List<PostSummary> posts) {
+        return entityMapper.toPostDTOs(posts, 
+            authorDirectory.resolve(posts.stream().map(PostSummary::getAuthorId).toList()));
+    }
+    
     /**
      * Recherche des posts par titre
      */
-    public List<Post> searchPostsByTitle(String title) {
-        return postRepository.findByTitleContainingIgnoreCase(title);
+    @Transactional(readOnly = true)
+    public List<PostDTO> searchPostsByTitle(String title) {
+        return toPostDTOs(postRepository.findSummariesByTitleContaining(title));
     }
     
     /**
-     * Crée un nouveau post
+     * Crée un nouveau post (événement post.created enregistré dans la même transaction)
      */
+    @Transactional
     public Optional<Post> createPost(PostCreateRequest request, Long authorId) {
         try {
             // Vérification de l'existence de l'auteur
@@ -108,11 +309,15 @@ public class PostService {
             // Création du post
             Post post = new Post();
             post.setTitle(request.getTitle());
-            post.setContent(request.getContent());
+            setContent(post, request.getContent());
             post.setAuthor(authorOpt.get());
             post.setTheme(themeOpt.get());
             
             Post savedPost = postRepository.save(post);
+            recordPostEvent(savedPost, "post.created");
+            eventPublisher.publishEvent(ContentWrittenEvent.post(savedPost.getId()));
+            eventPublisher.publishEvent(new PostChangedEvent(savedPost.getId()));
+            readYourWritesTracker.markCurrentUserWrite();
             log.info("Nouveau post créé par l'utilisateur {} dans le thème {}", authorId, request.getThemeId());
             
             // Retourner le post avec ses relations
@@ -120,6 +325,7 @@ public class PostService {
             
         } catch (Exception e) {
             log.error("Erreur lors de la création du post par l'utilisateur {}: {}", authorId, e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Optional.empty();
         }
     }
@@ -127,6 +333,7 @@ public class PostService {
     /**
      * Met à jour un post (seul l'auteur peut modifier)
      */
+    @Transactional
     public Optional<Post> updatePost(Long postId, PostCreateRequest request, Long userId) {
         try {
             Optional<Post> postOpt = postRepository.findByIdWithAuthorAndTheme(postId);
@@ -148,8 +355,12 @@ public class PostService {
             if (request.getTitle() != null) {
                 post.setTitle(request.getTitle());
             }
-            if (request.getContent() != null) {
-                post.setContent(request.getContent());
+            boolean contentRewritten = false;
+            boolean contentWritten = request.getContent() != null;
+            if (contentWritten) {
+                setContent(post, request.getContent());
+                contentRewritten = post.isContentArchived();
+                post.setContentArchived(false);
             }
             
             // Changement de thème si spécifié
@@ -164,12 +375,25 @@ public class PostService {
             }
             
             Post savedPost = postRepository.save(post);
+            recordPostEvent(savedPost, "post.updated");
+            readYourWritesTracker.markCurrentUserWrite();
+            if (contentRewritten) {
+                postArchiveService.discardArchive(postId);
+            }
+            if (contentWritten) {
+                eventPublisher.publishEvent(ContentWrittenEvent.post(postId));
+            }
+            eventPublisher.publishEvent(new PostChangedEvent(postId));
             log.info("Post {} mis à jour par l'utilisateur {}", postId, userId);
             
-            return postRepository.findByIdWithAuthorAndTheme(savedPost.getId());
+            // Le contenu archivé est rechargé sur une entité détachée pour ne pas être réécrit en base
+            entityManager.flush();
+            entityManager.detach(savedPost);
+            return postArchiveService.restoreContent(Optional.of(savedPost));
             
         } catch (Exception e) {
             log.error("Erreur lors de la mise à jour du post {} par l'utilisateur {}: {}", postId, userId, e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Optional.empty();
         }
     }
@@ -177,6 +401,7 @@ public class PostService {
     /**
      * Supprime un post (seul l'auteur peut supprimer)
      */
+    @Transactional
     public boolean deletePost(Long postId, Long userId) {
         try {
             Optional<Post> postOpt = postRepository.findByIdWithAuthorAndTheme(postId);
@@ -195,13 +420,39 @@ public class PostService {
             }
             
             postRepository.delete(post);
+            recordPostEvent(post, "post.deleted");
+            readYourWritesTracker.markCurrentUserWrite();
+            if (post.isContentArchived()) {
+                postArchiveService.discardArchive(postId);
+            }
+            eventPublisher.publishEvent(new PostChangedEvent(postId));
             log.info("Post {} supprimé par l'utilisateur {}", postId, userId);
             
             return true;
             
         } catch (Exception e) {
             log.error("Erreur lors de la suppression du post {} par l'utilisateur {}: {}", postId, userId, e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return false;
         }
     }
+    
+    /**
+     * Écrit le contenu et son aperçu (extrait et longueur lus par les listes) ;
+     * le HTML est effacé jusqu'au rendu en arrière-plan (ContentWrittenEvent)
+     */
+    private void setContent(Post post, String content) {
+        post.setContent(content);
+        post.setExcerpt(ExcerptGenerator.excerpt(content));
+        post.setContentLength(content.codePointCount(0, content.length()));
+        post.setContentHtml(null);
+        post.setRenderVersion((short) 0);
+    }
+    
+    private void recordPostEvent(Post post, String eventType) {
+        outboxService.record(OutboxService.POST, post.getId(), eventType, Map.of(
+            "postId", post.getId(),
+            "authorId", post.getAuthor().getId(),
+            "themeId", post.getTheme().getId()));
+    }
 }
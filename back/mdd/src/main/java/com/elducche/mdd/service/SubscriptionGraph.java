@@ -0,0 +1,455 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.entity.SubscriptionId;
+import com.elducche.mdd.event.CachesResetEvent;
+import com.elducche.mdd.event.SubscriptionChangedEvent;
+import com.elducche.mdd.event.ThemeChangedEvent;
+import com.elducche.mdd.event.UserChangedEvent;
+import com.elducche.mdd.repository.SubscriptionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Index mémoire bidirectionnel des abonnements utilisateur ↔ thème
+ *
+ * - utilisateur → thèmes : BitSet indexé par ID de thème (quelques dizaines de thèmes) ;
+ * - thème → utilisateurs : RoaringBitmap (bitmap compressé des IDs d'utilisateurs).
+ *
+ * Chargé au démarrage puis tenu à jour après commit : chaque changement recharge
+ * depuis le primaire les abonnements de l'utilisateur (ou du thème) concerné, ce qui
+ * rend l'index insensible à l'ordre d'arrivée des événements. Les autres instances
+ * sont prévenues par le bus d'invalidation ; une reconstruction complète périodique
+ * sert de filet de sécurité.
+ *
+ * Rechargements et reconstructions s'exécutent dans l'ordre sur un thread dédié :
+ * le thread qui committe n'ouvre pas de seconde connexion, et un rechargement
+ * planifié pendant une reconstruction passe après elle. Un rechargement en échec
+ * désactive l'index et planifie aussitôt une reconstruction.
+ *
+ * Tant que l'index n'est pas chargé (ou si des IDs dépassent la plage des entiers),
+ * les méthodes de lecture renvoient Optional.empty() et l'appelant interroge la base.
+ */
+@Slf4j
+@Service
+public class SubscriptionGraph {
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final TransactionTemplate primaryTransaction;
+
+    @Value("${mdd.subscription-graph.enabled:true}")
+    private boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Seul thread qui écrit l'index (rechargements et reconstructions, dans l'ordre
+     * de planification) : le dernier rechargement démarre toujours après le dernier
+     * commit qui l'a déclenché
+     */
+    private final ExecutorService updateExecutor;
+
+    // Protégés par lock
+    private Map<Long, BitSet> themesByUser = new HashMap<>();
+    private Map<Long, RoaringBitmap> usersByTheme = new HashMap<>();
+    private boolean ready;
+
+    public SubscriptionGraph(SubscriptionRepository subscriptionRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.subscriptionRepository = subscriptionRepository;
+        // Transaction propre, en écriture (donc sur le primaire) : appelée après commit
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("mdd.subscription.graph.users", this, graph -> graph.size(true))
+            .register(meterRegistry);
+        Gauge.builder("mdd.subscription.graph.themes", this, graph -> graph.size(false))
+            .register(meterRegistry);
+        this.updateExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "subscription-graph");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // ==================== Lectures ====================
+
+    /**
+     * L'utilisateur est-il abonné au thème ?
+     */
+    public Optional<Boolean> isSubscribed(Long userId, Long themeId) {
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            BitSet themes = themesByUser.get(userId);
+            return Optional.of(themes != null && isIndexable(themeId) && themes.get(themeId.intValue()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * IDs des thèmes auxquels l'utilisateur est abonné (copie)
+     */
+    public Optional<BitSet> getSubscribedThemeIds(Long userId) {
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            BitSet themes = themesByUser.get(userId);
+            return Optional.of(themes == null ? new BitSet() : (BitSet) themes.clone());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nombre d'abonnements de l'utilisateur
+     */
+    public Optional<Long> countSubscriptions(Long userId) {
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            BitSet themes = themesByUser.get(userId);
+            return Optional.of(themes == null ? 0L : themes.cardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * IDs des abonnés du thème (copie, pour un parcours hors verrou)
+     */
+    public Optional<RoaringBitmap> getSubscriberIds(Long themeId) {
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            RoaringBitmap users = usersByTheme.get(themeId);
+            return Optional.of(users == null ? new RoaringBitmap() : users.clone());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nombre d'abonnés du thème
+     */
+    public Optional<Long> countSubscribers(Long themeId) {
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            RoaringBitmap users = usersByTheme.get(themeId);
+            return Optional.of(users == null ? 0L : users.getLongCardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Chargement et mises à jour ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruction complète périodique (filet de sécurité contre une invalidation manquée)
+     */
+    @Scheduled(cron = "${mdd.subscription-graph.rebuild-cron:0 15 * * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Le transport d'invalidation a pu manquer des messages : reconstruction complète
+     */
+    @EventListener
+    public void onCachesReset(CachesResetEvent event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        schedule(() -> reloadUser(event.userId()));
+    }
+
+    /**
+     * Suppression de compte : ses abonnements ont été supprimés avec lui
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        schedule(() -> reloadUser(event.userId()));
+    }
+
+    /**
+     * Suppression de thème : ses abonnements ont été supprimés en cascade
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onThemeChanged(ThemeChangedEvent event) {
+        schedule(() -> reloadTheme(event.themeId()));
+    }
+
+    /**
+     * Planifie une reconstruction complète de l'index
+     */
+    public void rebuild() {
+        schedule(this::load);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        updateExecutor.shutdownNow();
+    }
+
+    private void schedule(Runnable update) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            updateExecutor.execute(update);
+        } catch (RejectedExecutionException e) {
+            log.debug("Mise à jour de l'index des abonnements ignorée (arrêt en cours)");
+        }
+    }
+
+    /**
+     * Recharge tout l'index depuis la table subscriptions, puis l'échange atomiquement
+     * (les lectures continuent sur l'ancien index pendant le parcours)
+     */
+    private void load() {
+        Map<Long, BitSet> newThemesByUser = new HashMap<>();
+        Map<Long, RoaringBitmap> newUsersByTheme = new HashMap<>();
+        boolean complete = false;
+        boolean indexable = true;
+        try {
+            long start = System.nanoTime();
+            primaryTransaction.executeWithoutResult(status -> {
+                try (Stream<SubscriptionId> ids = subscriptionRepository.streamAllIds()) {
+                    ids.forEach(id -> add(newThemesByUser, newUsersByTheme, id.getUserId(), id.getThemeId()));
+                }
+            });
+            newUsersByTheme.values().forEach(RoaringBitmap::runOptimize);
+            complete = true;
+            log.info("Index des abonnements chargé : {} abonnement(s), {} utilisateur(s), {} thème(s) en {} ms",
+                     newUsersByTheme.values().stream().mapToLong(RoaringBitmap::getLongCardinality).sum(),
+                     newThemesByUser.size(), newUsersByTheme.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IdOutOfRangeException e) {
+            indexable = false;
+            log.warn("Index des abonnements désactivé : {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("Erreur lors du chargement de l'index des abonnements: {}", e.getMessage());
+        }
+
+        // Les changements commités pendant le parcours sont rechargés ensuite, sur ce même thread
+        lock.writeLock().lock();
+        try {
+            if (complete) {
+                themesByUser = newThemesByUser;
+                usersByTheme = newUsersByTheme;
+                ready = true;
+            } else if (!indexable) {
+                ready = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recharge les abonnements d'un utilisateur
+     */
+    private void reloadUser(Long userId) {
+        if (!isReady()) {
+            return;
+        }
+        try {
+            List<Long> themeIds = primaryTransaction.execute(status -> subscriptionRepository.findThemeIdsByUserId(userId));
+            BitSet themes = new BitSet();
+            for (Long themeId : themeIds) {
+                requireIndexable(themeId);
+                themes.set(themeId.intValue());
+            }
+            applyUser(userId, themes);
+        } catch (Exception e) {
+            // Index potentiellement périmé pour cet utilisateur : on revient à la base le temps de reconstruire
+            log.error("Erreur lors du rechargement des abonnements de l'utilisateur {}: {}", userId, e.getMessage());
+            disableAndRebuild();
+        }
+    }
+
+    /**
+     * Recharge les abonnés d'un thème
+     */
+    private void reloadTheme(Long themeId) {
+        if (!isReady()) {
+            return;
+        }
+        try {
+            List<Long> userIds = primaryTransaction.execute(status -> subscriptionRepository.findUserIdsByThemeId(themeId));
+            RoaringBitmap users = new RoaringBitmap();
+            for (Long userId : userIds) {
+                requireIndexable(userId);
+                users.add(userId.intValue());
+            }
+            applyTheme(themeId, users);
+        } catch (Exception e) {
+            log.error("Erreur lors du rechargement des abonnés du thème {}: {}", themeId, e.getMessage());
+            disableAndRebuild();
+        }
+    }
+
+    /**
+     * @return false si l'index n'est pas (encore) utilisé et qu'il est inutile de recharger
+     */
+    private boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void applyUser(Long userId, BitSet themes) {
+        lock.writeLock().lock();
+        try {
+            BitSet previous = themesByUser.getOrDefault(userId, new BitSet());
+            int user = userId.intValue();
+
+            BitSet removed = (BitSet) previous.clone();
+            removed.andNot(themes);
+            removed.stream().forEach(themeId -> {
+                RoaringBitmap users = usersByTheme.get((long) themeId);
+                if (users != null) {
+                    users.remove(user);
+                    if (users.isEmpty()) {
+                        usersByTheme.remove((long) themeId);
+                    }
+                }
+            });
+
+            BitSet added = (BitSet) themes.clone();
+            added.andNot(previous);
+            added.stream().forEach(themeId -> usersByTheme.computeIfAbsent((long) themeId, id -> new RoaringBitmap()).add(user));
+
+            if (themes.isEmpty()) {
+                themesByUser.remove(userId);
+            } else {
+                themesByUser.put(userId, themes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyTheme(Long themeId, RoaringBitmap users) {
+        lock.writeLock().lock();
+        try {
+            RoaringBitmap previous = usersByTheme.getOrDefault(themeId, new RoaringBitmap());
+            int theme = themeId.intValue();
+
+            RoaringBitmap.andNot(previous, users).forEach((int userId) -> {
+                BitSet themes = themesByUser.get((long) userId);
+                if (themes != null) {
+                    themes.clear(theme);
+                    if (themes.isEmpty()) {
+                        themesByUser.remove((long) userId);
+                    }
+                }
+            });
+            RoaringBitmap.andNot(users, previous).forEach((int userId) ->
+                themesByUser.computeIfAbsent((long) userId, id -> new BitSet()).set(theme));
+
+            if (users.isEmpty()) {
+                usersByTheme.remove(themeId);
+            } else {
+                users.runOptimize();
+                usersByTheme.put(themeId, users);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retour aux requêtes en base jusqu'à la reconstruction, planifiée aussitôt
+     */
+    private void disableAndRebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        schedule(this::load);
+    }
+
+    private double size(boolean users) {
+        lock.readLock().lock();
+        try {
+            return users ? themesByUser.size() : usersByTheme.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void add(Map<Long, BitSet> themesByUser, Map<Long, RoaringBitmap> usersByTheme,
+                               Long userId, Long themeId) {
+        requireIndexable(userId);
+        requireIndexable(themeId);
+        themesByUser.computeIfAbsent(userId, id -> new BitSet()).set(themeId.intValue());
+        usersByTheme.computeIfAbsent(themeId, id -> new RoaringBitmap()).add(userId.intValue());
+    }
+
+    private static boolean isIndexable(Long id) {
+        return id != null && id >= 0 && id <= Integer.MAX_VALUE;
+    }
+
+    private static void requireIndexable(Long id) {
+        if (!isIndexable(id)) {
+            throw new IdOutOfRangeException(id);
+        }
+    }
+
+    /**
+     * Les bitmaps sont indexés par entier : un ID au-delà de Integer.MAX_VALUE désactive l'index
+     */
+    private static class IdOutOfRangeException extends RuntimeException {
+        IdOutOfRangeException(Long id) {
+            super("ID hors de la plage indexable: " + id);
+        }
+    }
+}
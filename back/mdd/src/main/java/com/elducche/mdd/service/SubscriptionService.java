@@ -3,16 +3,21 @@ package com.elducche.mdd.service;
 import com.elducche.mdd.entity.Subscription;
 import com.elducche.mdd.entity.SubscriptionId;
 import com.elducche.mdd.entity.Theme;
-import com.elducche.mdd.entity.User;
+import com.elducche.mdd.event.SubscriptionChangedEvent;
+import com.elducche.mdd.event.ThemeChangedEvent;
 import com.elducche.mdd.repository.SubscriptionRepository;
-import com.elducche.mdd.repository.ThemeRepository;
-import com.elducche.mdd.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service de gestion des abonnements
@@ -25,15 +30,36 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class SubscriptionService {
     
+    /**
+     * Abonne un utilisateur à plusieurs thèmes en une instruction ; les thèmes inexistants sont
+     * ignorés et l'ordre des IDs fixe l'ordre de verrouillage. Retourne les thèmes effectivement ajoutés.
+     */
+    private static final String INSERT_IGNORING_EXISTING = 
+        "INSERT INTO subscriptions (user_id, theme_id, subscribed_at) " +
+        "SELECT ?, t.id, LOCALTIMESTAMP FROM themes t " +
+        "WHERE t.id = ANY(CAST(? AS BIGINT[])) ORDER BY t.id " +
+        "ON CONFLICT DO NOTHING RETURNING theme_id";
+    
+    /**
+     * Désabonne un utilisateur de plusieurs thèmes en une instruction. Retourne les thèmes effectivement retirés.
+     */
+    private static final String DELETE_RETURNING_THEME_IDS = 
+        "DELETE FROM subscriptions " +
+        "WHERE user_id = ? AND theme_id = ANY(CAST(? AS BIGINT[])) " +
+        "RETURNING theme_id";
+    
     private final SubscriptionRepository subscriptionRepository;
-    private final UserRepository userRepository;
-    private final ThemeRepository themeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxService outboxService;
+    private final SubscriptionGraph subscriptionGraph;
+    private final ThemeService themeService;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Récupère tous les abonnements d'un utilisateur avec les thèmes
      */
     public List<Subscription> getUserSubscriptions(Long userId) {
-        return subscriptionRepository.findByUserIdWithTheme(userId);
+        return subscriptionRepository.findByUserIdWithUserAndTheme(userId);
     }
     
     /**
@@ -47,64 +73,56 @@ public class SubscriptionService {
      * Vérifie si un utilisateur est abonné à un thème
      */
     public boolean isUserSubscribedToTheme(Long userId, Long themeId) {
-        SubscriptionId id = new SubscriptionId(userId, themeId);
-        return subscriptionRepository.existsById(id);
+        return subscriptionGraph.isSubscribed(userId, themeId)
+            .orElseGet(() -> subscriptionRepository.existsById(new SubscriptionId(userId, themeId)));
     }
     
     /**
      * Compte le nombre d'abonnements d'un utilisateur
      */
     public long countUserSubscriptions(Long userId) {
-        return subscriptionRepository.countByUserId(userId);
+        return subscriptionGraph.countSubscriptions(userId)
+            .orElseGet(() -> subscriptionRepository.countByUserId(userId));
     }
     
     /**
      * Compte le nombre d'abonnés d'un thème
      */
     public long countThemeSubscribers(Long themeId) {
-        return subscriptionRepository.countByThemeId(themeId);
+        return subscriptionGraph.countSubscribers(themeId)
+            .orElseGet(() -> subscriptionRepository.countByThemeId(themeId));
     }
     
     /**
-     * Abonne un utilisateur à un thème
+     * Abonne un utilisateur à un thème (idempotent, sans vérification préalable :
+     * INSERT ... ON CONFLICT DO NOTHING, sûr face aux clics concurrents)
      */
+    @Transactional
     public Optional<Subscription> subscribeUserToTheme(Long userId, Long themeId) {
         try {
-            // Vérification de l'existence de l'utilisateur
-            Optional<User> userOpt = userRepository.findById(userId);
-            if (userOpt.isEmpty()) {
-                log.warn("Tentative d'abonnement avec utilisateur inexistant: {}", userId);
-                return Optional.empty();
-            }
+            List<Long> added = insertIgnoringExisting(userId, new Long[] { themeId });
             
-            // Vérification de l'existence du thème
-            Optional<Theme> themeOpt = themeRepository.findById(themeId);
-            if (themeOpt.isEmpty()) {
+            Optional<Subscription> subscription = subscriptionRepository.findWithUserAndThemeById(
+                new SubscriptionId(userId, themeId));
+            if (subscription.isEmpty()) {
                 log.warn("Tentative d'abonnement à un thème inexistant: {}", themeId);
                 return Optional.empty();
             }
             
-            // Vérification que l'abonnement n'existe pas déjà
-            SubscriptionId subscriptionId = new SubscriptionId(userId, themeId);
-            if (subscriptionRepository.existsById(subscriptionId)) {
+            if (added.isEmpty()) {
                 log.info("L'utilisateur {} est déjà abonné au thème {}", userId, themeId);
-                return subscriptionRepository.findById(subscriptionId);
+            } else {
+                recordSubscriptionEvent(userId, themeId, "subscription.created");
+                eventPublisher.publishEvent(new SubscriptionChangedEvent(userId));
+                log.info("Utilisateur {} abonné au thème {}", userId, themeId);
             }
             
-            // Création de l'abonnement
-            Subscription subscription = new Subscription();
-            subscription.setId(subscriptionId);
-            subscription.setUser(userOpt.get());
-            subscription.setTheme(themeOpt.get());
-            
-            Subscription savedSubscription = subscriptionRepository.save(subscription);
-            log.info("Utilisateur {} abonné au thème {}", userId, themeId);
-            
-            return Optional.of(savedSubscription);
+            return subscription;
             
         } catch (Exception e) {
             log.error("Erreur lors de l'abonnement de l'utilisateur {} au thème {}: {}", 
                      userId, themeId, e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Optional.empty();
         }
     }
@@ -112,24 +130,26 @@ public class SubscriptionService {
     /**
      * Alias pour subscribeUserToTheme (compatibilité avec les contrôleurs)
      */
+    @Transactional
     public Subscription subscribeToTheme(Long userId, Long themeId) {
         Optional<Subscription> result = subscribeUserToTheme(userId, themeId);
         return result.orElse(null);
     }
     
     /**
-     * Désabonne un utilisateur d'un thème
+     * Désabonne un utilisateur d'un thème (un seul DELETE, sans vérification préalable)
      */
+    @Transactional
     public boolean unsubscribeUserFromTheme(Long userId, Long themeId) {
         try {
-            SubscriptionId subscriptionId = new SubscriptionId(userId, themeId);
-            
-            if (!subscriptionRepository.existsById(subscriptionId)) {
+            List<Long> removed = deleteReturningThemeIds(userId, new Long[] { themeId });
+            if (removed.isEmpty()) {
                 log.info("Tentative de désabonnement inexistant: utilisateur {} du thème {}", userId, themeId);
                 return false;
             }
             
-            subscriptionRepository.deleteById(subscriptionId);
+            recordSubscriptionEvent(userId, themeId, "subscription.deleted");
+            eventPublisher.publishEvent(new SubscriptionChangedEvent(userId));
             log.info("Utilisateur {} désabonné du thème {}", userId, themeId);
             
             return true;
@@ -137,6 +157,7 @@ public class SubscriptionService {
         } catch (Exception e) {
             log.error("Erreur lors du désabonnement de l'utilisateur {} du thème {}: {}", 
                      userId, themeId, e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return false;
         }
     }
@@ -145,6 +166,7 @@ public class SubscriptionService {
      * Alias pour unsubscribeUserFromTheme (compatibilité avec les contrôleurs)
      * Note: le contrôleur attend (userId, subscriptionId) mais on utilise (userId, themeId)
      */
+    @Transactional
     public boolean unsubscribeFromTheme(Long userId, Long subscriptionId) {
         // Dans notre cas, on assume que subscriptionId peut être l'ID du thème
         // ou l'ID de l'abonnement. Il faudrait idéalement adapter selon le contexte.
@@ -154,24 +176,63 @@ public class SubscriptionService {
     /**
      * Bascule l'état d'abonnement d'un utilisateur à un thème
      * (abonne si pas abonné, désabonne si abonné)
+     * 
+     * Le DELETE est tenté d'abord : le verrou de ligne qu'il pose sérialise deux bascules
+     * concurrentes, sans fenêtre entre la vérification et l'écriture.
      */
+    @Transactional
     public boolean toggleSubscription(Long userId, Long themeId) {
-        if (isUserSubscribedToTheme(userId, themeId)) {
-            return unsubscribeUserFromTheme(userId, themeId);
-        } else {
-            return subscribeUserToTheme(userId, themeId).isPresent();
+        if (unsubscribeUserFromTheme(userId, themeId)) {
+            return true;
         }
+        return subscribeUserToTheme(userId, themeId).isPresent();
     }
     
     /**
-     * Supprime tous les abonnements d'un utilisateur
+     * Met à jour les abonnements d'un utilisateur en deux instructions ensemblistes
+     * (INSERT ... ON CONFLICT DO NOTHING puis DELETE ... = ANY), de manière idempotente
+     * 
+     * @return Les abonnements résultants, vide en cas d'erreur
+     * @throws IllegalArgumentException si un thème figure dans les deux listes
+     */
+    @Transactional
+    public Optional<List<Subscription>> updateSubscriptions(Long userId, Set<Long> subscribe, Set<Long> unsubscribe) {
+        if (subscribe.stream().anyMatch(unsubscribe::contains)) {
+            throw new IllegalArgumentException("Un thème ne peut pas être à la fois ajouté et retiré");
+        }
+        
+        try {
+            List<Long> added = subscribe.isEmpty() ? List.of()
+                : insertIgnoringExisting(userId, sortedIds(subscribe));
+            List<Long> removed = unsubscribe.isEmpty() ? List.of()
+                : deleteReturningThemeIds(userId, sortedIds(unsubscribe));
+            
+            added.forEach(themeId -> recordSubscriptionEvent(userId, themeId, "subscription.created"));
+            removed.forEach(themeId -> recordSubscriptionEvent(userId, themeId, "subscription.deleted"));
+            if (!added.isEmpty() || !removed.isEmpty()) {
+                eventPublisher.publishEvent(new SubscriptionChangedEvent(userId));
+                log.info("Utilisateur {} : {} abonnement(s) ajouté(s), {} retiré(s)", userId, added.size(), removed.size());
+            }
+            
+            return Optional.of(subscriptionRepository.findByUserIdWithUserAndTheme(userId));
+            
+        } catch (Exception e) {
+            log.error("Erreur lors de la mise à jour groupée des abonnements de l'utilisateur {}: {}", 
+                     userId, e.getMessage());
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Supprime tous les abonnements d'un utilisateur (DELETE ensembliste)
      */
     public void deleteAllUserSubscriptions(Long userId) {
         try {
-            List<Subscription> subscriptions = subscriptionRepository.findByUserId(userId);
-            if (!subscriptions.isEmpty()) {
-                subscriptionRepository.deleteAll(subscriptions);
-                log.info("{} abonnement(s) supprimé(s) pour l'utilisateur {}", subscriptions.size(), userId);
+            int deleted = subscriptionRepository.deleteAllByUserId(userId);
+            if (deleted > 0) {
+                eventPublisher.publishEvent(new SubscriptionChangedEvent(userId));
+                log.info("{} abonnement(s) supprimé(s) pour l'utilisateur {}", deleted, userId);
             }
         } catch (Exception e) {
             log.error("Erreur lors de la suppression des abonnements de l'utilisateur {}: {}", 
@@ -180,14 +241,14 @@ public class SubscriptionService {
     }
     
     /**
-     * Supprime tous les abonnements d'un thème
+     * Supprime tous les abonnements d'un thème (DELETE ensembliste)
      */
     public void deleteAllThemeSubscriptions(Long themeId) {
         try {
-            List<Subscription> subscriptions = subscriptionRepository.findByThemeId(themeId);
-            if (!subscriptions.isEmpty()) {
-                subscriptionRepository.deleteAll(subscriptions);
-                log.info("{} abonnement(s) supprimé(s) pour le thème {}", subscriptions.size(), themeId);
+            int deleted = subscriptionRepository.deleteAllByThemeId(themeId);
+            if (deleted > 0) {
+                eventPublisher.publishEvent(new ThemeChangedEvent(themeId));
+                log.info("{} abonnement(s) supprimé(s) pour le thème {}", deleted, themeId);
             }
         } catch (Exception e) {
             log.error("Erreur lors de la suppression des abonnements du thème {}: {}", 
@@ -199,13 +260,40 @@ public class SubscriptionService {
      * Récupère les thèmes auxquels un utilisateur n'est PAS abonné
      */
     public List<Theme> getAvailableThemesForUser(Long userId) {
-        return themeRepository.findNonSubscribedThemes(userId);
+        return themeService.getAvailableThemes(userId);
     }
     
     /**
      * Récupère les thèmes auxquels un utilisateur est abonné
      */
     public List<Theme> getSubscribedThemesForUser(Long userId) {
-        return themeRepository.findSubscribedThemes(userId);
+        return themeService.getSubscribedThemes(userId);
+    }
+    
+    /*
+     * INSERT/DELETE ... RETURNING passent par JdbcTemplate : Spring Data n'accepte pas de résultat
+     * sur une requête @Modifying. L'instruction s'exécute sur la connexion de la transaction JPA en
+     * cours ; aucune entité Subscription n'est modifiée avant elle dans ces méthodes (rien à flusher),
+     * et les lectures qui suivent sont des requêtes, qui relisent la base.
+     */
+    private List<Long> insertIgnoringExisting(Long userId, Long[] themeIds) {
+        return jdbcTemplate.queryForList(INSERT_IGNORING_EXISTING, Long.class, userId, themeIds);
+    }
+    
+    private List<Long> deleteReturningThemeIds(Long userId, Long[] themeIds) {
+        return jdbcTemplate.queryForList(DELETE_RETURNING_THEME_IDS, Long.class, userId, themeIds);
+    }
+    
+    private static Long[] sortedIds(Set<Long> ids) {
+        return ids.stream().sorted().toArray(Long[]::new);
+    }
+    
+    /**
+     * Les événements d'abonnement sont ordonnés par utilisateur (agrégat = userId)
+     */
+    private void recordSubscriptionEvent(Long userId, Long themeId, String eventType) {
+        outboxService.record(OutboxService.SUBSCRIPTION, userId, eventType, Map.of(
+            "userId", userId,
+            "themeId", themeId));
     }
 }
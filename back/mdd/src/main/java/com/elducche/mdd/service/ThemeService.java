@@ -1,11 +1,14 @@
 package com.elducche.mdd.service;
 
 import com.elducche.mdd.entity.Theme;
+import com.elducche.mdd.event.ThemeChangedEvent;
 import com.elducche.mdd.repository.ThemeRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +24,8 @@ import java.util.Optional;
 public class ThemeService {
     
     private final ThemeRepository themeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SubscriptionGraph subscriptionGraph;
     
     /**
      * Récupère tous les thèmes
@@ -54,14 +59,27 @@ public class ThemeService {
      * Récupère les thèmes auxquels un utilisateur est abonné
      */
     public List<Theme> getSubscribedThemes(Long userId) {
-        return themeRepository.findSubscribedThemes(userId);
+        return subscriptionGraph.getSubscribedThemeIds(userId)
+            .map(themeIds -> filterThemes(themeIds, true))
+            .orElseGet(() -> themeRepository.findSubscribedThemes(userId));
     }
     
     /**
      * Récupère les thèmes auxquels un utilisateur n'est PAS abonné
      */
     public List<Theme> getAvailableThemes(Long userId) {
-        return themeRepository.findNonSubscribedThemes(userId);
+        return subscriptionGraph.getSubscribedThemeIds(userId)
+            .map(themeIds -> filterThemes(themeIds, false))
+            .orElseGet(() -> themeRepository.findNonSubscribedThemes(userId));
+    }
+    
+    /**
+     * Filtre la liste des thèmes selon l'index mémoire des abonnements (pas de sous-requête NOT IN)
+     */
+    private List<Theme> filterThemes(BitSet subscribedThemeIds, boolean subscribed) {
+        return themeRepository.findAll().stream()
+            .filter(theme -> subscribedThemeIds.get(theme.getId().intValue()) == subscribed)
+            .toList();
     }
     
     /**
@@ -75,7 +93,8 @@ public class ThemeService {
      * Compte le nombre d'abonnés d'un thème
      */
     public long countSubscribersInTheme(Long themeId) {
-        return themeRepository.countSubscribersByThemeId(themeId);
+        return subscriptionGraph.countSubscribers(themeId)
+            .orElseGet(() -> themeRepository.countSubscribersByThemeId(themeId));
     }
     
     /**
@@ -132,6 +151,7 @@ public class ThemeService {
             }
             
             Theme savedTheme = themeRepository.save(theme);
+            eventPublisher.publishEvent(new ThemeChangedEvent(id));
             log.info("Thème {} mis à jour", id);
             
             return Optional.of(savedTheme);
@@ -162,6 +182,7 @@ public class ThemeService {
             }
             
             themeRepository.deleteById(id);
+            eventPublisher.publishEvent(new ThemeChangedEvent(id));
             log.info("Thème {} supprimé", id);
             
             return true;
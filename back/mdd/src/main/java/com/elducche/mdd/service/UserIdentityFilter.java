@@ -0,0 +1,252 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.event.CachesResetEvent;
+import com.elducche.mdd.event.UserChangedEvent;
+import com.elducche.mdd.event.UserRegisteredEvent;
+import com.elducche.mdd.repository.UserRepository;
+import com.elducche.mdd.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Filtres de Bloom des emails et usernames existants
+ *
+ * Pré-contrôle des recherches d'authentification : une réponse négative est
+ * certaine (email inconnu à la connexion, email ou username libre à l'inscription)
+ * et évite la requête ; une réponse positive est confirmée par l'index unique.
+ *
+ * Construits au démarrage, alimentés à l'inscription et aux changements de profil,
+ * et sur les autres instances via le bus d'invalidation (UserRegisteredEvent et
+ * UserChangedEvent distants).
+ * Les valeurs supprimées ou remplacées restent des faux positifs jusqu'à la
+ * reconstruction périodique, qui ajuste aussi la taille au nombre d'utilisateurs.
+ * Tant que les filtres ne sont pas construits, tout est « peut-être présent » ;
+ * après un ajout distant manqué, ils sont désactivés et reconstruits aussitôt
+ * en arrière-plan.
+ */
+@Slf4j
+@Service
+public class UserIdentityFilter {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate primaryTransaction;
+    private final Counter skippedLookups;
+    private final ExecutorService rebuildExecutor;
+
+    @Value("${mdd.user-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mdd.user-filter.expected-users:100000}")
+    private long expectedUsers;
+
+    @Value("${mdd.user-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private record Filters(BloomFilter emails, BloomFilter usernames) {
+    }
+
+    private volatile Filters filters;
+
+    /**
+     * Ajouts depuis la dernière construction, rejoués sur les filtres suivants : une valeur
+     * ajoutée avant son commit peut manquer au parcours de la reconstruction ; protégés par this
+     */
+    private List<String[]> addedSinceLastBuild = new ArrayList<>();
+    private boolean rebuilding;
+    // Reconstruction demandée pendant une autre : relancée à la fin de celle-ci
+    private boolean rebuildRequested;
+
+    public UserIdentityFilter(UserRepository userRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        // Lecture sur le primaire : la réplique pourrait ignorer les dernières inscriptions
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.primaryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.skippedLookups = Counter.builder("mdd.user.filter.skipped.lookups")
+            .description("Recherches d'email ou de username évitées par les filtres de Bloom")
+            .register(meterRegistry);
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-filter-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return false si aucun utilisateur n'a cet email (certain), true s'il faut vérifier en base
+     */
+    public boolean mightContainEmail(String email) {
+        Filters current = filters;
+        return current == null || email == null || countMiss(current.emails().mightContain(email));
+    }
+
+    /**
+     * @return false si aucun utilisateur n'a ce username (certain), true s'il faut vérifier en base
+     */
+    public boolean mightContainUsername(String username) {
+        Filters current = filters;
+        return current == null || username == null || countMiss(current.usernames().mightContain(username));
+    }
+
+    /**
+     * Enregistre l'email et le username d'un utilisateur créé ou modifié
+     * (à appeler avant que la valeur soit visible : un faux positif est sans risque)
+     */
+    public void add(String email, String username) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            addedSinceLastBuild.add(new String[] { email, username });
+        }
+        Filters current = filters;
+        if (current != null) {
+            put(current, email, username);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruction périodique : oublie les valeurs supprimées, redimensionne
+     */
+    @Scheduled(cron = "${mdd.user-filter.rebuild-cron:0 45 4 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Le transport d'invalidation a pu manquer des inscriptions faites ailleurs
+     */
+    @EventListener
+    public void onCachesReset(CachesResetEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Inscription sur une autre instance
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        if (event.remote()) {
+            addRemoteUser(event.userId());
+        }
+    }
+
+    /**
+     * Changement de profil sur une autre instance
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.remote()) {
+            addRemoteUser(event.userId());
+        }
+    }
+
+    private void addRemoteUser(Long userId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            primaryTransaction.executeWithoutResult(status -> userRepository.findById(userId)
+                .ifPresent(user -> add(user.getEmail(), user.getUsername())));
+        } catch (Exception e) {
+            // Sans cet ajout, un faux négatif serait possible : retour à la base le temps de reconstruire
+            log.error("Erreur lors de la mise à jour des filtres pour l'utilisateur {}: {}", userId, e.getMessage());
+            filters = null;
+            rebuildExecutor.execute(this::rebuild);
+        }
+    }
+
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (this) {
+            if (rebuilding) {
+                rebuildRequested = true;
+                return;
+            }
+            rebuilding = true;
+            rebuildRequested = false;
+        }
+
+        Filters rebuilt = null;
+        try {
+            long start = System.nanoTime();
+            long users = userRepository.count();
+            long capacity = Math.max(expectedUsers, users * 2);
+            Filters fresh = new Filters(new BloomFilter(capacity, falsePositiveRate),
+                                        new BloomFilter(capacity, falsePositiveRate));
+            primaryTransaction.executeWithoutResult(status -> {
+                try (Stream<UserRepository.UserIdentity> identities = userRepository.streamAllIdentities()) {
+                    identities.forEach(identity -> put(fresh, identity.getEmail(), identity.getUsername()));
+                }
+            });
+            rebuilt = fresh;
+            log.info("Filtres des emails et usernames construits : {} utilisateur(s), capacité {}, {} Ko en {} ms",
+                     users, capacity, 2 * fresh.emails().sizeInBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Erreur lors de la construction des filtres des utilisateurs: {}", e.getMessage());
+        } finally {
+            boolean again;
+            synchronized (this) {
+                if (rebuilt != null) {
+                    for (String[] added : addedSinceLastBuild) {
+                        put(rebuilt, added[0], added[1]);
+                    }
+                    addedSinceLastBuild = new ArrayList<>();
+                    filters = rebuilt;
+                }
+                rebuilding = false;
+                again = rebuildRequested;
+            }
+            if (again) {
+                rebuildExecutor.execute(this::rebuild);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    private boolean countMiss(boolean mightContain) {
+        if (!mightContain) {
+            skippedLookups.increment();
+        }
+        return mightContain;
+    }
+
+    private static void put(Filters filters, String email, String username) {
+        if (email != null) {
+            filters.emails().put(email);
+        }
+        if (username != null) {
+            filters.usernames().put(username);
+        }
+    }
+}
@@ -2,7 +2,16 @@ package com.elducche.mdd.service;
 
 import com.elducche.mdd.dto.UpdateUserProfileRequest;
 import com.elducche.mdd.entity.User;
+import com.elducche.mdd.event.UserChangedEvent;
+import com.elducche.mdd.repository.ArchivedPostContentRepository;
+import com.elducche.mdd.repository.CommentRepository;
+import com.elducche.mdd.repository.PostRepository;
+import com.elducche.mdd.repository.SubscriptionRepository;
 import com.elducche.mdd.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
@@ -22,7 +31,20 @@ import java.util.Optional;
 public class UserService {
     
     private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final SubscriptionRepository subscriptionRepository;
+    private final ArchivedPostContentRepository archivedPostContentRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserIdentityFilter userIdentityFilter;
+    
+    /**
+     * Taille des lots lors de la suppression d'un compte : chaque lot est
+     * supprimé dans sa propre transaction afin de borner la durée des verrous
+     */
+    @Value("${mdd.deletion.chunk-size:500}")
+    private int deletionChunkSize;
     
     /**
      * Trouve un utilisateur par son ID
@@ -65,12 +87,16 @@ public class UserService {
     public Optional<User> updateUser(Long userId, User userUpdates) {
         return userRepository.findById(userId)
                 .map(existingUser -> {
+                    String previousUsername = existingUser.getUsername();
+                    String previousEmail = existingUser.getEmail();
+                    
                     // Mise à jour des champs modifiables
                     if (userUpdates.getUsername() != null && 
                         !userUpdates.getUsername().equals(existingUser.getUsername())) {
                         
                         // Vérification que le nouveau username n'existe pas déjà
-                        if (userRepository.existsByUsername(userUpdates.getUsername())) {
+                        if (userIdentityFilter.mightContainUsername(userUpdates.getUsername())
+                            && userRepository.existsByUsername(userUpdates.getUsername())) {
                             log.warn("Tentative de mise à jour avec username existant: {}", userUpdates.getUsername());
                             throw new IllegalArgumentException("Ce nom d'utilisateur est déjà pris");
                         }
@@ -81,7 +107,8 @@ public class UserService {
                         !userUpdates.getEmail().equals(existingUser.getEmail())) {
                         
                         // Vérification que le nouvel email n'existe pas déjà
-                        if (userRepository.existsByEmail(userUpdates.getEmail())) {
+                        if (userIdentityFilter.mightContainEmail(userUpdates.getEmail())
+                            && userRepository.existsByEmail(userUpdates.getEmail())) {
                             log.warn("Tentative de mise à jour avec email existant: {}", userUpdates.getEmail());
                             throw new IllegalArgumentException("Un compte avec cet email existe déjà");
                         }
@@ -89,6 +116,7 @@ public class UserService {
                     }
                     
                     User savedUser = userRepository.save(existingUser);
+                    publishIfPublicProfileChanged(savedUser, previousUsername, previousEmail);
                     log.info("Profil mis à jour pour l'utilisateur ID: {}", userId);
                     return savedUser;
                 });
@@ -100,11 +128,15 @@ public class UserService {
     public Optional<User> updateUserProfile(Long userId, UpdateUserProfileRequest request) {
         return userRepository.findById(userId)
                 .map(existingUser -> {
+                    String previousUsername = existingUser.getUsername();
+                    String previousEmail = existingUser.getEmail();
+                    
                     // Mise à jour du nom d'utilisateur
                     if (request.getUsername() != null && !request.getUsername().trim().isEmpty() &&
                         !request.getUsername().equals(existingUser.getUsername())) {
                         
-                        if (userRepository.existsByUsername(request.getUsername())) {
+                        if (userIdentityFilter.mightContainUsername(request.getUsername())
+                            && userRepository.existsByUsername(request.getUsername())) {
                             log.warn("Tentative de mise à jour avec username existant: {}", request.getUsername());
                             throw new IllegalArgumentException("Ce nom d'utilisateur est déjà pris");
                         }
@@ -115,7 +147,8 @@ public class UserService {
                     if (request.getEmail() != null && !request.getEmail().trim().isEmpty() &&
                         !request.getEmail().equals(existingUser.getEmail())) {
                         
-                        if (userRepository.existsByEmail(request.getEmail())) {
+                        if (userIdentityFilter.mightContainEmail(request.getEmail())
+                            && userRepository.existsByEmail(request.getEmail())) {
                             log.warn("Tentative de mise à jour avec email existant: {}", request.getEmail());
                             throw new IllegalArgumentException("Un compte avec cet email existe déjà");
                         }
@@ -128,11 +161,22 @@ public class UserService {
                     }
                     
                     User savedUser = userRepository.save(existingUser);
+                    publishIfPublicProfileChanged(savedUser, previousUsername, previousEmail);
                     log.info("Profil mis à jour pour l'utilisateur ID: {}", userId);
                     return savedUser;
                 });
     }
     
+    /**
+     * Publie un UserChangedEvent si le nom ou l'email (affichés avec les posts) ont changé
+     */
+    private void publishIfPublicProfileChanged(User user, String previousUsername, String previousEmail) {
+        if (!user.getUsername().equals(previousUsername) || !user.getEmail().equals(previousEmail)) {
+            userIdentityFilter.add(user.getEmail(), user.getUsername());
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
+        }
+    }
+    
     /**
      * Change le mot de passe d'un utilisateur
      */
@@ -161,7 +205,12 @@ public class UserService {
     }
     
     /**
-     * Supprime un utilisateur (soft delete possible à implémenter plus tard)
+     * Supprime un utilisateur et toutes ses données (soft delete possible à implémenter plus tard)
+     * 
+     * Suppression en cascade par requêtes DELETE ensemblistes, dans l'ordre imposé
+     * par les clés étrangères : abonnements, commentaires de l'utilisateur,
+     * puis ses posts (avec les commentaires reçus), et enfin le compte.
+     * Les commentaires et posts sont traités par lots de taille bornée.
      */
     public boolean deleteUser(Long userId) {
         if (!userRepository.existsById(userId)) {
@@ -169,8 +218,27 @@ public class UserService {
             return false;
         }
         
+        int subscriptions = subscriptionRepository.deleteAllByUserId(userId);
+        
+        Pageable chunk = PageRequest.of(0, deletionChunkSize);
+        int comments = 0;
+        List<Long> commentIds;
+        while (!(commentIds = commentRepository.findIdsByAuthorId(userId, chunk)).isEmpty()) {
+            comments += commentRepository.deleteAllByIdIn(commentIds);
+        }
+        
+        int posts = 0;
+        List<Long> postIds;
+        while (!(postIds = postRepository.findIdsByAuthorId(userId, chunk)).isEmpty()) {
+            comments += commentRepository.deleteAllByPostIdIn(postIds);
+            archivedPostContentRepository.deleteAllByIdInBatch(postIds);
+            posts += postRepository.deleteAllByIdIn(postIds);
+        }
+        
         userRepository.deleteById(userId);
-        log.info("Utilisateur supprimé ID: {}", userId);
+        eventPublisher.publishEvent(new UserChangedEvent(userId));
+        log.info("Utilisateur supprimé ID: {} ({} abonnement(s), {} post(s), {} commentaire(s))", 
+                userId, subscriptions, posts, comments);
         return true;
     }
     
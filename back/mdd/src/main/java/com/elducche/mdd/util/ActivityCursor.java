@@ -0,0 +1,35 @@
+package com.elducche.mdd.util;
+
+/**
+ * Curseur de pagination du flux d'activité d'un utilisateur
+ * 
+ * Le flux fusionne deux listes paginées par clé (posts et commentaires) : le curseur
+ * porte la position du dernier élément consommé dans chacune (null si aucun élément
+ * de cette liste n'a encore été servi). Transmis au client sous forme opaque
+ * (les deux KeysetCursor encodés, séparés par un point).
+ */
+public record ActivityCursor(KeysetCursor posts, KeysetCursor comments) {
+    
+    public String encode() {
+        return encode(posts) + "." + encode(comments);
+    }
+    
+    /**
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    public static ActivityCursor decode(String cursor) {
+        String[] parts = cursor.split("\\.", -1);
+        if (parts.length != 2 || (parts[0].isEmpty() && parts[1].isEmpty())) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+        return new ActivityCursor(decodePart(parts[0]), decodePart(parts[1]));
+    }
+    
+    private static String encode(KeysetCursor cursor) {
+        return cursor == null ? "" : cursor.encode();
+    }
+    
+    private static KeysetCursor decodePart(String part) {
+        return part.isEmpty() ? null : KeysetCursor.decode(part);
+    }
+}
@@ -0,0 +1,55 @@
+package com.elducche.mdd.util;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Négociation des formats binaires (CBOR, Smile) pour les endpoints de liste
+ * 
+ * Un format binaire n'est servi que si le client le demande explicitement
+ * avec une préférence au moins égale à celle de JSON ; un Accept absent
+ * ou générique (tous types) conserve la réponse JSON.
+ */
+public final class BinaryMediaTypes {
+    
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+    public static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    
+    private BinaryMediaTypes() {
+    }
+    
+    /**
+     * Retourne le format binaire préféré du client, s'il en demande un
+     * @param accept Valeur de l'en-tête Accept
+     */
+    public static Optional<MediaType> negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return Optional.empty();
+        }
+        
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return Optional.empty();
+        }
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isWildcardType() || MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)) {
+                return Optional.empty();
+            }
+            if (CBOR.equalsTypeAndSubtype(mediaType)) {
+                return Optional.of(CBOR);
+            }
+            if (SMILE.equalsTypeAndSubtype(mediaType)) {
+                return Optional.of(SMILE);
+            }
+        }
+        return Optional.empty();
+    }
+}
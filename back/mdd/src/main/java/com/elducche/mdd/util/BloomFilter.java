@@ -0,0 +1,98 @@
+package com.elducche.mdd.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom de chaînes, sans verrou
+ *
+ * Aucun faux négatif : mightContain renvoie toujours true pour une valeur ajoutée.
+ * Les faux positifs (taux visé à la construction) imposent de confirmer en base.
+ * Les ajouts concurrents posent leurs bits par compare-and-set ; les suppressions
+ * sont impossibles (reconstruire le filtre pour les oublier).
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions Nombre d'éléments prévu (au-delà, le taux de faux positifs augmente)
+     * @param falsePositiveRate Taux de faux positifs visé (ex. 0.01)
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long h1 = hash(value);
+        long h2 = secondHash(h1);
+        for (int i = 0; i < hashCount; i++) {
+            setBit(Long.remainderUnsigned(h1 + i * h2, bitCount));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = secondHash(h1);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Taille du tableau de bits, en octets
+     */
+    public long sizeInBytes() {
+        return bitCount / 8;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        while (((current = bits.get(word)) & mask) == 0) {
+            if (bits.compareAndSet(word, current, current | mask)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * FNV-1a 64 bits sur l'UTF-8, suivi du mélange final de MurmurHash3
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Second hachage (double hachage de Kirsch-Mitzenmacher), impair pour parcourir tout le tableau
+     */
+    private static long secondHash(long h1) {
+        return mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe1a85a2bL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
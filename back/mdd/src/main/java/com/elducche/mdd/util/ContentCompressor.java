@@ -0,0 +1,43 @@
+package com.elducche.mdd.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Utilitaire de compression gzip des contenus textuels archivés
+ */
+public final class ContentCompressor {
+    
+    private ContentCompressor() {
+    }
+    
+    /**
+     * Compresse un texte (UTF-8) au format gzip
+     */
+    public static byte[] compress(String content) {
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur lors de la compression du contenu", e);
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Décompresse un contenu gzip en texte (UTF-8)
+     */
+    public static String decompress(byte[] compressed) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur lors de la décompression du contenu", e);
+        }
+    }
+}
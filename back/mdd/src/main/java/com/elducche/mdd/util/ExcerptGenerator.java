@@ -0,0 +1,66 @@
+package com.elducche.mdd.util;
+
+/**
+ * Utilitaire de génération des extraits de posts (aperçu des listes)
+ *
+ * L'extrait est le début du contenu, blancs regroupés, coupé à la fin du dernier mot
+ * complet et suivi de « … ». La migration V6 applique la même règle en SQL aux posts existants.
+ */
+public final class ExcerptGenerator {
+    
+    /**
+     * Longueur maximale d'un extrait, points de suspension exclus (colonne posts.excerpt)
+     */
+    public static final int MAX_LENGTH = 200;
+    
+    /**
+     * Longueur du début de contenu à lire pour construire un extrait sans charger tout le
+     * contenu (marge pour les blancs regroupés)
+     */
+    public static final int SOURCE_PREFIX_LENGTH = 4 * MAX_LENGTH;
+    
+    private static final String ELLIPSIS = "…";
+    
+    private ExcerptGenerator() {
+    }
+    
+    /**
+     * Extrait d'un contenu (null si le contenu est null)
+     */
+    public static String excerpt(String content) {
+        if (content == null) {
+            return null;
+        }
+        String normalized = content.strip().replaceAll("\\s+", " ");
+        if (normalized.length() <= MAX_LENGTH) {
+            return normalized;
+        }
+        
+        // Un caractère de plus : s'il s'agit d'un blanc, le dernier mot est complet
+        String head = normalized.substring(0, MAX_LENGTH + 1);
+        int lastSpace = head.lastIndexOf(' ');
+        if (lastSpace > 0) {
+            head = head.substring(0, lastSpace);
+        } else {
+            // Mot unique : coupe franche, sans séparer une paire de substitution (emoji...)
+            int end = Character.isHighSurrogate(head.charAt(MAX_LENGTH - 1)) ? MAX_LENGTH - 1 : MAX_LENGTH;
+            head = head.substring(0, end);
+        }
+        return head.stripTrailing() + ELLIPSIS;
+    }
+    
+    /**
+     * Extrait construit à partir du seul début du contenu
+     * 
+     * @param prefix Début du contenu (SOURCE_PREFIX_LENGTH caractères au plus)
+     * @param contentLength Longueur du contenu complet, en points de code
+     */
+    public static String excerpt(String prefix, Integer contentLength) {
+        String excerpt = excerpt(prefix);
+        if (excerpt == null || contentLength == null || contentLength <= prefix.codePointCount(0, prefix.length()) || excerpt.endsWith(ELLIPSIS)) {
+            return excerpt;
+        }
+        // Contenu coupé dont le début, une fois les blancs regroupés, tient dans l'extrait
+        return excerpt + ELLIPSIS;
+    }
+}
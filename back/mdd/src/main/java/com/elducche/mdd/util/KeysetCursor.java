@@ -0,0 +1,44 @@
+package com.elducche.mdd.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Curseur de pagination par clé (keyset) des listes triées par date de création
+ * 
+ * Position du dernier élément d'une page (post du fil global, post ou commentaire
+ * du flux d'activité) dans l'ordre (created_at DESC, id DESC) ; la page suivante
+ * commence strictement après. Transmis au client sous forme opaque (Base64 URL
+ * de « date|id »).
+ */
+public record KeysetCursor(LocalDateTime createdAt, Long id) {
+    
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @throws IllegalArgumentException si le curseur est invalide
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+    
+    /**
+     * @return true si l'élément (createdAt, id) se trouve après ce curseur dans l'ordre décroissant
+     */
+    public boolean precedes(LocalDateTime rowCreatedAt, Long rowId) {
+        int byDate = rowCreatedAt.compareTo(createdAt);
+        return byDate < 0 || (byDate == 0 && rowId < id);
+    }
+}
@@ -0,0 +1,50 @@
+package com.elducche.mdd.util;
+
+import org.commonmark.node.Link;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+
+/**
+ * Utilitaire de rendu Markdown -> HTML des posts et commentaires
+ * 
+ * Le HTML produit est sûr à insérer tel quel : le HTML brut présent dans la source
+ * est échappé (jamais interprété), les URLs de liens et d'images hors schémas
+ * autorisés (http, https, mailto) sont neutralisées, les liens sortants portent
+ * rel="nofollow noopener noreferrer".
+ * 
+ * Toute évolution du rendu (options, extensions) doit incrémenter VERSION :
+ * le job de re-rendu de ContentRenderService met alors à jour le HTML stocké.
+ */
+public final class MarkdownRenderer {
+    
+    /**
+     * Version courante du rendu (colonnes render_version)
+     */
+    public static final short VERSION = 1;
+    
+    // Parser et renderer sont immuables et utilisables par plusieurs threads
+    private static final Parser PARSER = Parser.builder().build();
+    
+    private static final HtmlRenderer RENDERER = HtmlRenderer.builder()
+        .escapeHtml(true)
+        .sanitizeUrls(true)
+        .attributeProviderFactory(context -> (node, tagName, attributes) -> {
+            if (node instanceof Link) {
+                attributes.put("rel", "nofollow noopener noreferrer");
+            }
+        })
+        .build();
+    
+    private MarkdownRenderer() {
+    }
+    
+    /**
+     * Rend un texte Markdown en HTML sûr (null si le texte est null)
+     */
+    public static String render(String markdown) {
+        if (markdown == null) {
+            return null;
+        }
+        return RENDERER.render(PARSER.parse(markdown));
+    }
+}
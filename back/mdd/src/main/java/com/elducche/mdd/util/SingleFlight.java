@@ -0,0 +1,88 @@
+package com.elducche.mdd.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalescence des lectures identiques concurrentes ("single-flight")
+ * 
+ * Le premier appelant d'une clé exécute le chargement ; les appelants qui arrivent
+ * pendant ce chargement attendent et reçoivent le même résultat, sans nouvelle
+ * requête en base. Rien n'est conservé une fois le chargement terminé : ce n'est
+ * pas un cache.
+ * 
+ * Métriques exposées (tag name) :
+ * - mdd.singleflight.calls, tag role=leader|follower (ratio de coalescence = follower / total)
+ * - mdd.singleflight.in.flight : chargements en cours
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder("mdd.singleflight.calls")
+                .description("Lectures exécutées en base (leader) ou partagées (follower)")
+                .tag("name", name)
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.followers = Counter.builder("mdd.singleflight.calls")
+                .description("Lectures exécutées en base (leader) ou partagées (follower)")
+                .tag("name", name)
+                .tag("role", "follower")
+                .register(meterRegistry);
+        Gauge.builder("mdd.singleflight.in.flight", inFlight, ConcurrentHashMap::size)
+                .description("Chargements en cours")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exécute le chargement de la clé, ou attend celui déjà en cours
+     * 
+     * @param key Clé de la lecture (ex : ID du post)
+     * @param loader Chargement effectif, exécuté par le seul premier appelant
+     * @return Résultat partagé par tous les appelants concurrents
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            followers.increment();
+            return await(existing);
+        }
+        
+        leaders.increment();
+        try {
+            V value = loader.get();
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+    
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.elducche.mdd.util;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Seau à jetons sans verrou
+ * 
+ * L'état (jetons disponibles, instant de la dernière recharge) est immuable et
+ * remplacé par compare-and-set : la recharge est calculée paresseusement à
+ * chaque tentative, sans thread de fond.
+ */
+public class TokenBucket {
+
+    private final int capacity;
+    private final double refillPerNano;
+    private final AtomicReference<State> state;
+
+    private record State(double tokens, long lastRefillNanos) {
+    }
+
+    public TokenBucket(int capacity, double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+    }
+
+    /**
+     * Consomme un jeton si disponible
+     * 
+     * @return true si la requête est autorisée
+     */
+    public boolean tryConsume() {
+        while (true) {
+            State current = state.get();
+            long now = System.nanoTime();
+            double tokens = refilled(current, now);
+            if (tokens < 1) {
+                return false;
+            }
+            if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Délai (en secondes, arrondi au supérieur) avant qu'un jeton soit disponible
+     */
+    public long secondsUntilNextToken() {
+        State current = state.get();
+        double missing = 1 - refilled(current, System.nanoTime());
+        if (missing <= 0 || refillPerNano <= 0) {
+            return missing <= 0 ? 0 : Long.MAX_VALUE;
+        }
+        return (long) Math.ceil(missing / refillPerNano / 1_000_000_000d);
+    }
+    
+    /**
+     * Instant (nanoTime) de la dernière consommation
+     */
+    public long lastUsedNanos() {
+        return state.get().lastRefillNanos();
+    }
+    
+    /**
+     * Indique si le seau est plein (le supprimer ne change rien pour le client)
+     */
+    public boolean isFull() {
+        return refilled(state.get(), System.nanoTime()) >= capacity;
+    }
+    
+    private double refilled(State current, long now) {
+        return Math.min(capacity, current.tokens() + (now - current.lastRefillNanos()) * refillPerNano);
+    }
+}
@@ -0,0 +1,12 @@
+-- =============================================
+-- V10 - Reprise différée des événements de l'outbox
+-- =============================================
+-- Un événement dont la livraison a échoué n'est retenté qu'à partir de
+-- next_attempt_at (délai exponentiel) ; jusque-là, les événements suivants
+-- du même agrégat restent en attente pour préserver l'ordre par agrégat.
+-- Les événements ne sont plus abandonnés après un nombre d'échecs donné.
+
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at TIMESTAMP(6);
+
+-- Recherche d'un événement antérieur en attente du même agrégat
+CREATE INDEX idx_outbox_events_pending_aggregate ON outbox_events (aggregate_type, aggregate_id, id) WHERE published_at IS NULL;
@@ -0,0 +1,38 @@
+-- =============================================
+-- V11 - Fin du détachement des partitions anciennes
+-- =============================================
+-- mdd_archive_partitions() déplaçait les partitions anciennes de posts et
+-- comments dans le schéma "archive" : leurs lignes disparaissaient de toutes
+-- les lectures, alors que post_ids et comment_ids les référençaient encore,
+-- et leurs clés étrangères vers users(id) bloquaient la suppression des
+-- auteurs concernés. Les partitions restent désormais attachées ; le volume
+-- des posts anciens est réduit par l'archivage compressé de leur contenu
+-- (V4). Les partitions déjà détachées sont rattachées à leur table.
+
+DO $$
+DECLARE
+    child RECORD;
+    month_start DATE;
+BEGIN
+    IF to_regnamespace('archive') IS NULL THEN
+        RETURN;
+    END IF;
+
+    FOR child IN
+        SELECT c.relname, substring(c.relname FROM '^(posts|comments)_p[0-9]{6}$') AS parent
+        FROM pg_class c
+        JOIN pg_namespace n ON n.oid = c.relnamespace
+        WHERE n.nspname = 'archive'
+          AND c.relkind = 'r'
+          AND c.relname ~ '^(posts|comments)_p[0-9]{6}$'
+        ORDER BY c.relname
+    LOOP
+        month_start := to_date(right(child.relname, 6), 'YYYYMM');
+        EXECUTE format('ALTER TABLE archive.%I SET SCHEMA public', child.relname);
+        EXECUTE format('ALTER TABLE public.%I ATTACH PARTITION public.%I FOR VALUES FROM (%L) TO (%L)',
+                       child.parent, child.relname, month_start, (month_start + INTERVAL '1 month')::DATE);
+    END LOOP;
+END;
+$$;
+
+DROP FUNCTION IF EXISTS mdd_archive_partitions(TEXT, INT);
@@ -0,0 +1,11 @@
+-- =============================================
+-- V12 - Longueur précalculée des commentaires
+-- =============================================
+-- Le flux d'activité ne lit que le début des commentaires pour en construire
+-- l'extrait ; LENGTH(content) forçait la lecture (et la décompression TOAST)
+-- du corps complet. Comme pour les posts (V6), la longueur en points de code
+-- est écrite par CommentService à la création et à la modification.
+
+ALTER TABLE comments ADD COLUMN content_length INT NOT NULL DEFAULT 0;
+
+UPDATE comments SET content_length = char_length(content);
@@ -0,0 +1,15 @@
+-- =============================================
+-- V13 - HTML pré-rendu des posts archivés
+-- =============================================
+-- L'archivage vidait content_html avec le contenu, et le Markdown des posts
+-- archivés était rendu à chaque lecture. Le HTML est désormais archivé,
+-- compressé, avec le corps ; render_version suit la règle de V7 (0 : à rendre).
+-- Les archives existantes sont rendues une fois par PostArchiveService.
+
+ALTER TABLE post_content_archive ADD COLUMN content_html_gz BYTEA;
+ALTER TABLE post_content_archive ADD COLUMN render_version SMALLINT NOT NULL DEFAULT 0;
+
+ALTER TABLE post_content_archive ALTER COLUMN content_html_gz SET STORAGE EXTERNAL;
+
+-- Archives à rendre (démarrage, après chaque archivage, nouvelle version du rendu)
+CREATE INDEX idx_post_content_archive_render_version ON post_content_archive (render_version, post_id);
@@ -0,0 +1,58 @@
+-- =============================================
+-- V1_1 - Alignement du schéma initial sur les entités JPA
+-- =============================================
+-- Rassemble les écarts entre infra/script.sql (V1) et le schéma qu'Hibernate
+-- attend en ddl-auto: validate. Chaque instruction est idempotente : la
+-- migration s'applique aussi bien à une base créée par script.sql qu'à une
+-- base déjà retouchée par l'ancien ddl-auto: update.
+
+-- Horodatages : les entités utilisent LocalDateTime (timestamp sans fuseau).
+-- La conversion se fait dans le fuseau de la session, celui dans lequel le
+-- driver JDBC a écrit les valeurs.
+DO $$
+DECLARE
+    col RECORD;
+BEGIN
+    FOR col IN
+        SELECT table_name, column_name
+        FROM information_schema.columns
+        WHERE table_schema = current_schema()
+          AND table_name IN ('users', 'themes', 'posts', 'comments')
+          AND column_name IN ('created_at', 'updated_at')
+          AND data_type = 'timestamp with time zone'
+    LOOP
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN %I TYPE TIMESTAMP(6)', col.table_name, col.column_name);
+    END LOOP;
+END;
+$$;
+
+-- Date d'abonnement (ajoutée par Hibernate sur les bases existantes)
+ALTER TABLE subscriptions ADD COLUMN IF NOT EXISTS subscribed_at TIMESTAMP(6);
+
+-- Unicité du nom d'utilisateur : l'inscription s'appuie sur l'index unique
+-- pour départager deux inscriptions concurrentes
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1
+        FROM pg_index i
+        JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0]
+        WHERE i.indrelid = 'users'::regclass
+          AND i.indisunique
+          AND i.indnatts = 1
+          AND a.attname = 'username'
+    ) THEN
+        ALTER TABLE users ADD CONSTRAINT users_username_key UNIQUE (username);
+    END IF;
+END;
+$$;
+
+-- Un post et un commentaire ont toujours un auteur, un post toujours un thème,
+-- un commentaire toujours un post
+ALTER TABLE posts ALTER COLUMN author_id SET NOT NULL;
+ALTER TABLE posts ALTER COLUMN theme_id SET NOT NULL;
+ALTER TABLE comments ALTER COLUMN author_id SET NOT NULL;
+ALTER TABLE comments ALTER COLUMN post_id SET NOT NULL;
+
+-- Le contenu d'un post peut être déporté dans l'archive compressée (V4)
+ALTER TABLE posts ALTER COLUMN content DROP NOT NULL;
@@ -1,3 +1,11 @@
+-- =============================================
+-- V1 - Schéma initial de l'application MDD
+-- =============================================
+-- Copie fidèle de l'ancien infra/script.sql. Les bases existantes sont
+-- "baselinées" sur cette version (spring.flyway.baseline-on-migrate) :
+-- toute évolution du schéma vit dans les migrations suivantes, à commencer
+-- par V1_1 qui aligne ce schéma sur les entités JPA.
+
 CREATE TABLE IF NOT EXISTS users (
     id BIGSERIAL PRIMARY KEY,
     email VARCHAR(255) NOT NULL UNIQUE,
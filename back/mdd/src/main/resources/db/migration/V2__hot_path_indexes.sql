@@ -0,0 +1,37 @@
+-- =============================================
+-- V2 - Index des chemins critiques
+-- =============================================
+-- Chaque index correspond à une requête de PostRepository, CommentRepository
+-- ou SubscriptionRepository : filtre d'égalité puis tri created_at DESC,
+-- ce qui permet un parcours d'index sans tri.
+--
+-- CREATE INDEX CONCURRENTLY ne peut pas s'exécuter dans une transaction :
+-- Flyway le détecte et exécute cette migration hors transaction. Elle ne doit
+-- donc contenir que des instructions non transactionnelles. En cas d'échec,
+-- supprimer l'index resté INVALID avant de relancer la migration.
+
+-- findAllWithAuthorAndTheme
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_posts_created_at
+    ON posts (created_at DESC);
+
+-- findByThemeIdWithAuthorAndTheme, findPostsFromSubscribedThemes,
+-- findByThemeIdInWithAuthorAndTheme, countPostsByThemeId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_posts_theme_created_at
+    ON posts (theme_id, created_at DESC);
+
+-- findByAuthorIdWithAuthorAndTheme, findIdsByAuthorId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_posts_author_created_at
+    ON posts (author_id, created_at DESC);
+
+-- findByPostIdWithAuthor, countByPostId, deleteAllByPostId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_post_created_at
+    ON comments (post_id, created_at DESC);
+
+-- findByAuthorIdWithPostAndTheme, findRecentCommentsByUserId, findIdsByAuthorId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_comments_author_created_at
+    ON comments (author_id, created_at DESC);
+
+-- findByThemeIdWithUser, countByThemeId, deleteAllByThemeId
+-- (la clé primaire (user_id, theme_id) ne sert pas les recherches par thème)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_subscriptions_theme_user
+    ON subscriptions (theme_id, user_id);
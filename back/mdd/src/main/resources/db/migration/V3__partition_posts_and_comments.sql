@@ -0,0 +1,252 @@
+-- =============================================
+-- V3 - Partitionnement mensuel de posts et comments
+-- =============================================
+-- posts et comments deviennent des tables partitionnées par plage mensuelle
+-- sur created_at. Les requêtes de feed bornées sur created_at ne lisent plus
+-- que les partitions récentes (partition pruning), quel que soit l'historique.
+--
+-- Contraintes du partitionnement PostgreSQL :
+-- - la clé primaire inclut la clé de partition : (id, created_at). L'unicité
+--   de l'id seul est garantie par les tables de correspondance post_ids et
+--   comment_ids (id -> created_at), tenues à jour par trigger ;
+-- - une clé étrangère ne peut pas référencer posts(id) seul : comments.post_id
+--   référence post_ids(id), ce qui interdit les commentaires orphelins sans
+--   bloquer le détachement des partitions anciennes de posts ;
+-- - une lecture par id ne se limite à une partition que si elle connaît
+--   created_at : le repository le lit d'abord dans post_ids / comment_ids, et
+--   comments.post_created_at (date du post) permet la même restriction sur les
+--   jointures commentaire -> post.
+--
+-- Les partitions futures sont créées par mdd_ensure_partitions(), appelée
+-- périodiquement par PartitionMaintenanceService ; mdd_archive_partitions()
+-- détache les partitions anciennes vers le schéma "archive".
+
+CREATE SCHEMA IF NOT EXISTS archive;
+
+-- Crée (si besoin) la partition mensuelle <parent>_pYYYYMM contenant le mois donné.
+-- Si la partition par défaut contient déjà des lignes de ce mois (partition
+-- créée en retard), PostgreSQL refuserait de créer la partition : les lignes
+-- sont d'abord déplacées dans une table autonome, qui est ensuite attachée.
+CREATE OR REPLACE FUNCTION mdd_create_monthly_partition(parent TEXT, month DATE)
+RETURNS TEXT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', month)::DATE;
+    month_end DATE := (date_trunc('month', month) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := format('%s_p%s', parent, to_char(month_start, 'YYYYMM'));
+    default_name TEXT := parent || '_default';
+    has_default_rows BOOLEAN := FALSE;
+BEGIN
+    IF to_regclass(format('public.%I', partition_name)) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    IF to_regclass(format('public.%I', default_name)) IS NOT NULL THEN
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM public.%I WHERE created_at >= %L AND created_at < %L)',
+                       default_name, month_start, month_end)
+        INTO has_default_rows;
+    END IF;
+
+    IF NOT has_default_rows THEN
+        EXECUTE format(
+            'CREATE TABLE public.%I PARTITION OF public.%I FOR VALUES FROM (%L) TO (%L)',
+            partition_name, parent, month_start, month_end);
+        RETURN partition_name;
+    END IF;
+
+    -- Les lignes déplacées gardent leur id et leur created_at : les tables de
+    -- correspondance ne doivent pas suivre ce DELETE (voir mdd_track_id)
+    PERFORM set_config('mdd.partition_move', 'on', true);
+    EXECUTE format('CREATE TABLE public.%I (LIKE public.%I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                   partition_name, parent);
+    EXECUTE format(
+        'WITH moved AS (DELETE FROM public.%I WHERE created_at >= %L AND created_at < %L RETURNING *) '
+        'INSERT INTO public.%I SELECT * FROM moved',
+        default_name, month_start, month_end, partition_name);
+    EXECUTE format('ALTER TABLE public.%I ATTACH PARTITION public.%I FOR VALUES FROM (%L) TO (%L)',
+                   parent, partition_name, month_start, month_end);
+    PERFORM set_config('mdd.partition_move', 'off', true);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Tient à jour la table de correspondance passée en argument (id -> created_at).
+-- Sa clé primaire rejette un id déjà utilisé dans une autre partition.
+CREATE OR REPLACE FUNCTION mdd_track_id()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('mdd.partition_move', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    IF TG_OP = 'INSERT' THEN
+        EXECUTE format('INSERT INTO public.%I (id, created_at) VALUES ($1, $2)', TG_ARGV[0])
+        USING NEW.id, NEW.created_at;
+    ELSIF TG_OP = 'UPDATE' THEN
+        EXECUTE format('UPDATE public.%I SET id = $1, created_at = $2 WHERE id = $3', TG_ARGV[0])
+        USING NEW.id, NEW.created_at, OLD.id;
+    ELSE
+        EXECUTE format('DELETE FROM public.%I WHERE id = $1', TG_ARGV[0])
+        USING OLD.id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Garantit l'existence des partitions du mois courant et des N mois suivants
+CREATE OR REPLACE FUNCTION mdd_ensure_partitions(parent TEXT, months_ahead INT)
+RETURNS INT AS $$
+DECLARE
+    i INT;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        PERFORM mdd_create_monthly_partition(parent, (date_trunc('month', now()) + make_interval(months => i))::DATE);
+    END LOOP;
+    RETURN months_ahead + 1;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Détache les partitions antérieures à (mois courant - keep_months) et les
+-- déplace dans le schéma archive. Retourne le nombre de partitions archivées.
+CREATE OR REPLACE FUNCTION mdd_archive_partitions(parent TEXT, keep_months INT)
+RETURNS INT AS $$
+DECLARE
+    cutoff TEXT := to_char(date_trunc('month', now()) - make_interval(months => keep_months), 'YYYYMM');
+    child RECORD;
+    archived INT := 0;
+BEGIN
+    FOR child IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname = parent
+          AND c.relname ~ ('^' || parent || '_p[0-9]{6}$')
+          AND right(c.relname, 6) < cutoff
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE public.%I DETACH PARTITION public.%I', parent, child.relname);
+        EXECUTE format('ALTER TABLE public.%I SET SCHEMA archive', child.relname);
+        archived := archived + 1;
+    END LOOP;
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Crée une partition par mois entre la première ligne existante et N mois après aujourd'hui
+CREATE OR REPLACE FUNCTION mdd_create_partitions_since(parent TEXT, first_month DATE, months_ahead INT)
+RETURNS VOID AS $$
+DECLARE
+    month DATE := date_trunc('month', COALESCE(first_month, now()))::DATE;
+BEGIN
+    WHILE month <= date_trunc('month', now()) + make_interval(months => months_ahead) LOOP
+        PERFORM mdd_create_monthly_partition(parent, month);
+        month := (month + INTERVAL '1 month')::DATE;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Suppression des clés étrangères qui référencent posts(id)
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN
+        SELECT conname FROM pg_constraint
+        WHERE conrelid = 'comments'::regclass AND confrelid = 'posts'::regclass AND contype = 'f'
+    LOOP
+        EXECUTE format('ALTER TABLE comments DROP CONSTRAINT %I', fk.conname);
+    END LOOP;
+END;
+$$;
+
+-- ---------------------------------------------
+-- posts
+-- ---------------------------------------------
+ALTER TABLE posts RENAME TO posts_unpartitioned;
+CREATE SEQUENCE posts_partitioned_id_seq;
+SELECT setval('posts_partitioned_id_seq', COALESCE((SELECT max(id) FROM posts_unpartitioned), 0) + 1, false);
+
+CREATE TABLE posts (
+    id BIGINT NOT NULL DEFAULT nextval('posts_partitioned_id_seq'),
+    title VARCHAR(255) NOT NULL,
+    content TEXT,
+    author_id BIGINT NOT NULL REFERENCES users(id),
+    theme_id BIGINT NOT NULL REFERENCES themes(id),
+    created_at TIMESTAMP(6) NOT NULL DEFAULT now(),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT posts_partitioned_pkey PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE posts_partitioned_id_seq OWNED BY posts.id;
+
+CREATE TABLE post_ids (
+    id BIGINT PRIMARY KEY,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TRIGGER posts_track_id
+    AFTER INSERT OR DELETE OR UPDATE OF id, created_at ON posts
+    FOR EACH ROW EXECUTE FUNCTION mdd_track_id('post_ids');
+
+SELECT mdd_create_partitions_since('posts', (SELECT min(created_at) FROM posts_unpartitioned)::DATE, 3);
+CREATE TABLE posts_default PARTITION OF posts DEFAULT;
+
+INSERT INTO posts (id, title, content, author_id, theme_id, created_at, updated_at)
+SELECT id, title, content, author_id, theme_id, COALESCE(created_at, updated_at, now()), updated_at
+FROM posts_unpartitioned;
+
+-- Supprime aussi la séquence (serial ou identity) de l'ancienne table
+DROP TABLE posts_unpartitioned;
+ALTER SEQUENCE posts_partitioned_id_seq RENAME TO posts_id_seq;
+
+CREATE INDEX idx_posts_id ON posts (id);
+CREATE INDEX idx_posts_created_at ON posts (created_at DESC);
+CREATE INDEX idx_posts_theme_created_at ON posts (theme_id, created_at DESC);
+CREATE INDEX idx_posts_author_created_at ON posts (author_id, created_at DESC);
+
+-- ---------------------------------------------
+-- comments
+-- ---------------------------------------------
+ALTER TABLE comments RENAME TO comments_unpartitioned;
+CREATE SEQUENCE comments_partitioned_id_seq;
+SELECT setval('comments_partitioned_id_seq', COALESCE((SELECT max(id) FROM comments_unpartitioned), 0) + 1, false);
+
+CREATE TABLE comments (
+    id BIGINT NOT NULL DEFAULT nextval('comments_partitioned_id_seq'),
+    content TEXT NOT NULL,
+    author_id BIGINT NOT NULL REFERENCES users(id),
+    post_id BIGINT NOT NULL REFERENCES post_ids(id),
+    post_created_at TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT now(),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT comments_partitioned_pkey PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE comments_partitioned_id_seq OWNED BY comments.id;
+
+CREATE TABLE comment_ids (
+    id BIGINT PRIMARY KEY,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TRIGGER comments_track_id
+    AFTER INSERT OR DELETE OR UPDATE OF id, created_at ON comments
+    FOR EACH ROW EXECUTE FUNCTION mdd_track_id('comment_ids');
+
+SELECT mdd_create_partitions_since('comments', (SELECT min(created_at) FROM comments_unpartitioned)::DATE, 3);
+CREATE TABLE comments_default PARTITION OF comments DEFAULT;
+
+-- LEFT JOIN : un commentaire orphelin fait échouer la migration (post_created_at NOT NULL)
+INSERT INTO comments (id, content, author_id, post_id, post_created_at, created_at, updated_at)
+SELECT c.id, c.content, c.author_id, c.post_id, p.created_at, COALESCE(c.created_at, c.updated_at, now()), c.updated_at
+FROM comments_unpartitioned c
+LEFT JOIN posts p ON p.id = c.post_id;
+
+-- Supprime aussi la séquence (serial ou identity) de l'ancienne table
+DROP TABLE comments_unpartitioned;
+ALTER SEQUENCE comments_partitioned_id_seq RENAME TO comments_id_seq;
+
+CREATE INDEX idx_comments_id ON comments (id);
+CREATE INDEX idx_comments_post_created_at ON comments (post_id, created_at DESC);
+CREATE INDEX idx_comments_author_created_at ON comments (author_id, created_at DESC);
+
+DROP FUNCTION mdd_create_partitions_since(TEXT, DATE, INT);
@@ -0,0 +1,20 @@
+-- =============================================
+-- V4 - Archivage compressé du contenu des posts anciens
+-- =============================================
+-- Le contenu des posts plus anciens que le seuil configuré est déplacé,
+-- compressé (gzip), dans post_content_archive ; la colonne posts.content
+-- est alors vidée et content_archived passe à TRUE. Les lignes de posts
+-- restent en place (titre, auteur, thème, dates) pour les listes et les
+-- commentaires ; seul le corps quitte la table chaude.
+
+ALTER TABLE posts ADD COLUMN content_archived BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE TABLE post_content_archive (
+    post_id BIGINT PRIMARY KEY,
+    content_gz BYTEA NOT NULL,
+    original_length INT NOT NULL,
+    archived_at TIMESTAMP(6) NOT NULL
+);
+
+-- Les données sont déjà compressées : pas de recompression par TOAST
+ALTER TABLE post_content_archive ALTER COLUMN content_gz SET STORAGE EXTERNAL;
@@ -0,0 +1,25 @@
+-- =============================================
+-- V5 - Outbox transactionnelle des événements métier
+-- =============================================
+-- Chaque modification de post, commentaire ou abonnement insère, dans la même
+-- transaction, une ligne dans outbox_events. Un relais périodique lit les
+-- lignes non publiées par ordre d'id, les transmet aux consommateurs internes
+-- puis renseigne published_at (livraison au moins une fois, ordonnée par agrégat).
+
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP(6),
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500)
+);
+
+-- File des événements en attente : index partiel, reste petit quel que soit l'historique
+CREATE INDEX idx_outbox_events_pending ON outbox_events (id) WHERE published_at IS NULL;
+
+-- Purge des événements publiés
+CREATE INDEX idx_outbox_events_published_at ON outbox_events (published_at) WHERE published_at IS NOT NULL;
@@ -0,0 +1,39 @@
+-- =============================================
+-- V6 - Extraits précalculés des posts
+-- =============================================
+-- Les listes de posts (fil global, thème, abonnements) n'affichent qu'un aperçu :
+-- elles sélectionnent excerpt et content_length au lieu du corps complet (TEXT,
+-- souvent TOASTé). Le contenu n'est plus lu que par GET /api/posts/{id}.
+-- Les deux colonnes sont écrites par PostService à la création et à la modification
+-- (règle de coupe : ExcerptGenerator, 200 caractères au dernier mot complet + « … »).
+
+ALTER TABLE posts ADD COLUMN excerpt VARCHAR(210);
+ALTER TABLE posts ADD COLUMN content_length INT NOT NULL DEFAULT 0;
+
+-- Posts non archivés : calcul direct depuis le contenu
+UPDATE posts
+SET excerpt = CASE
+        WHEN char_length(normalized) <= 200 THEN normalized
+        ELSE rtrim(CASE
+                WHEN position(' ' IN left(normalized, 201)) > 0
+                    THEN regexp_replace(left(normalized, 201), ' [^ ]*$', '')
+                ELSE left(normalized, 200)
+             END) || '…'
+    END,
+    content_length = char_length(content)
+FROM (
+    SELECT id AS post_id, regexp_replace(btrim(content, E' \t\r\n'), '\s+', ' ', 'g') AS normalized
+    FROM posts
+    WHERE content IS NOT NULL
+) source
+WHERE posts.id = source.post_id;
+
+-- Posts archivés : la longueur est connue de l'archive ; l'extrait (contenu gzip)
+-- est calculé par PostArchiveService.backfillArchivedExcerpts
+UPDATE posts
+SET content_length = archive.original_length
+FROM post_content_archive archive
+WHERE posts.id = archive.post_id;
+
+-- Posts restant à compléter (vide une fois le rattrapage terminé)
+CREATE INDEX idx_posts_missing_excerpt ON posts (id) WHERE excerpt IS NULL AND content_archived;
@@ -0,0 +1,18 @@
+-- =============================================
+-- V7 - HTML pré-rendu des posts et commentaires
+-- =============================================
+-- Le Markdown est rendu et assaini une seule fois, après l'écriture, par un
+-- exécuteur dédié (ContentRenderService) ; les lectures servent content_html tel quel.
+-- render_version identifie la version du moteur de rendu (MarkdownRenderer.VERSION) :
+-- 0 = à rendre. Les lignes dont la version est inférieure à la version courante sont
+-- rendues à nouveau par un job par lots, reprenable (l'avancement est la colonne elle-même).
+
+ALTER TABLE posts ADD COLUMN content_html TEXT;
+ALTER TABLE posts ADD COLUMN render_version SMALLINT NOT NULL DEFAULT 0;
+
+ALTER TABLE comments ADD COLUMN content_html TEXT;
+ALTER TABLE comments ADD COLUMN render_version SMALLINT NOT NULL DEFAULT 0;
+
+-- Recherche des lignes à rendre (job de re-rendu, parcours par ID)
+CREATE INDEX idx_posts_render_version ON posts (render_version, id);
+CREATE INDEX idx_comments_render_version ON comments (render_version, id);
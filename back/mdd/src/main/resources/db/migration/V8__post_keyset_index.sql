@@ -0,0 +1,10 @@
+-- =============================================
+-- V8 - Index de pagination par clé des posts
+-- =============================================
+-- Les pages du fil global au-delà du tampon mémoire des derniers posts sont lues
+-- par curseur (created_at, id) dans l'ordre (created_at DESC, id DESC) : l'index
+-- couvre l'ordre complet, sans tri sur les dates égales. Il remplace l'index sur
+-- created_at seul, dont il est un préfixe.
+
+CREATE INDEX idx_posts_created_at_id ON posts (created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_posts_created_at;
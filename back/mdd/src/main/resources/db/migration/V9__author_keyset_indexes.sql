@@ -0,0 +1,13 @@
+-- =============================================
+-- V9 - Index de pagination par clé du flux d'activité
+-- =============================================
+-- Le flux d'activité d'un utilisateur fusionne ses posts et ses commentaires,
+-- chacun lu par curseur (created_at, id) dans l'ordre (created_at DESC, id DESC) :
+-- chaque page ne parcourt que les entrées d'index des lignes qu'elle renvoie.
+-- Ces index remplacent ceux sur (author_id, created_at), dont ils sont un préfixe.
+
+CREATE INDEX idx_posts_author_created_at_id ON posts (author_id, created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_posts_author_created_at;
+
+CREATE INDEX idx_comments_author_created_at_id ON comments (author_id, created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_comments_author_created_at;
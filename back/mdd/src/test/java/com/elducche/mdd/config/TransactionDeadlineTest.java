@@ -0,0 +1,48 @@
+package com.elducche.mdd.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionDeadlineTest {
+
+    @Test
+    void apply_sansEcheanceGardeLeTimeoutDemande() {
+        assertThat(TransactionDeadline.apply(-1)).isEqualTo(-1);
+        assertThat(TransactionDeadline.apply(30)).isEqualTo(30);
+    }
+
+    @Test
+    void apply_borneParLeTempsRestant() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2_500);
+
+        int[] timeouts = TransactionDeadline.callWithin(deadline,
+            () -> new int[] {TransactionDeadline.apply(-1), TransactionDeadline.apply(30), TransactionDeadline.apply(1)});
+
+        assertThat(timeouts).containsExactly(3, 3, 1);
+        assertThat(TransactionDeadline.apply(-1)).isEqualTo(-1);
+    }
+
+    @Test
+    void callWithin_gardeLEcheanceLaPlusProche() throws Exception {
+        long near = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        long far = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+
+        int timeout = TransactionDeadline.callWithin(near,
+            () -> TransactionDeadline.callWithin(far, () -> TransactionDeadline.apply(-1)));
+
+        assertThat(timeout).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void apply_echeanceDepasseeRefuseLaTransaction() {
+        long deadline = System.nanoTime() - 1;
+
+        assertThatThrownBy(() -> TransactionDeadline.callWithin(deadline, () -> TransactionDeadline.apply(-1)))
+            .isInstanceOf(TransactionTimedOutException.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.elducche.mdd.controller;
+
+import com.elducche.mdd.dto.BatchRequest;
+import com.elducche.mdd.dto.BatchResponse;
+import com.elducche.mdd.security.JwtAuthenticationFilter;
+import com.elducche.mdd.security.RateLimitFilter;
+import com.elducche.mdd.security.SecurityUtil;
+import com.elducche.mdd.service.BatchService;
+import com.elducche.mdd.util.AuthUtil;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = BatchController.class, excludeFilters = @ComponentScan.Filter(
+    type = FilterType.ASSIGNABLE_TYPE, classes = {JwtAuthenticationFilter.class, RateLimitFilter.class}))
+@AutoConfigureMockMvc(addFilters = false)
+@Import(AuthUtil.class)
+class BatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BatchService batchService;
+
+    @MockBean
+    private SecurityUtil securityUtil;
+
+    @Test
+    void executeBatch_renvoieUneReponseParSousRequete() throws Exception {
+        when(securityUtil.getCurrentUserId()).thenReturn(1L);
+        when(batchService.execute(any(), any(), any())).thenReturn(new BatchResponse(List.of(
+            new BatchResponse.SubResponse("post", 200, JsonNodeFactory.instance.objectNode().put("id", 5)),
+            new BatchResponse.SubResponse("comments", 404, null))));
+
+        mockMvc.perform(post("/api/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"requests":[{"id":"post","path":"/api/posts/5"},{"id":"comments","path":"/api/comments/post/5"}]}
+                    """))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.responses.length()").value(2))
+            .andExpect(jsonPath("$.responses[0].status").value(200))
+            .andExpect(jsonPath("$.responses[0].body.id").value(5))
+            .andExpect(jsonPath("$.responses[1].status").value(404));
+
+        ArgumentCaptor<BatchRequest> request = ArgumentCaptor.forClass(BatchRequest.class);
+        verify(batchService).execute(request.capture(), any(), any());
+        assertThat(request.getValue().getRequests())
+            .extracting(BatchRequest.SubRequest::getPath)
+            .containsExactly("/api/posts/5", "/api/comments/post/5");
+    }
+
+    @Test
+    void executeBatch_rejetteUnLotVide() throws Exception {
+        mockMvc.perform(post("/api/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"requests\":[]}"))
+            .andExpect(status().isBadRequest());
+
+        verify(batchService, never()).execute(any(), any(), any());
+    }
+
+    @Test
+    void executeBatch_nonAuthentifie() throws Exception {
+        when(securityUtil.getCurrentUserId()).thenReturn(null);
+
+        mockMvc.perform(post("/api/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"requests\":[{\"id\":\"post\",\"path\":\"/api/posts/5\"}]}"))
+            .andExpect(status().isUnauthorized());
+    }
+}
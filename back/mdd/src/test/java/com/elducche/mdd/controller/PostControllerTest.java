@@ -0,0 +1,111 @@
+package com.elducche.mdd.controller;
+
+import com.elducche.mdd.dto.CompactPostPageDTO;
+import com.elducche.mdd.dto.PostDTO;
+import com.elducche.mdd.mapper.EntityMapper;
+import com.elducche.mdd.security.JwtAuthenticationFilter;
+import com.elducche.mdd.security.RateLimitFilter;
+import com.elducche.mdd.security.SecurityUtil;
+import com.elducche.mdd.service.PostCacheService;
+import com.elducche.mdd.service.PostService;
+import com.elducche.mdd.util.AuthUtil;
+import com.elducche.mdd.util.BinaryMediaTypes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = PostController.class, excludeFilters = @ComponentScan.Filter(
+    type = FilterType.ASSIGNABLE_TYPE, classes = {JwtAuthenticationFilter.class, RateLimitFilter.class}))
+@AutoConfigureMockMvc(addFilters = false)
+@Import({AuthUtil.class, EntityMapper.class})
+class PostControllerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 12, 12, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PostService postService;
+
+    @MockBean
+    private PostCacheService postCacheService;
+
+    @MockBean
+    private SecurityUtil securityUtil;
+
+    @Test
+    void explorePosts_renvoieLaPageEtLeCurseurSuivant() throws Exception {
+        String cursor = "MjAyNC0wNS0xMlQxMjowMHw0Mg";
+        when(postService.getExplorePage(cursor, 2))
+            .thenReturn(new PostService.ExplorePage(List.of(post(41L, 1L), post(40L, 1L)), "suivant"));
+
+        mockMvc.perform(get("/api/posts/explore").param("limit", "2").param("cursor", cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.posts.length()").value(2))
+            .andExpect(jsonPath("$.posts[0].id").value(41))
+            .andExpect(jsonPath("$.posts[0].author.username").value("auteur1"))
+            .andExpect(jsonPath("$.nextCursor").value("suivant"));
+    }
+
+    @Test
+    void explorePosts_curseurInvalide() throws Exception {
+        when(postService.getExplorePage("invalide", 20))
+            .thenThrow(new IllegalArgumentException("Curseur de pagination invalide"));
+
+        mockMvc.perform(get("/api/posts/explore").param("cursor", "invalide"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllPosts_pageCompacteEnCbor() throws Exception {
+        when(postService.getAllPosts()).thenReturn(List.of(post(2L, 1L), post(1L, 1L)));
+
+        MvcResult result = mockMvc.perform(get("/api/posts").accept(BinaryMediaTypes.CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(BinaryMediaTypes.CBOR))
+            .andReturn();
+
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+        CompactPostPageDTO page = cbor.readValue(result.getResponse().getContentAsByteArray(), CompactPostPageDTO.class);
+        assertThat(page.getAuthors()).hasSize(1);
+        assertThat(page.getThemes()).hasSize(1);
+        assertThat(page.getPosts()).extracting(CompactPostPageDTO.CompactPostDTO::getId).containsExactly(2L, 1L);
+        assertThat(page.getPosts()).allMatch(post -> post.getAuthor() == 0 && post.getTheme() == 0);
+    }
+
+    @Test
+    void getAllPosts_jsonNormalise() throws Exception {
+        when(postService.getAllPosts()).thenReturn(List.of(post(2L, 1L), post(1L, 2L)));
+
+        mockMvc.perform(get("/api/posts").param("shape", "normalized"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.posts.length()").value(2))
+            .andExpect(jsonPath("$.included.authors.length()").value(2));
+    }
+
+    private static PostDTO post(Long id, Long authorId) {
+        return new PostDTO(id, "Post " + id, null, null, "Extrait", 120, NOW, NOW,
+                           new PostDTO.AuthorDTO(authorId, "auteur" + authorId, "auteur" + authorId + "@mdd.fr"),
+                           new PostDTO.ThemeDTO(1L, "Java", "Thème Java"));
+    }
+}
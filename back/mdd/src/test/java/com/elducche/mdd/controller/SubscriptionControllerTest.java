@@ -0,0 +1,112 @@
+package com.elducche.mdd.controller;
+
+import com.elducche.mdd.entity.Subscription;
+import com.elducche.mdd.entity.Theme;
+import com.elducche.mdd.entity.User;
+import com.elducche.mdd.mapper.EntityMapper;
+import com.elducche.mdd.security.JwtAuthenticationFilter;
+import com.elducche.mdd.security.RateLimitFilter;
+import com.elducche.mdd.security.SecurityUtil;
+import com.elducche.mdd.service.SubscriptionService;
+import com.elducche.mdd.util.AuthUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = SubscriptionController.class, excludeFilters = @ComponentScan.Filter(
+    type = FilterType.ASSIGNABLE_TYPE, classes = {JwtAuthenticationFilter.class, RateLimitFilter.class}))
+@AutoConfigureMockMvc(addFilters = false)
+@Import({AuthUtil.class, EntityMapper.class})
+class SubscriptionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SubscriptionService subscriptionService;
+
+    @MockBean
+    private SecurityUtil securityUtil;
+
+    @BeforeEach
+    void setUp() {
+        when(securityUtil.getCurrentUserId()).thenReturn(1L);
+    }
+
+    @Test
+    void updateSubscriptions_renvoieLesAbonnementsResultants() throws Exception {
+        when(subscriptionService.updateSubscriptions(1L, Set.of(2L, 3L), Set.of(4L)))
+            .thenReturn(Optional.of(List.of(subscription(2L), subscription(3L))));
+
+        mockMvc.perform(post("/api/subscriptions/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"subscribe\":[2,3],\"unsubscribe\":[4]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].themeId").value(2))
+            .andExpect(jsonPath("$[1].theme.title").value("Thème 3"));
+    }
+
+    @Test
+    void updateSubscriptions_themeAjouteEtRetire() throws Exception {
+        when(subscriptionService.updateSubscriptions(1L, Set.of(2L), Set.of(2L)))
+            .thenThrow(new IllegalArgumentException("Un thème ne peut pas être à la fois ajouté et retiré"));
+
+        mockMvc.perform(post("/api/subscriptions/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"subscribe\":[2],\"unsubscribe\":[2]}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateSubscriptions_rejetteUneListeAbsente() throws Exception {
+        mockMvc.perform(post("/api/subscriptions/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"subscribe\":null,\"unsubscribe\":[4]}"))
+            .andExpect(status().isBadRequest());
+
+        verify(subscriptionService, never()).updateSubscriptions(any(), any(), any());
+    }
+
+    @Test
+    void updateSubscriptions_nonAuthentifie() throws Exception {
+        when(securityUtil.getCurrentUserId()).thenReturn(null);
+
+        mockMvc.perform(post("/api/subscriptions/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"subscribe\":[2],\"unsubscribe\":[]}"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    private static Subscription subscription(Long themeId) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("lecteur");
+        user.setEmail("lecteur@mdd.fr");
+        Theme theme = new Theme();
+        theme.setId(themeId);
+        theme.setTitle("Thème " + themeId);
+        theme.setDescription("Description " + themeId);
+        return new Subscription(user, theme);
+    }
+}
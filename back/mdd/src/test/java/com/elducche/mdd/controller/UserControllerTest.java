@@ -0,0 +1,120 @@
+package com.elducche.mdd.controller;
+
+import com.elducche.mdd.entity.User;
+import com.elducche.mdd.mapper.EntityMapper;
+import com.elducche.mdd.repository.CommentRepository.CommentActivity;
+import com.elducche.mdd.repository.PostRepository.PostSummary;
+import com.elducche.mdd.security.JwtAuthenticationFilter;
+import com.elducche.mdd.security.RateLimitFilter;
+import com.elducche.mdd.security.SecurityUtil;
+import com.elducche.mdd.service.ActivityService;
+import com.elducche.mdd.service.UserService;
+import com.elducche.mdd.util.AuthUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = UserController.class, excludeFilters = @ComponentScan.Filter(
+    type = FilterType.ASSIGNABLE_TYPE, classes = {JwtAuthenticationFilter.class, RateLimitFilter.class}))
+@AutoConfigureMockMvc(addFilters = false)
+@Import({AuthUtil.class, EntityMapper.class})
+class UserControllerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 12, 12, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private ActivityService activityService;
+
+    @MockBean
+    private SecurityUtil securityUtil;
+
+    @Test
+    void getCurrentUserProfile_renvoieLeProfilSansMotDePasse() throws Exception {
+        User user = new User();
+        user.setId(3L);
+        user.setUsername("alice");
+        user.setEmail("alice@mdd.fr");
+        user.setPassword("$2a$10$hash");
+        user.setCreatedAt(NOW);
+        when(securityUtil.getCurrentUserId()).thenReturn(3L);
+        when(userService.getUserById(3L)).thenReturn(Optional.of(user));
+
+        mockMvc.perform(get("/api/users/me"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(3))
+            .andExpect(jsonPath("$.username").value("alice"))
+            .andExpect(jsonPath("$.email").value("alice@mdd.fr"))
+            .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    void getCurrentUserProfile_nonAuthentifie() throws Exception {
+        when(securityUtil.getCurrentUserId()).thenReturn(null);
+
+        mockMvc.perform(get("/api/users/me"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void getUserActivity_renvoieLesPostsEtCommentairesFusionnes() throws Exception {
+        PostSummary post = mock(PostSummary.class);
+        when(post.getId()).thenReturn(10L);
+        when(post.getCreatedAt()).thenReturn(NOW);
+        when(post.getTitle()).thenReturn("Nouveautés de Java 21");
+        when(post.getExcerpt()).thenReturn("Les threads virtuels");
+        when(post.getThemeId()).thenReturn(1L);
+        when(post.getThemeTitle()).thenReturn("Java");
+        CommentActivity comment = mock(CommentActivity.class);
+        when(comment.getId()).thenReturn(20L);
+        when(comment.getCreatedAt()).thenReturn(NOW.minusHours(1));
+        when(comment.getPostId()).thenReturn(7L);
+        when(comment.getPostTitle()).thenReturn("Spring Boot 3");
+        when(comment.getContentPrefix()).thenReturn("Très clair, merci");
+        when(comment.getContentLength()).thenReturn(17);
+        when(activityService.getActivity(3L, null, 2)).thenReturn(new ActivityService.ActivityPage(List.of(
+            new ActivityService.ActivityItem(post, null),
+            new ActivityService.ActivityItem(null, comment)), "suivant"));
+
+        mockMvc.perform(get("/api/users/3/activity").param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(2))
+            .andExpect(jsonPath("$.items[0].type").value("post"))
+            .andExpect(jsonPath("$.items[0].postId").value(10))
+            .andExpect(jsonPath("$.items[0].theme.title").value("Java"))
+            .andExpect(jsonPath("$.items[1].type").value("comment"))
+            .andExpect(jsonPath("$.items[1].postId").value(7))
+            .andExpect(jsonPath("$.items[1].excerpt").value("Très clair, merci"))
+            .andExpect(jsonPath("$.nextCursor").value("suivant"));
+    }
+
+    @Test
+    void getUserActivity_curseurInvalide() throws Exception {
+        when(activityService.getActivity(3L, "invalide", 20))
+            .thenThrow(new IllegalArgumentException("Curseur de pagination invalide"));
+
+        mockMvc.perform(get("/api/users/3/activity").param("cursor", "invalide"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,133 @@
+package com.elducche.mdd.mapper;
+
+import com.elducche.mdd.dto.CompactPostPageDTO;
+import com.elducche.mdd.dto.PostDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mesure de la taille et du coût d'encodage d'une page de posts : liste JSON
+ * (auteur et thème répétés dans chaque post) contre page compacte en JSON, CBOR
+ * et Smile (auteurs et thèmes dédupliqués)
+ *
+ * Les mappers sont construits comme ceux des convertisseurs HTTP de Spring MVC.
+ * Les temps comparés sont les meilleurs de plusieurs séries ; leurs valeurs
+ * absolues, dépendantes de la machine, sont seulement journalisées.
+ */
+@Slf4j
+class CompactPageEncodingBenchmarkTest {
+
+    private static final int POSTS = 200;
+    private static final int AUTHORS = 20;
+    private static final int THEMES = 8;
+    private static final int WARMUP_ITERATIONS = 1_000;
+    private static final int MEASURED_ITERATIONS = 200;
+    private static final int ROUNDS = 5;
+
+    private static final ObjectMapper JSON = Jackson2ObjectMapperBuilder.json().build();
+    private static final ObjectMapper CBOR = Jackson2ObjectMapperBuilder.cbor().build();
+    private static final ObjectMapper SMILE = Jackson2ObjectMapperBuilder.smile().build();
+
+    private static List<PostDTO> posts;
+    private static CompactPostPageDTO compactPage;
+
+    @BeforeAll
+    static void setUp() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 12, 12, 0);
+        posts = new ArrayList<>(POSTS);
+        for (int i = 0; i < POSTS; i++) {
+            int author = i % AUTHORS;
+            int theme = i % THEMES;
+            posts.add(new PostDTO((long) POSTS - i, "Titre du post numéro " + i, null, null,
+                "Extrait du post " + i + " : " + "lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(3),
+                1_500 + i, now.minusMinutes(i), now.minusMinutes(i),
+                new PostDTO.AuthorDTO((long) author, "auteur" + author, "auteur" + author + "@mdd.fr"),
+                new PostDTO.ThemeDTO((long) theme, "Thème " + theme, "Description du thème " + theme)));
+        }
+        compactPage = new EntityMapper().toCompactPostPage(posts);
+    }
+
+    @Test
+    void pageCompacte_plusPetiteQueLaListeJson() throws JsonProcessingException {
+        int json = JSON.writeValueAsBytes(posts).length;
+        int compactJson = JSON.writeValueAsBytes(compactPage).length;
+        int cbor = CBOR.writeValueAsBytes(compactPage).length;
+        int smile = SMILE.writeValueAsBytes(compactPage).length;
+
+        log.info("Page de {} posts : JSON {} o, JSON compact {} o ({}), CBOR {} o ({}), Smile {} o ({})",
+                 POSTS, json, compactJson, ratio(compactJson, json), cbor, ratio(cbor, json), smile, ratio(smile, json));
+
+        assertThat(compactJson).isLessThan(json);
+        assertThat(cbor).isLessThan(compactJson);
+        assertThat(smile).isLessThan(compactJson);
+        // Auteurs et thèmes ne sont plus répétés : gain d'au moins un quart sur la liste JSON
+        assertThat(cbor).isLessThan(json * 3 / 4);
+        assertThat(smile).isLessThan(json * 3 / 4);
+    }
+
+    @Test
+    void pageCompacte_encodageBinairePlusRapideQueLaListeJson() {
+        Supplier<byte[]> json = () -> encode(JSON, posts);
+        Supplier<byte[]> compactJson = () -> encode(JSON, new EntityMapper().toCompactPostPage(posts));
+        Supplier<byte[]> cbor = () -> encode(CBOR, new EntityMapper().toCompactPostPage(posts));
+        Supplier<byte[]> smile = () -> encode(SMILE, new EntityMapper().toCompactPostPage(posts));
+        List<Supplier<byte[]>> encodings = List.of(json, compactJson, cbor, smile);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            encodings.forEach(Supplier::get);
+        }
+        // Meilleure moyenne de plusieurs séries alternées : écarte les pauses du GC et du JIT
+        long[] best = new long[encodings.size()];
+        Arrays.fill(best, Long.MAX_VALUE);
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int e = 0; e < encodings.size(); e++) {
+                best[e] = Math.min(best[e], averageNanos(encodings.get(e)));
+            }
+        }
+
+        log.info("Encodage d'une page de {} posts (conversion compacte comprise) : JSON {} µs, JSON compact {} µs ({}), "
+                 + "CBOR {} µs ({}), Smile {} µs ({})",
+                 POSTS, best[0] / 1_000, best[1] / 1_000, ratio(best[1], best[0]),
+                 best[2] / 1_000, ratio(best[2], best[0]), best[3] / 1_000, ratio(best[3], best[0]));
+
+        // La conversion compacte coûte moins que la sérialisation des auteurs et thèmes répétés
+        assertThat(best[2]).isLessThan(best[0]);
+        assertThat(best[3]).isLessThan(best[0]);
+    }
+
+    private static long averageNanos(Supplier<byte[]> encoding) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            checksum += encoding.get().length;
+        }
+        long elapsed = System.nanoTime() - start;
+        // Empêche l'élimination des encodages par le JIT
+        assertThat(checksum).isPositive();
+        return elapsed / MEASURED_ITERATIONS;
+    }
+
+    private static byte[] encode(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String ratio(long value, long reference) {
+        return String.format("%.0f %%", 100.0 * value / reference);
+    }
+}
@@ -0,0 +1,88 @@
+package com.elducche.mdd.security;
+
+import com.elducche.mdd.config.RateLimitProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.function.DoublePredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @AfterEach
+    void tearDown() {
+        limiter.shutdown();
+    }
+
+    @Test
+    void tryAcquire_refuseAuDelaDeLaLimite() {
+        limiter = new AdaptiveConcurrencyLimiter(properties(false, 2, 1, 10), meterRegistry);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(gauge("mdd.concurrency.in.flight")).isEqualTo(2);
+    }
+
+    @Test
+    void limite_diminueQuandLAttenteDuPoolDepasseLaCible() throws InterruptedException {
+        Timer acquire = Timer.builder("hikaricp.connections.acquire").register(meterRegistry);
+        limiter = new AdaptiveConcurrencyLimiter(properties(true, 50, 8, 100), meterRegistry);
+
+        // Attente de 200 ms pour une cible de 20 ms à chaque intervalle : -20 % jusqu'au minimum
+        Runnable slowPool = () -> acquire.record(Duration.ofMillis(200));
+        assertThat(awaitLimit(limit -> limit == 8, slowPool)).isTrue();
+        assertThat(awaitLimit(limit -> limit < 8, slowPool, Duration.ofMillis(100))).isFalse();
+    }
+
+    @Test
+    void limite_remonteSansDepasserLeMaximum() throws InterruptedException {
+        limiter = new AdaptiveConcurrencyLimiter(properties(true, 8, 8, 10), meterRegistry);
+
+        assertThat(awaitLimit(limit -> limit == 10, () -> { })).isTrue();
+        Thread.sleep(50);
+        assertThat(gauge("mdd.concurrency.limit")).isEqualTo(10);
+    }
+
+    private static RateLimitProperties properties(boolean enabled, int initialLimit, int minLimit, int maxLimit) {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Concurrency concurrency = properties.getConcurrency();
+        concurrency.setEnabled(enabled);
+        concurrency.setInitialLimit(initialLimit);
+        concurrency.setMinLimit(minLimit);
+        concurrency.setMaxLimit(maxLimit);
+        concurrency.setTargetAcquireTime(Duration.ofMillis(20));
+        concurrency.setSampleInterval(Duration.ofMillis(10));
+        return properties;
+    }
+
+    private boolean awaitLimit(DoublePredicate condition, Runnable eachPoll) throws InterruptedException {
+        return awaitLimit(condition, eachPoll, Duration.ofSeconds(5));
+    }
+
+    private boolean awaitLimit(DoublePredicate condition, Runnable eachPoll, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (condition.test(gauge("mdd.concurrency.limit"))) {
+                return true;
+            }
+            eachPoll.run();
+            Thread.sleep(5);
+        }
+        return false;
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,154 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.repository.CommentRepository;
+import com.elducche.mdd.repository.CommentRepository.CommentActivity;
+import com.elducche.mdd.repository.PostRepository;
+import com.elducche.mdd.repository.PostRepository.PostSummary;
+import com.elducche.mdd.util.ActivityCursor;
+import com.elducche.mdd.util.KeysetCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityServiceTest {
+
+    private static final Long USER_ID = 1L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 12, 12, 0);
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @InjectMocks
+    private ActivityService activityService;
+
+    @Test
+    void getActivity_fusionneLesDeuxListesDuPlusRecentAuPlusAncien() {
+        givenPosts(post(10L, NOW), post(9L, NOW.minusHours(3)));
+        givenComments(comment(20L, NOW.minusHours(1)), comment(19L, NOW.minusHours(4)));
+
+        ActivityService.ActivityPage page = activityService.getActivity(USER_ID, null, 10);
+
+        assertThat(page.items()).extracting(ActivityServiceTest::idOf).containsExactly(10L, 20L, 9L, 19L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getActivity_aDateEgaleLePostPasseAvantLeCommentaire() {
+        givenPosts(post(10L, NOW));
+        givenComments(comment(20L, NOW));
+
+        ActivityService.ActivityPage page = activityService.getActivity(USER_ID, null, 10);
+
+        assertThat(page.items()).extracting(ActivityServiceTest::idOf).containsExactly(10L, 20L);
+    }
+
+    @Test
+    void getActivity_pagePleineRenvoieLaPositionDesDerniersElementsServis() {
+        givenPosts(post(10L, NOW), post(9L, NOW.minusHours(3)));
+        givenComments(comment(20L, NOW.minusHours(1)), comment(19L, NOW.minusHours(4)));
+
+        ActivityService.ActivityPage page = activityService.getActivity(USER_ID, null, 2);
+
+        assertThat(page.items()).extracting(ActivityServiceTest::idOf).containsExactly(10L, 20L);
+        assertThat(ActivityCursor.decode(page.nextCursor())).isEqualTo(new ActivityCursor(
+            new KeysetCursor(NOW, 10L), new KeysetCursor(NOW.minusHours(1), 20L)));
+    }
+
+    @Test
+    void getActivity_repriseApresLeCurseur() {
+        KeysetCursor lastPost = new KeysetCursor(NOW, 10L);
+        String cursor = new ActivityCursor(lastPost, null).encode();
+        PostSummary older = post(9L, NOW.minusHours(3));
+        when(postRepository.streamSummariesByAuthorIdBefore(eq(USER_ID), eq(NOW), eq(10L), any(Pageable.class)))
+            .thenReturn(Stream.of(older));
+        when(commentRepository.streamRecentByUserId(eq(USER_ID), any(Pageable.class)))
+            .thenReturn(Stream.empty());
+
+        ActivityService.ActivityPage page = activityService.getActivity(USER_ID, cursor, 2);
+
+        assertThat(page.items()).extracting(ActivityServiceTest::idOf).containsExactly(9L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getActivity_lecturesBorneesALaPagePlusUn() {
+        when(postRepository.streamRecentSummariesByAuthorId(eq(USER_ID), any(Pageable.class)))
+            .thenReturn(Stream.empty());
+        when(commentRepository.streamRecentByUserId(eq(USER_ID), any(Pageable.class)))
+            .thenReturn(Stream.empty());
+
+        activityService.getActivity(USER_ID, null, 1_000);
+
+        verify(postRepository).streamRecentSummariesByAuthorId(USER_ID, Pageable.ofSize(101));
+        verify(commentRepository).streamRecentByUserId(USER_ID, Pageable.ofSize(101));
+    }
+
+    @Test
+    void getActivity_fermeLesFluxLus() {
+        AtomicBoolean postsClosed = new AtomicBoolean();
+        AtomicBoolean commentsClosed = new AtomicBoolean();
+        PostSummary post = post(10L, NOW);
+        when(postRepository.streamRecentSummariesByAuthorId(eq(USER_ID), any(Pageable.class)))
+            .thenReturn(Stream.of(post).onClose(() -> postsClosed.set(true)));
+        when(commentRepository.streamRecentByUserId(eq(USER_ID), any(Pageable.class)))
+            .thenReturn(Stream.<CommentActivity>empty().onClose(() -> commentsClosed.set(true)));
+
+        activityService.getActivity(USER_ID, null, 10);
+
+        assertThat(postsClosed).isTrue();
+        assertThat(commentsClosed).isTrue();
+    }
+
+    @Test
+    void getActivity_rejetteUnCurseurInvalide() {
+        assertThatThrownBy(() -> activityService.getActivity(USER_ID, "invalide", 10))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void givenPosts(PostSummary... posts) {
+        when(postRepository.streamRecentSummariesByAuthorId(eq(USER_ID), any(Pageable.class))).thenReturn(Stream.of(posts));
+    }
+
+    private void givenComments(CommentActivity... comments) {
+        when(commentRepository.streamRecentByUserId(eq(USER_ID), any(Pageable.class))).thenReturn(Stream.of(comments));
+    }
+
+    private static Long idOf(ActivityService.ActivityItem item) {
+        return item.post() != null ? item.post().getId() : item.comment().getId();
+    }
+
+    private static PostSummary post(Long id, LocalDateTime createdAt) {
+        PostSummary post = mock(PostSummary.class, withSettings().strictness(Strictness.LENIENT));
+        when(post.getId()).thenReturn(id);
+        when(post.getCreatedAt()).thenReturn(createdAt);
+        return post;
+    }
+
+    private static CommentActivity comment(Long id, LocalDateTime createdAt) {
+        CommentActivity comment = mock(CommentActivity.class, withSettings().strictness(Strictness.LENIENT));
+        when(comment.getId()).thenReturn(id);
+        when(comment.getCreatedAt()).thenReturn(createdAt);
+        return comment;
+    }
+}
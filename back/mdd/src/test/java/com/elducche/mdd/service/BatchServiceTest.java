@@ -0,0 +1,124 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.dto.BatchRequest;
+import com.elducche.mdd.dto.BatchResponse;
+import com.elducche.mdd.security.AdaptiveConcurrencyLimiter;
+import com.elducche.mdd.security.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchServiceTest {
+
+    private final DispatcherServlet dispatcherServlet = mock(DispatcherServlet.class);
+    private final RateLimiter rateLimiter = mock(RateLimiter.class);
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter = mock(AdaptiveConcurrencyLimiter.class);
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    /**
+     * Chemin -> contexte vu par la sous-requête dans le DispatcherServlet
+     */
+    private final Map<String, String> contextPaths = new ConcurrentHashMap<>();
+
+    private BatchService batchService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        executor.setCorePoolSize(2);
+        executor.initialize();
+        batchService = new BatchService(dispatcherServlet, new ObjectMapper(), executor, rateLimiter, concurrencyLimiter);
+        ReflectionTestUtils.setField(batchService, "timeoutMs", 5_000L);
+
+        when(rateLimiter.isEnabled()).thenReturn(true);
+        when(rateLimiter.clientKey(any())).thenReturn("user:1");
+        when(concurrencyLimiter.isEnabled()).thenReturn(true);
+        when(concurrencyLimiter.tryAcquire()).thenReturn(true);
+        doAnswer(invocation -> {
+            HttpServletRequest request = invocation.getArgument(0);
+            HttpServletResponse response = invocation.getArgument(1);
+            contextPaths.put(request.getServletPath(), request.getContextPath());
+            response.setStatus(200);
+            response.getOutputStream().write("{\"ok\":true}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(dispatcherServlet).service(any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_refuseLaListeCompleteDesPostsSansLimit() throws Exception {
+        BatchResponse response = execute(get("tous", "/api/posts"), get("page", "/api/posts?limit=20"));
+
+        assertThat(response.getResponses()).extracting(BatchResponse.SubResponse::getStatus).containsExactly(400, 200);
+        verify(rateLimiter).tryConsume(anyString(), eq("/api/posts"), anyString());
+        assertThat(contextPaths).containsOnlyKeys("/api/posts");
+    }
+
+    @Test
+    void execute_consommeUnJetonParSousRequeteSurSaRoute() throws Exception {
+        when(rateLimiter.tryConsume("GET", "/api/posts/5", "user:1")).thenReturn(0L);
+        when(rateLimiter.tryConsume("GET", "/api/comments/post/5", "user:1")).thenReturn(3L);
+
+        BatchResponse response = execute(get("post", "/api/posts/5"), get("comments", "/api/comments/post/5"));
+
+        assertThat(response.getResponses()).extracting(BatchResponse.SubResponse::getStatus).containsExactly(200, 429);
+        assertThat(contextPaths).containsOnlyKeys("/api/posts/5");
+    }
+
+    @Test
+    void execute_prendUnePlaceDeConcurrenceParSousRequete() throws Exception {
+        when(concurrencyLimiter.tryAcquire()).thenReturn(true, false);
+
+        BatchResponse response = execute(get("post", "/api/posts/5"));
+        BatchResponse refused = execute(get("post", "/api/posts/5"));
+
+        assertThat(response.getResponses().get(0).getStatus()).isEqualTo(200);
+        assertThat(response.getResponses().get(0).getBody().get("ok").asBoolean()).isTrue();
+        assertThat(refused.getResponses().get(0).getStatus()).isEqualTo(503);
+        verify(concurrencyLimiter).release();
+    }
+
+    @Test
+    void execute_copieLeContexteDeLaRequeteDuLot() throws Exception {
+        execute(get("post", "/api/posts/5"));
+
+        assertThat(contextPaths).containsEntry("/api/posts/5", "/mdd");
+    }
+
+    private BatchResponse execute(BatchRequest.SubRequest... subRequests) {
+        BatchRequest request = new BatchRequest();
+        request.setRequests(List.of(subRequests));
+        MockHttpServletRequest batchRequest = new MockHttpServletRequest("POST", "/mdd/api/batch");
+        batchRequest.setContextPath("/mdd");
+        return batchService.execute(request, batchRequest, new MockHttpServletResponse());
+    }
+
+    private static BatchRequest.SubRequest get(String id, String path) {
+        return new BatchRequest.SubRequest(id, "GET", path);
+    }
+}
@@ -0,0 +1,164 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.repository.PostRepository;
+import com.elducche.mdd.repository.PostRepository.PostSummary;
+import com.elducche.mdd.util.KeysetCursor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LatestPostsBufferTest {
+
+    private static final int CAPACITY = 3;
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 12, 12, 0);
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LatestPostsBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new LatestPostsBuffer(postRepository, mock(PlatformTransactionManager.class), meterRegistry);
+        ReflectionTestUtils.setField(buffer, "capacity", CAPACITY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.shutdown();
+    }
+
+    @Test
+    void page_videTantQueLeTamponNEstPasCharge() {
+        assertThat(buffer.page(null, 10)).isEmpty();
+        assertThat(pages("database")).isEqualTo(1);
+    }
+
+    @Test
+    void page_tamponCompletSertToutesLesPages() {
+        loadWith(post(3L, 3), post(2L, 2));
+
+        assertThat(ids(buffer.page(null, 10))).containsExactly(3L, 2L);
+        assertThat(ids(buffer.page(new KeysetCursor(at(3), 3L), 10))).containsExactly(2L);
+        assertThat(ids(buffer.page(new KeysetCursor(at(2), 2L), 10))).isEmpty();
+        assertThat(pages("memory")).isEqualTo(3);
+    }
+
+    @Test
+    void page_tamponPleinRenvoieEnBaseAuDelaDeSonContenu() {
+        loadWith(post(3L, 3), post(2L, 2), post(1L, 1));
+
+        assertThat(ids(buffer.page(null, 2))).containsExactly(3L, 2L);
+        assertThat(buffer.page(new KeysetCursor(at(2), 2L), 2)).isEmpty();
+        assertThat(pages("database")).isEqualTo(1);
+    }
+
+    @Test
+    void page_departageLesPostsDeMemeDateParId() {
+        loadWith(post(5L, 2), post(4L, 2));
+
+        assertThat(ids(buffer.page(new KeysetCursor(at(2), 5L), 10))).containsExactly(4L);
+    }
+
+    @Test
+    void apply_insereLeNouveauPostEtEvinceLePlusAncien() {
+        loadWith(post(3L, 3), post(2L, 2), post(1L, 1));
+        when(postRepository.findSummaryById(4L)).thenReturn(Optional.of(post(4L, 4)));
+
+        buffer.apply(4L);
+
+        assertThat(ids(buffer.page(null, 3))).containsExactly(4L, 3L, 2L);
+        // Le post évincé n'est plus en mémoire : la page suivante est lue en base
+        assertThat(buffer.page(new KeysetCursor(at(2), 2L), 3)).isEmpty();
+    }
+
+    @Test
+    void apply_remplaceUnPostModifieASaPlace() {
+        loadWith(post(3L, 3), post(2L, 2));
+        when(postRepository.findSummaryById(2L)).thenReturn(Optional.of(post(2L, 2, "Titre modifié")));
+
+        buffer.apply(2L);
+
+        List<PostSummary> page = buffer.page(null, 10).orElseThrow();
+        assertThat(page).extracting(PostSummary::getId).containsExactly(3L, 2L);
+        assertThat(page.get(1).getTitle()).isEqualTo("Titre modifié");
+    }
+
+    @Test
+    void apply_retireUnPostSupprime() {
+        loadWith(post(3L, 3), post(2L, 2));
+        when(postRepository.findSummaryById(3L)).thenReturn(Optional.empty());
+
+        buffer.apply(3L);
+
+        assertThat(ids(buffer.page(null, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void apply_ignoreUnPostPlusAncienQueLeTamponIncomplet() {
+        loadWith(post(5L, 5), post(4L, 4), post(3L, 3));
+        when(postRepository.findSummaryById(4L)).thenReturn(Optional.empty());
+        when(postRepository.findSummaryById(1L)).thenReturn(Optional.of(post(1L, 1)));
+
+        buffer.apply(4L);
+        buffer.apply(1L);
+
+        // Des posts entre 3 et 1 peuvent exister en base : 1 ne peut pas suivre 3 en mémoire
+        assertThat(ids(buffer.page(null, 2))).containsExactly(5L, 3L);
+        assertThat(buffer.page(null, 3)).isEmpty();
+    }
+
+    @Test
+    void apply_enErreurVideLeTampon() {
+        loadWith(post(3L, 3));
+        when(postRepository.findSummaryById(3L)).thenThrow(new IllegalStateException("base indisponible"));
+
+        buffer.apply(3L);
+
+        assertThat(buffer.page(null, 10)).isEmpty();
+    }
+
+    @Test
+    void apply_sansTamponChargeNeLitPasLaBase() {
+        buffer.apply(3L);
+
+        assertThat(buffer.page(null, 10)).isEmpty();
+    }
+
+    private void loadWith(PostSummary... posts) {
+        when(postRepository.findFirstSummaries(PageRequest.of(0, CAPACITY))).thenReturn(List.of(posts));
+        buffer.load();
+    }
+
+    private double pages(String source) {
+        return meterRegistry.get("mdd.latest.posts.pages").tag("source", source).counter().count();
+    }
+
+    private static List<Long> ids(Optional<List<PostSummary>> page) {
+        return page.orElseThrow().stream().map(PostSummary::getId).toList();
+    }
+
+    private static LocalDateTime at(int hour) {
+        return NOW.plusHours(hour);
+    }
+
+    private static PostSummary post(Long id, int hour) {
+        return post(id, hour, "Post " + id);
+    }
+
+    private static PostSummary post(Long id, int hour, String title) {
+        return new LatestPostsBuffer.Entry(id, title, "Extrait", 120, at(hour), at(hour),
+                                           1L, 1L, "Java", "Thème Java");
+    }
+}
@@ -0,0 +1,91 @@
+package com.elducche.mdd.service;
+
+import com.elducche.mdd.entity.SubscriptionId;
+import com.elducche.mdd.event.SubscriptionChangedEvent;
+import com.elducche.mdd.repository.SubscriptionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubscriptionGraphTest {
+
+    private final SubscriptionRepository subscriptionRepository = mock(SubscriptionRepository.class);
+    private SubscriptionGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = new SubscriptionGraph(subscriptionRepository, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(graph, "enabled", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        graph.shutdown();
+    }
+
+    @Test
+    void lectures_videsTantQueLIndexNEstPasCharge() {
+        assertThat(graph.isSubscribed(1L, 2L)).isEmpty();
+        assertThat(graph.countSubscribers(2L)).isEmpty();
+    }
+
+    @Test
+    void rebuild_chargeLesDeuxSensDeLIndex() {
+        loadWith(new SubscriptionId(1L, 2L), new SubscriptionId(1L, 3L), new SubscriptionId(4L, 2L));
+
+        assertThat(graph.isSubscribed(1L, 3L)).contains(true);
+        assertThat(graph.isSubscribed(4L, 3L)).contains(false);
+        assertThat(graph.countSubscriptions(1L)).contains(2L);
+        assertThat(graph.countSubscribers(2L)).contains(2L);
+    }
+
+    @Test
+    void onSubscriptionChanged_rechargeLUtilisateurHorsDuThreadQuiCommitte() {
+        loadWith(new SubscriptionId(1L, 2L));
+        AtomicReference<Thread> reloadThread = new AtomicReference<>();
+        when(subscriptionRepository.findThemeIdsByUserId(1L)).thenAnswer(invocation -> {
+            reloadThread.set(Thread.currentThread());
+            return List.of(3L);
+        });
+
+        graph.onSubscriptionChanged(new SubscriptionChangedEvent(1L, false));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> graph.isSubscribed(1L, 3L).orElse(false));
+        assertThat(graph.isSubscribed(1L, 2L)).contains(false);
+        assertThat(graph.countSubscribers(2L)).contains(0L);
+        assertThat(reloadThread.get()).isNotSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void rechargementEnEchec_reconstruitAussitotLIndex() {
+        loadWith(new SubscriptionId(1L, 2L));
+        when(subscriptionRepository.findThemeIdsByUserId(1L)).thenThrow(new IllegalStateException("connexion perdue"));
+        when(subscriptionRepository.streamAllIds()).thenAnswer(invocation -> Stream.of(new SubscriptionId(1L, 3L)));
+
+        graph.onSubscriptionChanged(new SubscriptionChangedEvent(1L, false));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> graph.isSubscribed(1L, 3L).orElse(false));
+        verify(subscriptionRepository, times(2)).streamAllIds();
+    }
+
+    private void loadWith(SubscriptionId... ids) {
+        when(subscriptionRepository.streamAllIds()).thenAnswer(invocation -> Stream.of(ids));
+        graph.rebuild();
+        await().atMost(Duration.ofSeconds(5)).until(() -> graph.countSubscriptions(ids[0].getUserId()).isPresent());
+    }
+}
@@ -0,0 +1,43 @@
+package com.elducche.mdd.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ActivityCursorTest {
+
+    private static final KeysetCursor POST = new KeysetCursor(LocalDateTime.of(2024, 5, 12, 14, 30), 7L);
+    private static final KeysetCursor COMMENT = new KeysetCursor(LocalDateTime.of(2024, 5, 11, 9, 0), 12L);
+
+    @Test
+    void decode_relitLesDeuxPositions() {
+        ActivityCursor cursor = new ActivityCursor(POST, COMMENT);
+
+        assertThat(ActivityCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void decode_relitUnePositionAbsente() {
+        ActivityCursor postsOnly = new ActivityCursor(POST, null);
+        ActivityCursor commentsOnly = new ActivityCursor(null, COMMENT);
+
+        assertThat(ActivityCursor.decode(postsOnly.encode())).isEqualTo(postsOnly);
+        assertThat(ActivityCursor.decode(commentsOnly.encode())).isEqualTo(commentsOnly);
+    }
+
+    @Test
+    void decode_rejetteUnCurseurInvalide() {
+        assertThatThrownBy(() -> ActivityCursor.decode("."))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Curseur de pagination invalide");
+        assertThatThrownBy(() -> ActivityCursor.decode(POST.encode()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ActivityCursor.decode(POST.encode() + "." + COMMENT.encode() + "." + POST.encode()))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ActivityCursor.decode(POST.encode() + ".invalide"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,45 @@
+package com.elducche.mdd.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_neDonneJamaisDeFauxNegatif() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@mdd.fr"));
+
+        assertThat(IntStream.range(0, 10_000))
+            .allMatch(i -> filter.mightContain("user" + i + "@mdd.fr"));
+    }
+
+    @Test
+    void mightContain_respecteLeTauxDeFauxPositifsVise() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@mdd.fr"));
+
+        long falsePositives = IntStream.range(0, 10_000)
+            .filter(i -> filter.mightContain("absent" + i + "@mdd.fr"))
+            .count();
+
+        // Taux visé 1 % : marge pour la variance du hachage
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void mightContain_filtreVide() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertThat(filter.mightContain("user@mdd.fr")).isFalse();
+    }
+
+    @Test
+    void sizeInBytes_croitAvecLeNombreDElements() {
+        assertThat(new BloomFilter(100_000, 0.01).sizeInBytes())
+            .isGreaterThan(new BloomFilter(1_000, 0.01).sizeInBytes());
+    }
+}
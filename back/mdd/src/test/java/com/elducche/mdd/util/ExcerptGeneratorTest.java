@@ -0,0 +1,41 @@
+package com.elducche.mdd.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExcerptGeneratorTest {
+
+    @Test
+    void excerpt_contenuCourtRenduTelQuel() {
+        assertThat(ExcerptGenerator.excerpt("  Très   clair,\n merci ")).isEqualTo("Très clair, merci");
+    }
+
+    @Test
+    void excerpt_coupeAuDernierMotComplet() {
+        String content = "mot ".repeat(60);
+
+        assertThat(ExcerptGenerator.excerpt(content)).isEqualTo("mot ".repeat(49) + "mot…");
+    }
+
+    @Test
+    void excerptDuPrefixe_contenuCompletSansPointsDeSuspension() {
+        String content = "Bravo 🎉🎉";
+
+        assertThat(ExcerptGenerator.excerpt(content, content.codePointCount(0, content.length()))).isEqualTo(content);
+    }
+
+    @Test
+    void excerptDuPrefixe_longueurEnPointsDeCode() {
+        // Préfixe de SOURCE_PREFIX_LENGTH points de code (plus d'unités UTF-16) d'un contenu plus long
+        String prefix = "🎉".repeat(10) + " ".repeat(ExcerptGenerator.SOURCE_PREFIX_LENGTH - 10);
+
+        assertThat(ExcerptGenerator.excerpt(prefix, ExcerptGenerator.SOURCE_PREFIX_LENGTH + 5))
+            .isEqualTo("🎉".repeat(10) + "…");
+    }
+
+    @Test
+    void excerptDuPrefixe_contenuTronqueSignale() {
+        assertThat(ExcerptGenerator.excerpt("Début du commentaire", 5_000)).isEqualTo("Début du commentaire…");
+    }
+}
@@ -0,0 +1,45 @@
+package com.elducche.mdd.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 12, 14, 30, 15, 123_456_000);
+
+    @Test
+    void decode_relitLeCurseurEncode() {
+        KeysetCursor cursor = new KeysetCursor(CREATED_AT, 42L);
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encode_estSurDansUneUrl() {
+        assertThat(new KeysetCursor(CREATED_AT, 42L).encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void decode_rejetteUnCurseurInvalide() {
+        assertThatThrownBy(() -> KeysetCursor.decode("pas-un-curseur"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Curseur de pagination invalide");
+        assertThatThrownBy(() -> KeysetCursor.decode("%%%"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void precedes_suitLOrdreDateDecroissantePuisIdDecroissant() {
+        KeysetCursor cursor = new KeysetCursor(CREATED_AT, 42L);
+
+        assertThat(cursor.precedes(CREATED_AT.minusSeconds(1), 100L)).isTrue();
+        assertThat(cursor.precedes(CREATED_AT, 41L)).isTrue();
+        assertThat(cursor.precedes(CREATED_AT, 42L)).isFalse();
+        assertThat(cursor.precedes(CREATED_AT, 43L)).isFalse();
+        assertThat(cursor.precedes(CREATED_AT.plusSeconds(1), 1L)).isFalse();
+    }
+}
@@ -0,0 +1,88 @@
+package com.elducche.mdd.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+
+    @Test
+    void execute_partageUnSeulChargementEntreAppelantsConcurrents() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "post 1";
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                    loads.incrementAndGet();
+                    return "autre chargement";
+                })));
+            }
+            // Les suiveurs doivent être en attente avant la fin du chargement
+            while (meterRegistry.get("mdd.singleflight.calls").tag("role", "follower").counter().count() < 3) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("post 1");
+            for (Future<String> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("post 1");
+            }
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_neConservePasLeResultat() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute(1L, () -> "v" + loads.incrementAndGet());
+        String second = singleFlight.execute(1L, () -> "v" + loads.incrementAndGet());
+
+        assertThat(second).isEqualTo("v2");
+        assertThat(meterRegistry.get("mdd.singleflight.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void execute_propageLExceptionDuChargementEtLibereLaCle() {
+        assertThatThrownBy(() -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("base indisponible");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("base indisponible");
+
+        assertThat(singleFlight.execute(1L, () -> "ok")).isEqualTo("ok");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
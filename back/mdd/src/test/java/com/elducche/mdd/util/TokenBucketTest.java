@@ -0,0 +1,96 @@
+package com.elducche.mdd.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    @Test
+    void tryConsume_autoriseUneRafaleDeLaCapacite() {
+        TokenBucket bucket = new TokenBucket(5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryConsume()).isTrue();
+        }
+        assertThat(bucket.tryConsume()).isFalse();
+    }
+
+    @Test
+    void secondsUntilNextToken_sansRechargeLeSeauVideResteVide() {
+        TokenBucket bucket = new TokenBucket(1, 0);
+        bucket.tryConsume();
+
+        assertThat(bucket.secondsUntilNextToken()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void secondsUntilNextToken_arrondiALaSecondeSuperieure() {
+        TokenBucket bucket = new TokenBucket(1, 0.5);
+        bucket.tryConsume();
+
+        assertThat(bucket.secondsUntilNextToken()).isBetween(1L, 2L);
+    }
+
+    @Test
+    void secondsUntilNextToken_zeroQuandUnJetonEstDisponible() {
+        assertThat(new TokenBucket(3, 1).secondsUntilNextToken()).isZero();
+    }
+
+    @Test
+    void tryConsume_rechargeAuDebitConfigure() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 100);
+        assertThat(bucket.tryConsume()).isTrue();
+        assertThat(bucket.tryConsume()).isFalse();
+
+        Thread.sleep(50);
+
+        assertThat(bucket.tryConsume()).isTrue();
+    }
+
+    @Test
+    void isFull_apresRechargeComplete() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(2, 100);
+        assertThat(bucket.isFull()).isTrue();
+
+        bucket.tryConsume();
+        assertThat(bucket.isFull()).isFalse();
+
+        Thread.sleep(50);
+        assertThat(bucket.isFull()).isTrue();
+    }
+
+    @Test
+    void tryConsume_neDistribuePasPlusDeJetonsQueLaCapaciteSousConcurrence() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 0);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < 50; j++) {
+                    if (bucket.tryConsume()) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(granted.get()).isEqualTo(100);
+    }
+}
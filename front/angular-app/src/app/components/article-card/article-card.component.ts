@@ -17,13 +17,14 @@ export class ArticleCardComponent {
   constructor(private readonly router: Router) {}
 
   /**
-   * Tronque le contenu à 150 caractères maximum
+   * Aperçu de l'article : extrait fourni par l'API (les listes n'envoient pas le contenu)
    */
-  truncateContent(content: string): string {
-    if (content.length <= 150) {
-      return content;
+  preview(post: Post): string {
+    if (post.excerpt != null) {
+      return post.excerpt;
     }
-    return content.substring(0, 150) + '...';
+    const content = post.content ?? '';
+    return content.length <= 150 ? content : content.substring(0, 150) + '...';
   }
 
   /**
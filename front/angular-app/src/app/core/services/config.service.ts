@@ -49,6 +49,7 @@ export class ConfigService {
       },
       posts: {
         all: this.getApiEndpoint('posts'),
+        explore: this.getApiEndpoint('posts/explore'),
         subscribed: this.getApiEndpoint('posts/subscribed'),
         byTheme: (themeId: number) => this.getApiEndpoint(`posts/theme/${themeId}`),
         byId: (id: number) => this.getApiEndpoint(`posts/${id}`)
@@ -58,6 +59,7 @@ export class ConfigService {
       },
       subscriptions: {
         all: this.getApiEndpoint('subscriptions'),
+        bulk: this.getApiEndpoint('subscriptions/bulk'),
         byId: (id: number) => this.getApiEndpoint(`subscriptions/${id}`)
       },
       comments: {
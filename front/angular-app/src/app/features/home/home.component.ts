@@ -22,8 +22,9 @@ export class HomeComponent implements OnInit {
   allPosts = signal<Post[]>([]);
   isLoadingMyFeed = signal(false);
   isLoadingAllPosts = signal(false);
+  isLoadingMoreAllPosts = signal(false);
+  allPostsNextCursor = signal<string | null>(null);
   sortOrderMyFeed = signal<'asc' | 'desc'>('desc');
-  sortOrderAllPosts = signal<'asc' | 'desc'>('desc');
 
   ngOnInit(): void {
     this.loadThemes();
@@ -59,9 +60,10 @@ export class HomeComponent implements OnInit {
 
   private loadAllPosts(): void {
     this.isLoadingAllPosts.set(true);
-    this.postService.getAllPosts().subscribe({
-      next: (posts) => {
-        this.allPosts.set(this.sortPosts(posts, this.sortOrderAllPosts()));
+    this.postService.getExplorePage().subscribe({
+      next: (page) => {
+        this.allPosts.set(page.posts);
+        this.allPostsNextCursor.set(page.nextCursor);
         this.isLoadingAllPosts.set(false);
       },
       error: (error) => {
@@ -72,6 +74,29 @@ export class HomeComponent implements OnInit {
     });
   }
 
+  /**
+   * Charge la page suivante de Tous les articles
+   * (pages servies par curseur, des plus récents aux plus anciens : pas de tri côté client)
+   */
+  protected loadMoreAllPosts(): void {
+    const cursor = this.allPostsNextCursor();
+    if (!cursor || this.isLoadingMoreAllPosts()) {
+      return;
+    }
+    this.isLoadingMoreAllPosts.set(true);
+    this.postService.getExplorePage(cursor).subscribe({
+      next: (page) => {
+        this.allPosts.update(posts => [...posts, ...page.posts]);
+        this.allPostsNextCursor.set(page.nextCursor);
+        this.isLoadingMoreAllPosts.set(false);
+      },
+      error: (error) => {
+        console.error('Erreur lors du chargement des articles suivants:', error);
+        this.isLoadingMoreAllPosts.set(false);
+      }
+    });
+  }
+
   /**
    * Trie les posts selon l'ordre sélectionné
    */
@@ -92,14 +117,6 @@ export class HomeComponent implements OnInit {
     this.myFeedPosts.update(posts => this.sortPosts(posts, order));
   }
 
-  /**
-   * Change l'ordre de tri pour Tous les articles
-   */
-  protected changeSortOrderAllPosts(order: 'asc' | 'desc'): void {
-    this.sortOrderAllPosts.set(order);
-    this.allPosts.update(posts => this.sortPosts(posts, order));
-  }
-
   /**
    * Gère le changement d'ordre de tri via l'événement select pour Mon Fil
    */
@@ -108,14 +125,6 @@ export class HomeComponent implements OnInit {
     this.changeSortOrderMyFeed(target.value as 'asc' | 'desc');
   }
 
-  /**
-   * Gère le changement d'ordre de tri via l'événement select pour Tous les articles
-   */
-  protected onSortOrderChangeAllPosts(event: Event): void {
-    const target = event.target as HTMLSelectElement;
-    this.changeSortOrderAllPosts(target.value as 'asc' | 'desc');
-  }
-
   openCreateArticleModal(): void {
     this.createArticleModal.openModal();
   }
@@ -103,7 +103,7 @@ export class ProfileComponent implements OnInit {
         // Mapper les abonnements vers les thèmes avec la date d'abonnement
         const themesWithSubscription = subscriptions.map(subscription => ({
           ...subscription.theme,
-          subscribedAt: subscription.createdAt ? new Date(subscription.createdAt) : new Date()
+          subscribedAt: subscription.subscribedAt ? new Date(subscription.subscribedAt) : new Date()
         } as ThemeWithSubscription));
 
         this.subscribedThemes.set(themesWithSubscription);
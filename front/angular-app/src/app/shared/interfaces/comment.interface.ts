@@ -1,6 +1,8 @@
 export interface Comment {
   id: number;
   content: string;
+  /** HTML assaini rendu côté serveur (null tant que le rendu n'est pas terminé) */
+  contentHtml: string | null;
   author: {
     id: number;
     username: string;
@@ -1,7 +1,13 @@
 export interface Post {
   id: number;
   title: string;
-  content: string;
+  /** Contenu complet : null dans les listes, présent sur GET /api/posts/{id} */
+  content: string | null;
+  /** HTML assaini rendu côté serveur (null dans les listes, ou tant que le rendu n'est pas terminé) */
+  contentHtml: string | null;
+  /** Aperçu précalculé (début du contenu, coupé au dernier mot complet) */
+  excerpt: string | null;
+  contentLength: number;
   author: {
     id: number;
     username: string;
@@ -16,6 +22,14 @@ export interface Post {
   updatedAt: string;
 }
 
+/**
+ * Page du fil global paginée par curseur (nextCursor null sur la dernière page)
+ */
+export interface PostPage {
+  posts: Post[];
+  nextCursor: string | null;
+}
+
 export interface PostCreateRequest {
   title: string;
   content: string;
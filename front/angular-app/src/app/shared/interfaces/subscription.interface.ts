@@ -1,8 +1,6 @@
 export interface Subscription {
-  id: {
-    userId: number;
-    themeId: number;
-  };
+  userId: number;
+  themeId: number;
   user: {
     id: number;
     username: string;
@@ -13,5 +11,5 @@ export interface Subscription {
     title: string;
     description: string;
   };
-  createdAt?: string;
+  subscribedAt?: string;
 }
@@ -1,8 +1,8 @@
 import { Injectable, inject } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { ConfigService } from '../../core/services/config.service';
-import { Post, PostCreateRequest } from '../interfaces/post.interface';
+import { Post, PostCreateRequest, PostPage } from '../interfaces/post.interface';
 
 @Injectable({
   providedIn: 'root'
@@ -18,6 +18,18 @@ export class PostService {
     return this.http.get<Post[]>(this.config.endpoints.posts.all);
   }
 
+  /**
+   * Récupère une page du fil global (plus récents d'abord)
+   * @param cursor Curseur renvoyé par la page précédente (absent pour la première page)
+   */
+  getExplorePage(cursor?: string | null, limit = 30): Observable<PostPage> {
+    let params = new HttpParams().set('limit', limit);
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<PostPage>(this.config.endpoints.posts.explore, { params });
+  }
+
   /**
    * Récupère les posts d'un thème spécifique
    */
@@ -25,6 +25,13 @@ export class SubscriptionService {
     return this.http.delete<void>(this.config.endpoints.subscriptions.byId(subscriptionId));
   }
 
+  /**
+   * Abonne et désabonne en une seule requête (idempotent), renvoie les abonnements résultants
+   */
+  updateSubscriptions(subscribe: number[], unsubscribe: number[] = []): Observable<Subscription[]> {
+    return this.http.post<Subscription[]>(this.config.endpoints.subscriptions.bulk, { subscribe, unsubscribe });
+  }
+
   /**
    * Récupère les abonnements de l'utilisateur connecté
    */